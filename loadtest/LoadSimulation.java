@@ -0,0 +1,580 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Offline load simulation for the Twilio IVRS webhooks and the emergency API.
+ *
+ * Plain JDK, no build step — run with the source launcher:
+ * <pre>
+ *   java loadtest/LoadSimulation.java stubs [options]     # stubs only, until Ctrl+C
+ *   java loadtest/LoadSimulation.java run   [options]     # stubs + load against a running app
+ * </pre>
+ * The app must run with the {@code loadtest} profile so Python, Groq and Twilio point at the stubs:
+ * Python on :18000 (bounded worker pool, so overload queues like the real service), Groq on :18001
+ * (JSON and SSE chat completions, Whisper), Twilio on :18002 (Messages API).
+ *
+ * Each simulated call follows the TwiML the app returns, like Twilio would: incoming → Gather
+ * digit 1 → Gather speech → Redirect/Pause hold loop until Hangup. Emergencies are posted with a
+ * JWT for {@code --user}. Reports per-step latency percentiles and error rates, plus JDBC pool
+ * saturation sampled from /api/system/db-pool.
+ */
+public class LoadSimulation {
+
+    // ────────────────── Options ──────────────────
+
+    static final Map<String, String> opts = new HashMap<>(Map.ofEntries(
+            Map.entry("base-url", "http://localhost:8080"),
+            Map.entry("calls", "500"),
+            Map.entry("emergencies", "50"),
+            Map.entry("ramp-seconds", "10"),
+            Map.entry("pause-scale", "1.0"),
+            Map.entry("max-hops", "60"),
+            Map.entry("startup-timeout-seconds", "120"),
+            Map.entry("python-latency-ms", "800"),
+            Map.entry("python-capacity", "8"),
+            Map.entry("python-error-rate", "0.0"),
+            Map.entry("groq-latency-ms", "300"),
+            Map.entry("twilio-latency-ms", "100"),
+            Map.entry("state-id", "1"),
+            Map.entry("district-id", "1"),
+            Map.entry("mandal-id", "1")
+    ));
+    static final Set<String> flags = new HashSet<>();
+
+    static String opt(String key) { return opts.get(key); }
+    static int intOpt(String key) { return Integer.parseInt(opts.get(key)); }
+    static double dblOpt(String key) { return Double.parseDouble(opts.get(key)); }
+
+    static final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0 || !(args[0].equals("stubs") || args[0].equals("run"))) {
+            usage();
+            return;
+        }
+        for (int i = 1; i < args.length; i++) {
+            String a = args[i];
+            if (!a.startsWith("--")) throw new IllegalArgumentException("Unexpected argument: " + a);
+            String key = a.substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) opts.put(key, args[++i]);
+            else flags.add(key);
+        }
+
+        if (args[0].equals("stubs")) {
+            Stubs.start();
+            System.out.println("Stubs running — start the app with the 'loadtest' profile. Ctrl+C to stop.");
+            Thread.currentThread().join();
+        } else {
+            if (!flags.contains("no-stubs")) Stubs.start();
+            new Run().execute();
+            System.exit(0);
+        }
+    }
+
+    static void usage() {
+        System.out.println("""
+                Usage:
+                  java loadtest/LoadSimulation.java stubs [--python-latency-ms 800] [--python-capacity 8]
+                                                          [--python-error-rate 0.0] [--groq-latency-ms 300]
+                                                          [--twilio-latency-ms 100]
+                  java loadtest/LoadSimulation.java run   [--base-url http://localhost:8080] [--calls 500]
+                                                          [--emergencies 50] [--ramp-seconds 10] [--pause-scale 1.0]
+                                                          [--user NAME --password PASS [--register]]
+                                                          [--no-stubs] [stub options]
+                --pause-scale scales TwiML <Pause> waits (0 = poll as fast as the app allows).
+                --register creates --user first (uses --state-id / --district-id / --mandal-id).
+                Without --user, emergencies and DB-pool sampling are skipped (both need a JWT).
+                """);
+    }
+
+    // ────────────────── Load run ──────────────────
+
+    static final class Run {
+        final String base = opt("base-url");
+        final Map<String, Metrics> steps = new ConcurrentSkipListMap<>();
+        final Map<String, AtomicInteger> outcomes = new ConcurrentSkipListMap<>();
+        final DbSampler dbSampler = new DbSampler();
+        String token;
+        Long farmerId;
+
+        void execute() throws Exception {
+            awaitApp();
+            authenticate();
+
+            int calls = intOpt("calls");
+            int emergencies = token != null && farmerId != null ? intOpt("emergencies") : 0;
+            long rampNanos = TimeUnit.SECONDS.toNanos(intOpt("ramp-seconds"));
+            System.out.printf("Simulating %d IVRS calls and %d emergencies over %d s ramp against %s%n",
+                    calls, emergencies, intOpt("ramp-seconds"), base);
+
+            Thread sampler = token != null ? Thread.ofVirtual().start(dbSampler) : null;
+            long start = System.nanoTime();
+            try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < calls; i++) {
+                    long at = start + (calls == 1 ? 0 : rampNanos * i / (calls - 1));
+                    pool.submit(() -> { sleepUntil(at); simulateCall(); });
+                }
+                for (int i = 0; i < emergencies; i++) {
+                    long at = start + (emergencies == 1 ? 0 : rampNanos * i / (emergencies - 1));
+                    pool.submit(() -> { sleepUntil(at); submitEmergency(); });
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            if (sampler != null) sampler.interrupt();
+
+            report(calls, emergencies, seconds);
+        }
+
+        void awaitApp() throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(intOpt("startup-timeout-seconds"));
+            while (true) {
+                try {
+                    http.send(HttpRequest.newBuilder(URI.create(base + "/api/farmers/validate-token")).GET().build(),
+                            HttpResponse.BodyHandlers.discarding());
+                    return;
+                } catch (IOException e) {
+                    if (System.nanoTime() > deadline) throw new IllegalStateException("App not reachable at " + base);
+                    Thread.sleep(1000);
+                }
+            }
+        }
+
+        void authenticate() throws Exception {
+            String user = opt("user");
+            String password = opt("password");
+            if (user == null || password == null) {
+                System.out.println("No --user/--password: skipping emergencies and DB-pool sampling.");
+                return;
+            }
+            if (flags.contains("register")) {
+                String phone = "9" + String.format("%09d", ThreadLocalRandom.current().nextInt(1_000_000_000));
+                HttpResponse<String> r = postJson("/api/farmers/register", """
+                        {"phoneNumber":"%s","userName":"%s","password":"%s","fullName":"Load Test",
+                         "dob":"1985-01-01","language":"ENGLISH","stateId":%s,"districtId":%s,"mandalId":%s,
+                         "latitude":17.385,"longitude":78.4867}
+                        """.formatted(phone, user, password, opt("state-id"), opt("district-id"), opt("mandal-id")), null);
+                System.out.println("Register " + user + ": HTTP " + r.statusCode());
+            }
+            HttpResponse<String> login = postJson("/api/farmers/login",
+                    "{\"userName\":\"%s\",\"password\":\"%s\"}".formatted(user, password), null);
+            token = jsonString(login.body(), "token");
+            if (token == null) {
+                System.out.println("Login failed (HTTP " + login.statusCode() + "): " + login.body());
+                return;
+            }
+            HttpResponse<String> profile = http.send(HttpRequest.newBuilder(URI.create(base + "/api/farmers/profile/" + user))
+                    .header("Authorization", "Bearer " + token).GET().build(), HttpResponse.BodyHandlers.ofString());
+            String id = jsonNumber(profile.body(), "id");
+            farmerId = id != null ? Long.valueOf(id) : null;
+            if (farmerId == null) System.out.println("Could not read farmer id: skipping emergencies.");
+        }
+
+        // ── one Twilio call, following the TwiML like Twilio does ──
+
+        void simulateCall() {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            String callSid = "CA" + UUID.randomUUID().toString().replace("-", "");
+            String from = "+919" + String.format("%09d", rnd.nextInt(1_000_000_000));
+            long callStart = System.nanoTime();
+            try {
+                String twiml = form("ivrs.incoming", "/api/ivrs/incoming", Map.of("CallSid", callSid, "From", from));
+                twiml = form("ivrs.menu", gatherAction(twiml), Map.of("Digits", "1"));
+                twiml = form("ivrs.process-symptoms", gatherAction(twiml),
+                        Map.of("SpeechResult", SYMPTOMS[rnd.nextInt(SYMPTOMS.length)]));
+
+                int hops = 0;
+                boolean queued = false;
+                String redirect;
+                while ((redirect = redirectTarget(twiml)) != null) {
+                    if (++hops > intOpt("max-hops")) throw new IllegalStateException("Too many redirects");
+                    queued |= twiml.contains("in line") || twiml.contains("कतार") || twiml.contains("వరుసలో");
+                    sleepPauses(twiml);
+                    twiml = form("ivrs.symptom-result", redirect, Map.of("CallSid", callSid));
+                }
+                if (!twiml.contains("<Hangup/>")) throw new IllegalStateException("Call ended without Hangup");
+
+                record("ivrs.call-total", callStart, true);
+                outcome(hops == 0 ? "answered instantly" : queued ? "answered after queueing" : "answered after hold");
+                if (twiml.contains("busy")) outcome("told service busy");
+            } catch (Exception e) {
+                record("ivrs.call-total", callStart, false);
+                outcome("failed: " + rootMessage(e));
+            } finally {
+                // What Twilio sends when the caller hangs up
+                try {
+                    form("ivrs.status", "/api/ivrs/status", Map.of("CallSid", callSid, "CallStatus", "completed"));
+                } catch (Exception ignored) {
+                    // already counted in ivrs.status
+                }
+            }
+        }
+
+        void submitEmergency() {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            String type = EMERGENCY_TYPES[rnd.nextInt(EMERGENCY_TYPES.length)];
+            String body = """
+                    {"farmerId":%d,"emergencyType":"%s","severity":"HIGH","latitude":%.5f,"longitude":%.5f}
+                    """.formatted(farmerId, type, 17.3 + rnd.nextDouble(0.2), 78.4 + rnd.nextDouble(0.2));
+            long t = System.nanoTime();
+            try {
+                HttpResponse<String> r = postJson("/api/emergency/create", body, token);
+                record("emergency.create", t, r.statusCode() == 200);
+            } catch (Exception e) {
+                record("emergency.create", t, false);
+            }
+        }
+
+        // ── HTTP helpers ──
+
+        String form(String step, String path, Map<String, String> params) throws Exception {
+            StringBuilder body = new StringBuilder();
+            params.forEach((k, v) -> {
+                if (!body.isEmpty()) body.append('&');
+                body.append(URLEncoder.encode(k, StandardCharsets.UTF_8)).append('=')
+                        .append(URLEncoder.encode(v, StandardCharsets.UTF_8));
+            });
+            long t = System.nanoTime();
+            try {
+                HttpResponse<String> r = http.send(HttpRequest.newBuilder(URI.create(base + path))
+                                .timeout(Duration.ofSeconds(15))    // Twilio's webhook timeout
+                                .header("Content-Type", "application/x-www-form-urlencoded")
+                                .POST(HttpRequest.BodyPublishers.ofString(body.toString())).build(),
+                        HttpResponse.BodyHandlers.ofString());
+                boolean ok = r.statusCode() / 100 == 2;
+                record(step, t, ok);
+                if (!ok) throw new IllegalStateException(step + " HTTP " + r.statusCode());
+                return r.body();
+            } catch (IOException e) {
+                record(step, t, false);
+                throw e;
+            }
+        }
+
+        HttpResponse<String> postJson(String path, String json, String bearer) throws Exception {
+            HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(base + path))
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json));
+            if (bearer != null) b.header("Authorization", "Bearer " + bearer);
+            return http.send(b.build(), HttpResponse.BodyHandlers.ofString());
+        }
+
+        void record(String step, long startNanos, boolean ok) {
+            steps.computeIfAbsent(step, s -> new Metrics()).add(System.nanoTime() - startNanos, ok);
+        }
+
+        void outcome(String what) {
+            outcomes.computeIfAbsent(what, w -> new AtomicInteger()).incrementAndGet();
+        }
+
+        // ── DB pool sampling ──
+
+        final class DbSampler implements Runnable {
+            int samples, saturated, maxActive, maxWaiting, poolMax, failures;
+
+            @Override
+            public void run() {
+                while (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        HttpResponse<String> r = http.send(HttpRequest.newBuilder(URI.create(base + "/api/system/db-pool"))
+                                .header("Authorization", "Bearer " + token).GET().build(),
+                                HttpResponse.BodyHandlers.ofString());
+                        if (r.statusCode() == 200) {
+                            int active = Integer.parseInt(jsonNumber(r.body(), "active"));
+                            int waiting = Integer.parseInt(jsonNumber(r.body(), "waiting"));
+                            poolMax = Integer.parseInt(jsonNumber(r.body(), "max"));
+                            synchronized (this) {
+                                samples++;
+                                if (active >= poolMax || waiting > 0) saturated++;
+                                maxActive = Math.max(maxActive, active);
+                                maxWaiting = Math.max(maxWaiting, waiting);
+                            }
+                        }
+                        Thread.sleep(500);
+                    } catch (InterruptedException e) {
+                        return;
+                    } catch (Exception e) {
+                        failures++;
+                    }
+                }
+            }
+        }
+
+        // ── report ──
+
+        void report(int calls, int emergencies, double seconds) {
+            System.out.printf("%nFinished in %.1f s (%.1f calls/s)%n%n", seconds, calls / seconds);
+            System.out.printf("%-24s %7s %7s %7s %8s %8s %8s %8s%n",
+                    "step", "count", "errors", "err%", "p50 ms", "p90 ms", "p99 ms", "max ms");
+            steps.forEach((step, m) -> {
+                long[] sorted = m.sortedMillis();
+                System.out.printf("%-24s %7d %7d %6.1f%% %8d %8d %8d %8d%n", step, sorted.length, m.errors.get(),
+                        sorted.length == 0 ? 0 : 100.0 * m.errors.get() / sorted.length,
+                        pct(sorted, 50), pct(sorted, 90), pct(sorted, 99), sorted.length == 0 ? 0 : sorted[sorted.length - 1]);
+            });
+
+            System.out.println("\nCall outcomes:");
+            outcomes.forEach((what, n) -> System.out.printf("  %-40s %d%n", what, n.get()));
+
+            if (token != null) {
+                synchronized (dbSampler) {
+                    System.out.printf("%nJDBC pool: max %d, peak active %d, peak waiting threads %d, "
+                                    + "saturated in %d of %d samples (%.0f%%)%n",
+                            dbSampler.poolMax, dbSampler.maxActive, dbSampler.maxWaiting, dbSampler.saturated,
+                            dbSampler.samples, dbSampler.samples == 0 ? 0 : 100.0 * dbSampler.saturated / dbSampler.samples);
+                }
+                printSystemEndpoint("/api/system/resilience");
+                printSystemEndpoint("/api/system/http-pool");
+            }
+            System.out.printf("%nStub traffic: python %d (peak %d concurrent), groq %d, twilio %d%n",
+                    Stubs.pythonRequests.get(), Stubs.pythonPeak.get(), Stubs.groqRequests.get(), Stubs.twilioRequests.get());
+        }
+
+        void printSystemEndpoint(String path) {
+            try {
+                HttpResponse<String> r = http.send(HttpRequest.newBuilder(URI.create(base + path))
+                        .header("Authorization", "Bearer " + token).GET().build(), HttpResponse.BodyHandlers.ofString());
+                System.out.println("\n" + path + ":\n" + r.body());
+            } catch (Exception e) {
+                System.out.println("\n" + path + ": " + rootMessage(e));
+            }
+        }
+    }
+
+    static final class Metrics {
+        final Queue<Long> nanos = new ConcurrentLinkedQueue<>();
+        final AtomicInteger errors = new AtomicInteger();
+
+        void add(long elapsed, boolean ok) {
+            nanos.add(elapsed);
+            if (!ok) errors.incrementAndGet();
+        }
+
+        long[] sortedMillis() {
+            return nanos.stream().mapToLong(TimeUnit.NANOSECONDS::toMillis).sorted().toArray();
+        }
+    }
+
+    static long pct(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, idx))];
+    }
+
+    // ────────────────── TwiML parsing ──────────────────
+
+    static final Pattern GATHER_ACTION = Pattern.compile("<Gather[^>]*action=\"([^\"]+)\"");
+    static final Pattern REDIRECT = Pattern.compile("<Redirect[^>]*>([^<]+)</Redirect>");
+    static final Pattern PAUSE = Pattern.compile("<Pause length=\"(\\d+)\"");
+
+    static String gatherAction(String twiml) {
+        Matcher m = GATHER_ACTION.matcher(twiml);
+        if (!m.find()) throw new IllegalStateException("Expected <Gather> in: " + abbreviate(twiml));
+        return unescape(m.group(1));
+    }
+
+    static String redirectTarget(String twiml) {
+        Matcher m = REDIRECT.matcher(twiml);
+        return m.find() ? unescape(m.group(1).trim()) : null;
+    }
+
+    static void sleepPauses(String twiml) throws InterruptedException {
+        Matcher m = PAUSE.matcher(twiml);
+        long ms = 0;
+        while (m.find()) ms += Long.parseLong(m.group(1)) * 1000;
+        Thread.sleep((long) (ms * dblOpt("pause-scale")));
+    }
+
+    static String unescape(String xml) {
+        return xml.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&apos;", "'").replace("&amp;", "&");
+    }
+
+    // ────────────────── Stubs ──────────────────
+
+    static final class Stubs {
+        static final AtomicLong pythonRequests = new AtomicLong();
+        static final AtomicLong groqRequests = new AtomicLong();
+        static final AtomicLong twilioRequests = new AtomicLong();
+        static final AtomicInteger pythonActive = new AtomicInteger();
+        static final AtomicInteger pythonPeak = new AtomicInteger();
+
+        static void start() throws IOException {
+            // Python: a fixed worker pool, like uvicorn workers — overload queues instead of scaling
+            HttpServer python = server(18000, Executors.newFixedThreadPool(intOpt("python-capacity")));
+            python.createContext("/api/v1/ivrs/process", ex -> python(ex, """
+                    {"translated_query":"crop leaves turning yellow","diagnosis":"Likely nitrogen deficiency (stub).",
+                     "translated_response":"Your crop likely needs nitrogen. Apply urea in split doses. (stub)"}
+                    """));
+            python.createContext("/api/v1/diagnose", ex -> python(ex, """
+                    {"classified_crop":"Rice","classified_disease":"Leaf Blast","confidence":0.91,
+                     "diagnosis":"Leaf blast (stub).","source":"rag","region_specific":false,
+                     "symptoms_matched":["spots"],"management_advice":{"chemical":"Tricyclazole (stub)"}}
+                    """));
+            python.createContext("/api/v1/diagnose/stream", ex -> python(ex, """
+                    {"stage":"classified","classified_crop":"Rice","classified_disease":"Leaf Blast","confidence":0.91}
+                    {"stage":"retrieved","documents":3,"source":"rag"}
+                    {"stage":"generated"}
+                    {"stage":"translated","language":"en"}
+                    {"stage":"done","result":{"classified_crop":"Rice","classified_disease":"Leaf Blast","confidence":0.91,"diagnosis":"Leaf blast (stub).","source":"rag","region_specific":false,"symptoms_matched":["spots"],"management_advice":{"chemical":"Tricyclazole (stub)"}}}
+                    """));
+            python.start();
+
+            HttpServer groq = server(18001, Executors.newVirtualThreadPerTaskExecutor());
+            groq.createContext("/openai/v1/chat/completions", Stubs::groqChat);
+            groq.createContext("/openai/v1/audio/transcriptions", ex -> {
+                groqRequests.incrementAndGet();
+                drain(ex);
+                latency(intOpt("groq-latency-ms"));
+                respond(ex, 200, "application/json", "{\"text\":\"My cow is not eating and has a high fever\"}");
+            });
+            groq.start();
+
+            HttpServer twilio = server(18002, Executors.newVirtualThreadPerTaskExecutor());
+            twilio.createContext("/2010-04-01/Accounts/", ex -> {
+                twilioRequests.incrementAndGet();
+                drain(ex);
+                latency(intOpt("twilio-latency-ms"));
+                String sid = "SM" + UUID.randomUUID().toString().replace("-", "");
+                respond(ex, 201, "application/json", """
+                        {"sid":"%s","status":"queued","account_sid":"ACloadtest","num_segments":"1","direction":"outbound-api"}
+                        """.formatted(sid));
+            });
+            twilio.start();
+
+            System.out.printf("Stubs: python :18000 (%d workers, ~%d ms), groq :18001 (~%d ms), twilio :18002 (~%d ms)%n",
+                    intOpt("python-capacity"), intOpt("python-latency-ms"), intOpt("groq-latency-ms"),
+                    intOpt("twilio-latency-ms"));
+        }
+
+        static void python(HttpExchange ex, String body) throws IOException {
+            pythonRequests.incrementAndGet();
+            pythonPeak.accumulateAndGet(pythonActive.incrementAndGet(), Math::max);
+            try {
+                drain(ex);
+                latency(intOpt("python-latency-ms"));
+                if (ThreadLocalRandom.current().nextDouble() < dblOpt("python-error-rate")) {
+                    respond(ex, 500, "application/json", "{\"detail\":\"stub failure\"}");
+                } else {
+                    respond(ex, 200, "application/json", body);
+                }
+            } finally {
+                pythonActive.decrementAndGet();
+            }
+        }
+
+        static void groqChat(HttpExchange ex) throws IOException {
+            groqRequests.incrementAndGet();
+            String request = new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            latency(intOpt("groq-latency-ms"));
+            String content = "{\\\"immediateAdvice\\\":\\\"Keep the animal calm and call a vet. (stub)\\\","
+                    + "\\\"severity\\\":\\\"HIGH\\\",\\\"diagnosis\\\":\\\"Suspected infection (stub)\\\","
+                    + "\\\"reasoning\\\":\\\"stub\\\",\\\"emergencyType\\\":\\\"LIVESTOCK_EMERGENCY\\\"}";
+            if (request.replace(" ", "").contains("\"stream\":true")) {
+                StringBuilder sse = new StringBuilder();
+                for (String piece : content.split("(?<=,)")) {
+                    sse.append("data: {\"choices\":[{\"delta\":{\"content\":\"").append(piece).append("\"}}]}\n\n");
+                }
+                sse.append("data: [DONE]\n\n");
+                respond(ex, 200, "text/event-stream", sse.toString());
+            } else {
+                respond(ex, 200, "application/json",
+                        "{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"" + content + "\"}}]}");
+            }
+        }
+
+        static HttpServer server(int port, ExecutorService executor) throws IOException {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port), 1024);
+            server.setExecutor(executor);
+            return server;
+        }
+
+        static void drain(HttpExchange ex) throws IOException {
+            ex.getRequestBody().readAllBytes();
+        }
+
+        /** Mean latency with ±50% uniform jitter. */
+        static void latency(int meanMs) {
+            if (meanMs <= 0) return;
+            try {
+                Thread.sleep((long) (meanMs * (0.5 + ThreadLocalRandom.current().nextDouble())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        static void respond(HttpExchange ex, int status, String contentType, String body) throws IOException {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", contentType);
+            ex.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    // ────────────────── Misc ──────────────────
+
+    static final String[] SYMPTOMS = {
+            "My paddy leaves are turning yellow",
+            "There are brown spots on my rice leaves",
+            "Wheat leaves have orange rust powder",
+            "Cotton bolls are falling early",
+            "White insects under the chilli leaves",
+            "Tomato plants are wilting in the afternoon",
+            "Maize leaves have holes and the stem is eaten",
+            "Groundnut leaves have dark circular spots",
+    };
+
+    static final String[] EMERGENCY_TYPES = {
+            "SNAKE_BITE", "PESTICIDE_POISONING", "FIRE_ACCIDENT", "TRACTOR_ACCIDENT", "LIVESTOCK_EMERGENCY"
+    };
+
+    static void sleepUntil(long nanoTime) {
+        long wait = nanoTime - System.nanoTime();
+        if (wait > 0) LockSupport.parkNanos(wait);
+    }
+
+    static String jsonString(String json, String key) {
+        Matcher m = Pattern.compile("\"" + key + "\"\\s*:\\s*\"([^\"]*)\"").matcher(json);
+        return m.find() ? m.group(1) : null;
+    }
+
+    static String jsonNumber(String json, String key) {
+        Matcher m = Pattern.compile("\"" + key + "\"\\s*:\\s*(-?\\d+)").matcher(json);
+        return m.find() ? m.group(1) : null;
+    }
+
+    static String rootMessage(Throwable e) {
+        Throwable t = e;
+        while (t.getCause() != null) t = t.getCause();
+        if (t instanceof ConnectException) return "connection refused";
+        return t.getMessage() != null ? abbreviate(t.getMessage()) : t.getClass().getSimpleName();
+    }
+
+    static String abbreviate(String s) {
+        return s.length() > 120 ? s.substring(0, 120) + "…" : s;
+    }
+}
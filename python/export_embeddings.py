@@ -0,0 +1,50 @@
+"""
+Export the RAG corpus embeddings for the Java-side vector store.
+
+    cd python && python export_embeddings.py [output_prefix]
+
+Writes (default prefix: model/rag_embeddings):
+  <prefix>.f32       16-byte header (magic "GVEM", version, rows, dim as
+                     little-endian int32) followed by rows x dim float32
+                     little-endian, L2-normalised, row-major
+  <prefix>.ids.json  chunk_id of every row, in row order
+"""
+
+import json
+import logging
+import struct
+import sys
+from pathlib import Path
+
+import numpy as np
+
+from config import BASE_DIR
+from services.embedding_service import EmbeddingService
+
+MAGIC = b"GVEM"
+VERSION = 1
+
+logging.basicConfig(level=logging.INFO, format="%(asctime)s - %(levelname)s - %(message)s")
+logger = logging.getLogger(__name__)
+
+
+def export(prefix: Path) -> None:
+    service = EmbeddingService()
+    matrix = np.ascontiguousarray(service.embeddings, dtype="<f4")
+    rows, dim = matrix.shape
+
+    prefix.parent.mkdir(parents=True, exist_ok=True)
+    with open(f"{prefix}.f32", "wb") as fh:
+        fh.write(MAGIC)
+        fh.write(struct.pack("<iii", VERSION, rows, dim))
+        fh.write(matrix.tobytes(order="C"))
+
+    ids = [doc.get("chunk_id", str(i)) for i, doc in enumerate(service.documents)]
+    with open(f"{prefix}.ids.json", "w", encoding="utf-8") as fh:
+        json.dump(ids, fh)
+
+    logger.info("Exported %d x %d embeddings to %s.*", rows, dim, prefix)
+
+
+if __name__ == "__main__":
+    export(Path(sys.argv[1]) if len(sys.argv) > 1 else BASE_DIR / "model" / "rag_embeddings")
@@ -0,0 +1,67 @@
+"""
+Export the crop-disease classifier for in-process inference in the JVM.
+
+    cd python && python export_onnx.py [output_prefix]
+
+Reads model.pth + class_names.json (see model/README.md) and writes
+(default prefix: model/model):
+  <prefix>.onnx         EfficientNet-B0, input "input" float32
+                        [batch, 3, 224, 224] RGB scaled to 0..1 (no mean/std,
+                        same as training), output "logits" [batch, classes];
+                        the batch dimension is dynamic
+  <prefix>.labels.json  one {"label", "crop", "disease"} per output index,
+                        mapped exactly as ImageClassifier.classify does
+"""
+
+import json
+import logging
+import sys
+from pathlib import Path
+
+import torch
+
+from config import BASE_DIR, CLASS_NAMES_PATH, MODEL_WEIGHTS_PATH
+from services.image_classifier import ImageClassifier, _build_model
+
+INPUT_SIZE = 224
+OPSET = 17
+
+logging.basicConfig(level=logging.INFO, format="%(asctime)s - %(levelname)s - %(message)s")
+logger = logging.getLogger(__name__)
+
+
+def export(prefix: Path) -> None:
+    with open(CLASS_NAMES_PATH, "r", encoding="utf-8") as fh:
+        class_names = json.load(fh)
+
+    model = _build_model(len(class_names))
+    model.load_state_dict(torch.load(MODEL_WEIGHTS_PATH, map_location="cpu", weights_only=True))
+    model.eval()
+
+    prefix.parent.mkdir(parents=True, exist_ok=True)
+    dummy = torch.zeros(1, 3, INPUT_SIZE, INPUT_SIZE)
+    torch.onnx.export(
+        model,
+        dummy,
+        f"{prefix}.onnx",
+        input_names=["input"],
+        output_names=["logits"],
+        dynamic_axes={"input": {0: "batch"}, "logits": {0: "batch"}},
+        opset_version=OPSET,
+    )
+
+    classifier = ImageClassifier()
+    labels = []
+    for name in class_names:
+        crop, disease = classifier._map_label(name)
+        if not (crop and disease):
+            crop, disease = ImageClassifier._split_label(name)
+        labels.append({"label": name, "crop": crop, "disease": disease})
+    with open(f"{prefix}.labels.json", "w", encoding="utf-8") as fh:
+        json.dump(labels, fh, ensure_ascii=False, indent=1)
+
+    logger.info("Exported %d-class classifier to %s.onnx", len(class_names), prefix)
+
+
+if __name__ == "__main__":
+    export(Path(sys.argv[1]) if len(sys.argv) > 1 else BASE_DIR / "model" / "model")
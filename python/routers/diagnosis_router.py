@@ -1,14 +1,19 @@
 """
 Web diagnosis router –
   POST /api/v1/diagnose           (text + image)
+  POST /api/v1/diagnose/stream    (same, NDJSON stage progress)
   POST /api/v1/diagnose/text-only (text only)
   POST /api/v1/rag/search         (raw RAG search)
 """
 
+import json
 import logging
-from typing import Optional
+import queue
+import threading
+from typing import Optional, Tuple
 
 from fastapi import APIRouter, File, Form, HTTPException, UploadFile
+from fastapi.responses import StreamingResponse
 
 from models.schemas import (
     DiagnosisResponse,
@@ -30,6 +35,15 @@ def set_rag_service(service):
     rag_service = service
 
 
+def _preclassified(
+    crop: Optional[str], disease: Optional[str], confidence: Optional[float]
+) -> Optional[Tuple[str, str, float]]:
+    """Classification done by the caller, if it sent one."""
+    if crop and disease:
+        return crop, disease, confidence or 0.0
+    return None
+
+
 # ── endpoints ────────────────────────────────────────────────────────────────
 
 
@@ -40,10 +54,14 @@ async def diagnose_crop(
     region: Optional[str] = Form(None, description="Region / state of the farmer"),
     farmer_id: Optional[int] = Form(None, description="Farmer ID"),
     image: Optional[UploadFile] = File(None, description="Image of the affected crop"),
+    classified_crop: Optional[str] = Form(None, description="Crop already classified by the caller"),
+    classified_disease: Optional[str] = Form(None, description="Disease already classified by the caller"),
+    confidence: Optional[float] = Form(None, description="Confidence of the caller's classification"),
 ):
     """
     Web diagnosis pipeline.
     Accepts user text + optional image → classifies disease → RAG → LLM → response.
+    If classified_crop / classified_disease are sent, the image step is skipped.
     """
     if rag_service is None:
         raise HTTPException(status_code=503, detail="Service not initialised")
@@ -59,6 +77,7 @@ async def diagnose_crop(
             image_bytes=image_bytes,
             language=language,
             region=region,
+            preclassified=_preclassified(classified_crop, classified_disease, confidence),
         )
         return DiagnosisResponse(**result)
     except Exception as exc:
@@ -66,6 +85,55 @@ async def diagnose_crop(
         raise HTTPException(status_code=500, detail=f"Diagnosis failed: {exc}")
 
 
+@router.post("/diagnose/stream")
+async def diagnose_crop_stream(
+    user_query: str = Form(...),
+    language: str = Form("en"),
+    region: Optional[str] = Form(None),
+    image: Optional[UploadFile] = File(None),
+    classified_crop: Optional[str] = Form(None),
+    classified_disease: Optional[str] = Form(None),
+    confidence: Optional[float] = Form(None),
+):
+    """
+    Same pipeline as /diagnose, streamed as newline-delimited JSON:
+    one {"stage": ...} line per finished stage (classified, retrieved,
+    generated, translated), then {"stage": "done", "result": {...}}
+    or {"stage": "error", "detail": "..."}.
+    """
+    if rag_service is None:
+        raise HTTPException(status_code=503, detail="Service not initialised")
+
+    image_bytes = await image.read() if image else None
+    preclassified = _preclassified(classified_crop, classified_disease, confidence)
+    events: "queue.Queue[Optional[dict]]" = queue.Queue()
+
+    def run():
+        try:
+            result = rag_service.diagnose_with_image(
+                user_query=user_query,
+                image_bytes=image_bytes,
+                language=language,
+                region=region,
+                on_stage=lambda name, data: events.put({"stage": name, **data}),
+                preclassified=preclassified,
+            )
+            events.put({"stage": "done", "result": DiagnosisResponse(**result).model_dump()})
+        except Exception as exc:
+            logger.error("Streamed diagnosis error: %s", exc)
+            events.put({"stage": "error", "detail": f"Diagnosis failed: {exc}"})
+        finally:
+            events.put(None)
+
+    threading.Thread(target=run, daemon=True).start()
+
+    def lines():
+        while (event := events.get()) is not None:
+            yield json.dumps(event) + "\n"
+
+    return StreamingResponse(lines(), media_type="application/x-ndjson")
+
+
 @router.post("/diagnose/text-only", response_model=DiagnosisResponse)
 async def diagnose_text_only(
     user_query: str = Form(...),
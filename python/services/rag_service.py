@@ -11,7 +11,7 @@ Exposes three high-level methods:
 """
 
 import logging
-from typing import Dict, List, Optional, Tuple
+from typing import Callable, Dict, List, Optional, Tuple
 
 from services.embedding_service import EmbeddingService
 from services.groq_service import GroqService
@@ -34,15 +34,34 @@ class RAGService:
         image_bytes: Optional[bytes] = None,
         language: str = "en",
         region: Optional[str] = None,
+        on_stage: Optional[Callable[[str, Dict], None]] = None,
+        preclassified: Optional[Tuple[str, str, float]] = None,
     ) -> Dict:
-        """Full diagnosis: image classification ➜ RAG ➜ LLM ➜ translate."""
+        """Full diagnosis: image classification ➜ RAG ➜ LLM ➜ translate.
+
+        ``on_stage(name, data)`` is called as each stage finishes:
+        classified, retrieved, generated, translated.
+
+        ``preclassified`` is a (crop, disease, confidence) the caller already
+        computed (the Java backend runs the same model in-process); the image
+        is then not needed and not classified again.
+        """
+        stage = on_stage or (lambda name, data: None)
 
         classified_crop: Optional[str] = None
         classified_disease: Optional[str] = None
         confidence: float = 0.0
 
         # 1. classify image (if provided) ─────────────────────────────────
-        if image_bytes:
+        if preclassified:
+            classified_crop, classified_disease, confidence = preclassified
+            logger.info(
+                "Pre-classified: %s – %s (%.3f)",
+                classified_crop,
+                classified_disease,
+                confidence,
+            )
+        elif image_bytes:
             classified_crop, classified_disease, confidence = (
                 self.image_classifier.classify(image_bytes)
             )
@@ -52,6 +71,11 @@ class RAGService:
                 classified_disease,
                 confidence,
             )
+        stage("classified", {
+            "classified_crop": classified_crop,
+            "classified_disease": classified_disease,
+            "confidence": confidence,
+        })
 
         # 2. build search query ───────────────────────────────────────────
         search_query = user_query
@@ -83,6 +107,7 @@ class RAGService:
         # 4. determine source ─────────────────────────────────────────────
         rag_docs = [{"document": doc, "score": score} for doc, score in rag_results]
         source = "rag" if rag_results else "llm"
+        stage("retrieved", {"documents": len(rag_docs), "source": source})
 
         # 5. generate diagnosis via Groq ──────────────────────────────────
         diagnosis = self.groq_service.generate_diagnosis(
@@ -93,6 +118,7 @@ class RAGService:
             region=region,
             language=language,
         )
+        stage("generated", {})
 
         # 6. extract structured data from top RAG hit ─────────────────────
         symptoms_matched: List[str] = []
@@ -110,6 +136,7 @@ class RAGService:
         # 7. translate if needed ──────────────────────────────────────────
         if language != "en":
             diagnosis = self.groq_service.translate(diagnosis, "en", language)
+        stage("translated", {"language": language})
 
         return {
             "classified_disease": classified_disease,
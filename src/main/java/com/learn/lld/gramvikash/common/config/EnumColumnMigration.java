@@ -0,0 +1,74 @@
+package com.learn.lld.gramvikash.common.config;
+
+import com.learn.lld.gramvikash.emergency.enums.EmergencyType;
+import com.learn.lld.gramvikash.ivrs.entity.IVRSSession;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps native MySQL {@code enum(...)} columns in step with the Java enums they store.
+ *
+ * Hibernate maps {@code @Enumerated(EnumType.STRING)} to a MySQL {@code enum} column, and
+ * {@code ddl-auto: update} never alters a column that already exists — so a value added to the
+ * Java enum later is rejected with "Data truncated" on any database created before it. Each
+ * column listed here gets the missing values appended on startup; existing values are kept.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EnumColumnMigration {
+
+    private static final Pattern ENUM_VALUE = Pattern.compile("'((?:[^']|'')*)'");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void addMissingEnumValues() {
+        addMissingValues("emergency_requests", "emergency_type", EmergencyType.class);
+        addMissingValues("emergency_requests_archive", "emergency_type", EmergencyType.class);
+        addMissingValues("ivrs_sessions", "call_status", IVRSSession.CallStatus.class);
+    }
+
+    void addMissingValues(String table, String column, Class<? extends Enum<?>> type) {
+        try {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList("""
+                    SELECT DATA_TYPE, COLUMN_TYPE, IS_NULLABLE FROM information_schema.COLUMNS
+                    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?
+                    """, table, column);
+            // No table yet (Hibernate will create it from the current enum) or not a native enum
+            if (rows.isEmpty() || !"enum".equalsIgnoreCase(String.valueOf(rows.get(0).get("DATA_TYPE")))) return;
+
+            Set<String> values = new LinkedHashSet<>();
+            Matcher m = ENUM_VALUE.matcher(String.valueOf(rows.get(0).get("COLUMN_TYPE")));
+            while (m.find()) values.add(m.group(1).replace("''", "'"));
+
+            List<String> missing = new ArrayList<>();
+            for (Enum<?> constant : type.getEnumConstants()) {
+                if (values.add(constant.name())) missing.add(constant.name());
+            }
+            if (missing.isEmpty()) return;
+
+            String definition = values.stream()
+                    .map(v -> "'" + v.replace("'", "''") + "'")
+                    .collect(Collectors.joining(",", "enum(", ")"));
+            String nullability = "NO".equalsIgnoreCase(String.valueOf(rows.get(0).get("IS_NULLABLE"))) ? " NOT NULL" : "";
+            jdbcTemplate.execute("ALTER TABLE " + table + " MODIFY " + column + " " + definition + nullability);
+            log.info("[Schema] {}.{} now accepts {}", table, column, missing);
+        } catch (Exception e) {
+            log.warn("[Schema] Could not add enum values to {}.{}: {}", table, column, e.getMessage());
+        }
+    }
+}
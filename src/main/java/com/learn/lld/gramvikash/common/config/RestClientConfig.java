@@ -1,22 +1,162 @@
 package com.learn.lld.gramvikash.common.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.routing.RoutingSupport;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
 /**
- * Provides a RestTemplate bean used by DiagnosticService and IVRSService
- * to call the Python FastAPI service.
+ * Outbound HTTP clients.
+ *
+ * <ul>
+ *   <li>{@code restTemplate} — Apache HttpClient 5 connection pool used by DiagnosticService and
+ *       IVRSService for the Python FastAPI service. Keep-alive connections are reused across
+ *       requests, with a per-route cap for the Python host. gzip/deflate responses are decoded
+ *       transparently.</li>
+ *   <li>{@code groqRestTemplate} — JDK HttpClient for Groq. Negotiates HTTP/2 over TLS (ALPN), so
+ *       concurrent Whisper / LLaMA calls multiplex over one connection instead of one handshake each.</li>
+ * </ul>
  */
 @Configuration
+@Slf4j
 public class RestClientConfig {
 
+    @Value("${http.client.connect-timeout-ms:10000}")
+    private long connectTimeoutMs;
+
+    @Value("${http.client.read-timeout-ms:60000}")
+    private long readTimeoutMs;                     // ML inference can be slow
+
+    @Value("${http.client.pool.max-total:100}")
+    private int maxTotal;
+
+    @Value("${http.client.pool.max-per-route:20}")
+    private int maxPerRoute;
+
+    @Value("${http.client.pool.python-max-connections:16}")
+    private int pythonMaxConnections;
+
+    @Value("${http.client.pool.keep-alive-seconds:60}")
+    private long keepAliveSeconds;
+
+    @Value("${http.client.pool.idle-evict-seconds:30}")
+    private long idleEvictSeconds;
+
+    @Value("${http.client.gzip-requests:false}")
+    private boolean gzipRequests;
+
+    @Value("${http.client.gzip-min-bytes:2048}")
+    private int gzipMinBytes;
+
+    @Value("${python.service.url:http://localhost:8000}")
+    private String pythonServiceUrl;
+
     @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(10_000);   // 10 s
-        factory.setReadTimeout(60_000);      // 60 s  (ML inference can be slow)
+    public PoolingHttpClientConnectionManager httpConnectionManager() {
+        PoolingHttpClientConnectionManager manager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)      // reuse the warmest connection, let the rest idle out
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(5))
+                        .build())
+                .build();
+
+        HttpRoute pythonRoute = new HttpRoute(RoutingSupport.normalize(
+                HttpHost.create(URI.create(pythonServiceUrl)), null));
+        manager.setMaxPerRoute(pythonRoute, pythonMaxConnections);
+        log.info("[HttpClient] Pool: {} total, {} per route, {} to {}",
+                maxTotal, maxPerRoute, pythonMaxConnections, pythonServiceUrl);
+        return manager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient pooledHttpClient(PoolingHttpClientConnectionManager httpConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(httpConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofSeconds(keepAliveSeconds))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(idleEvictSeconds))
+                .build();
+    }
+
+    @Bean
+    @Primary
+    public RestTemplate restTemplate(CloseableHttpClient pooledHttpClient) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(pooledHttpClient));
+        if (gzipRequests) {
+            restTemplate.getInterceptors().add(gzipRequestInterceptor());
+        }
+        return restTemplate;
+    }
+
+    @Bean
+    public RestTemplate groqRestTemplate() {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)           // falls back to HTTP/1.1 if the peer declines
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(client);
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
         return new RestTemplate(factory);
     }
+
+    /**
+     * Compresses request bodies above {@code gzip-min-bytes}. Opt-in: the receiving service must
+     * accept {@code Content-Encoding: gzip} request bodies (FastAPI needs a middleware for this).
+     */
+    private ClientHttpRequestInterceptor gzipRequestInterceptor() {
+        return (request, body, execution) -> {
+            MediaType contentType = request.getHeaders().getContentType();
+            // Multipart bodies are images / audio — already compressed
+            if (body.length < gzipMinBytes
+                    || request.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)
+                    || MediaType.MULTIPART_FORM_DATA.isCompatibleWith(contentType)) {
+                return execution.execute(request, body);
+            }
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 2);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(body);
+            }
+            request.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            request.getHeaders().setContentLength(compressed.size());
+            return execution.execute(request, compressed.toByteArray());
+        };
+    }
 }
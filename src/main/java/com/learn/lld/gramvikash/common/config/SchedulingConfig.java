@@ -0,0 +1,12 @@
+package com.learn.lld.gramvikash.common.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (aggregate eviction, archival, write-behind flushes).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
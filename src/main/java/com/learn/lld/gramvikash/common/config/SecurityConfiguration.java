@@ -42,6 +42,7 @@ public class SecurityConfiguration {
                 .requestMatchers("/api/schemes/browse", "/api/schemes/{schemeId}").permitAll()
                 .requestMatchers("/api/ivrs/**").permitAll()          // Twilio webhooks (no JWT)
                 .requestMatchers("/api/diagnostic/web").permitAll()   // public diagnosis
+                .requestMatchers("/api/diagnostic/jobs/**").permitAll()  // same, as async jobs (unguessable ids)
                 .anyRequest().authenticated()
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -0,0 +1,46 @@
+package com.learn.lld.gramvikash.common.controller;
+
+import com.learn.lld.gramvikash.common.dto.DbPoolStatsResponse;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * JDBC connection-pool usage — the number to watch for DB saturation under load.
+ *
+ * GET /api/system/db-pool
+ */
+@RestController
+@RequestMapping("/api/system")
+@RequiredArgsConstructor
+public class DbPoolController {
+
+    private final DataSource dataSource;
+
+    @GetMapping("/db-pool")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<DbPoolStatsResponse> getPoolStats() throws SQLException {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            // Pool is created lazily on the first connection
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(DbPoolStatsResponse.builder()
+                .pool(hikari.getPoolName())
+                .active(pool.getActiveConnections())
+                .idle(pool.getIdleConnections())
+                .total(pool.getTotalConnections())
+                .waiting(pool.getThreadsAwaitingConnection())
+                .max(hikari.getMaximumPoolSize())
+                .build());
+    }
+}
@@ -0,0 +1,46 @@
+package com.learn.lld.gramvikash.common.controller;
+
+import com.learn.lld.gramvikash.common.dto.HttpPoolStatsResponse;
+import com.learn.lld.gramvikash.common.dto.HttpPoolStatsResponse.PoolUsage;
+import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Connection-pool usage of the pooled outbound HTTP client, overall and per route.
+ *
+ * GET /api/system/http-pool
+ */
+@RestController
+@RequestMapping("/api/system")
+@RequiredArgsConstructor
+public class HttpPoolController {
+
+    private final PoolingHttpClientConnectionManager httpConnectionManager;
+
+    @GetMapping("/http-pool")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<HttpPoolStatsResponse> getPoolStats() {
+        List<PoolUsage> routes = httpConnectionManager.getRoutes().stream()
+                .map(route -> usage(route.getTargetHost().toURI(), httpConnectionManager.getStats(route)))
+                .sorted(Comparator.comparing(PoolUsage::route))
+                .toList();
+
+        return ResponseEntity.ok(HttpPoolStatsResponse.builder()
+                .total(usage("*", httpConnectionManager.getTotalStats()))
+                .routes(routes)
+                .build());
+    }
+
+    private PoolUsage usage(String route, PoolStats stats) {
+        return new PoolUsage(route, stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax());
+    }
+}
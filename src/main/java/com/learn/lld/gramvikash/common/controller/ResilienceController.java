@@ -0,0 +1,31 @@
+package com.learn.lld.gramvikash.common.controller;
+
+import com.learn.lld.gramvikash.common.resilience.ResilienceRegistry;
+import com.learn.lld.gramvikash.common.resilience.ResilienceRegistry.DependencyStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Live breaker / bulkhead / hedging counters for every outbound dependency.
+ *
+ * GET /api/system/resilience
+ */
+@RestController
+@RequestMapping("/api/system")
+@RequiredArgsConstructor
+public class ResilienceController {
+
+    private final ResilienceRegistry resilienceRegistry;
+
+    @GetMapping("/resilience")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<DependencyStats>> getResilienceStats() {
+        return ResponseEntity.ok(resilienceRegistry.stats());
+    }
+}
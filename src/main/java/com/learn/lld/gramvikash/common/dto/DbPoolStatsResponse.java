@@ -0,0 +1,23 @@
+package com.learn.lld.gramvikash.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * active = checked out, idle = ready in the pool, waiting = threads blocked on getConnection().
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DbPoolStatsResponse {
+
+    private String pool;
+    private int active;
+    private int idle;
+    private int total;
+    private int waiting;
+    private int max;
+}
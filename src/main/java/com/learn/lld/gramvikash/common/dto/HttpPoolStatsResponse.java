@@ -0,0 +1,23 @@
+package com.learn.lld.gramvikash.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HttpPoolStatsResponse {
+
+    private PoolUsage total;
+    private List<PoolUsage> routes;
+
+    /**
+     * leased = in use, pending = waiting for a connection, available = idle keep-alive connections.
+     */
+    public record PoolUsage(String route, int leased, int pending, int available, int max) {}
+}
@@ -0,0 +1,116 @@
+package com.learn.lld.gramvikash.common.image;
+
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * EXIF Orientation (tag 0x0112) for JPEGs.
+ *
+ * Phones store portrait photos as landscape pixels plus a rotation tag. {@link ImagePreprocessor}
+ * drops all metadata when it re-encodes, so the rotation is applied to the pixels here instead.
+ * Only the marker segments before the image data are read — never the compressed scan.
+ */
+final class ExifOrientation {
+
+    static final int NORMAL = 1;
+
+    private static final int SOI = 0xD8, EOI = 0xD9, SOS = 0xDA, APP1 = 0xE1;
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    private ExifOrientation() {}
+
+    /** The orientation value 1-8, or {@link #NORMAL} if the stream is not a JPEG or carries no tag. */
+    static int read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        try {
+            if (in.readUnsignedByte() != 0xFF || in.readUnsignedByte() != SOI) return NORMAL;
+            while (true) {
+                if (in.readUnsignedByte() != 0xFF) return NORMAL;
+                int marker = in.readUnsignedByte();
+                while (marker == 0xFF) marker = in.readUnsignedByte();   // fill bytes
+                if (marker == SOS || marker == EOI) return NORMAL;
+                if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) continue;   // no payload
+
+                int length = in.readUnsignedShort() - 2;
+                if (length < 0) return NORMAL;
+                if (marker != APP1) {
+                    in.skipNBytes(length);
+                    continue;
+                }
+                byte[] segment = new byte[length];
+                in.readFully(segment);
+                int orientation = fromExif(segment);
+                if (orientation != 0) return orientation;
+            }
+        } catch (EOFException e) {
+            return NORMAL;
+        }
+    }
+
+    /** Orientation from an APP1 payload, or 0 if it is not EXIF or has no valid tag. */
+    private static int fromExif(byte[] s) {
+        if (s.length < 14 || s[0] != 'E' || s[1] != 'x' || s[2] != 'i' || s[3] != 'f' || s[4] != 0 || s[5] != 0) {
+            return 0;
+        }
+        int tiff = 6;
+        boolean little = s[tiff] == 'I' && s[tiff + 1] == 'I';
+        if (!little && !(s[tiff] == 'M' && s[tiff + 1] == 'M')) return 0;
+
+        long ifd = tiff + u32(s, tiff + 4, little);
+        if (ifd + 2 > s.length) return 0;
+        int entries = u16(s, (int) ifd, little);
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > s.length) return 0;
+            if (u16(s, entry, little) == ORIENTATION_TAG) {
+                int value = u16(s, entry + 8, little);   // SHORT, left-justified in the value field
+                return value >= 1 && value <= 8 ? value : 0;
+            }
+        }
+        return 0;
+    }
+
+    /** Returns the image as it should be displayed; the same instance if nothing needs to change. */
+    static BufferedImage apply(BufferedImage src, int orientation) {
+        if (orientation <= NORMAL || orientation > 8) return src;
+        int w = src.getWidth(), h = src.getHeight();
+        boolean swap = orientation >= 5;
+        int dw = swap ? h : w;
+        int dh = swap ? w : h;
+
+        int[] in = src.getRGB(0, 0, w, h, null, 0, w);
+        int[] out = new int[in.length];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int dx, dy;
+                switch (orientation) {
+                    case 2 -> { dx = w - 1 - x; dy = y; }              // mirrored
+                    case 3 -> { dx = w - 1 - x; dy = h - 1 - y; }      // upside down
+                    case 4 -> { dx = x; dy = h - 1 - y; }              // mirrored, upside down
+                    case 5 -> { dx = y; dy = x; }                      // transpose
+                    case 6 -> { dx = h - 1 - y; dy = x; }              // rotate 90° clockwise
+                    case 7 -> { dx = h - 1 - y; dy = w - 1 - x; }      // transverse
+                    default -> { dx = y; dy = w - 1 - x; }             // 8: rotate 90° counter-clockwise
+                }
+                out[dy * dw + dx] = in[y * w + x];
+            }
+        }
+        BufferedImage rotated = new BufferedImage(dw, dh, BufferedImage.TYPE_INT_RGB);
+        rotated.setRGB(0, 0, dw, dh, out, 0, dw);
+        return rotated;
+    }
+
+    private static int u16(byte[] s, int at, boolean little) {
+        int a = s[at] & 0xFF, b = s[at + 1] & 0xFF;
+        return little ? a | b << 8 : a << 8 | b;
+    }
+
+    private static long u32(byte[] s, int at, boolean little) {
+        long hi = u16(s, at + (little ? 2 : 0), little);
+        long lo = u16(s, at + (little ? 0 : 2), little);
+        return hi << 16 | lo;
+    }
+}
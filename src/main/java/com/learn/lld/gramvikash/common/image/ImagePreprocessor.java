@@ -0,0 +1,176 @@
+package com.learn.lld.gramvikash.common.image;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
+
+/**
+ * Shrinks phone photos before they leave the JVM.
+ *
+ * Decodes with source subsampling (a 12 MP photo is never fully materialised), scales to the
+ * model's input size, and re-encodes as JPEG. Metadata such as EXIF/GPS is dropped because
+ * only the pixels are written back; the EXIF orientation is applied to the pixels first, so
+ * portrait phone photos stay upright. Typical 3-8 MB uploads come out at 60-200 KB.
+ *
+ * Formats ImageIO cannot decode (HEIC, WebP) are passed through unchanged.
+ */
+@Component
+@Slf4j
+public class ImagePreprocessor {
+
+    @Value("${image.preprocess.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    /**
+     * Writes the downscaled JPEG to {@code out}. Returns the MIME type actually written.
+     */
+    public String writeScaled(MultipartFile file, int maxDimension, OutputStream out) throws IOException {
+        BufferedImage image = decodeScaled(file, maxDimension);
+        if (image == null) {
+            log.warn("[ImagePreprocessor] Unsupported image format '{}', forwarding original ({} bytes)",
+                    file.getContentType(), file.getSize());
+            try (InputStream in = file.getInputStream()) {
+                in.transferTo(out);
+            }
+            return file.getContentType() != null ? file.getContentType() : "application/octet-stream";
+        }
+        encodeJpeg(image, out);
+        return "image/jpeg";
+    }
+
+    /**
+     * Downscaled JPEG bytes — for multipart forwarding.
+     */
+    public PreparedImage prepare(MultipartFile file, int maxDimension) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        String mimeType = writeScaled(file, maxDimension, out);
+        byte[] bytes = out.toByteArray();
+        log.info("[ImagePreprocessor] {} bytes → {} bytes ({})", file.getSize(), bytes.length, mimeType);
+        return new PreparedImage(bytes, mimeType);
+    }
+
+    /**
+     * {@code data:image/jpeg;base64,...} URI for vision APIs. The JPEG encoder writes straight
+     * through a base64 encoding stream, so neither the raw upload nor the raw JPEG is held as
+     * a separate byte[] alongside the encoded string.
+     */
+    public String toDataUri(MultipartFile file, int maxDimension) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(96 * 1024);
+        String mimeType;
+        try (OutputStream base64 = Base64.getEncoder().wrap(new NonClosingOutputStream(encoded))) {
+            mimeType = writeScaled(file, maxDimension, base64);
+        }
+        String prefix = "data:" + mimeType + ";base64,";
+        StringBuilder uri = new StringBuilder(prefix.length() + encoded.size());
+        uri.append(prefix).append(encoded.toString(StandardCharsets.US_ASCII));
+        log.info("[ImagePreprocessor] {} bytes → {} base64 chars ({})", file.getSize(), encoded.size(), mimeType);
+        return uri.toString();
+    }
+
+    // ────────────────── Internals ──────────────────
+
+    private BufferedImage decodeScaled(MultipartFile file, int maxDimension) throws IOException {
+        int orientation;
+        try (InputStream in = file.getInputStream()) {
+            orientation = ExifOrientation.read(in);
+        }
+
+        // Memory-cached streams: ImageIO's default file cache would add a temp-file copy per image
+        try (InputStream in = file.getInputStream();
+             ImageInputStream iis = new MemoryCacheImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) return null;
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);   // ignore metadata — never parsed, never kept
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                // Integer subsampling while decoding gets within 2× of the target cheaply
+                int subsample = Math.max(1, Math.max(width, height) / (maxDimension * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsample, subsample, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                return ExifOrientation.apply(scaleToRgb(decoded, maxDimension), orientation);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scaleToRgb(BufferedImage src, int maxDimension) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(src.getWidth(), src.getHeight()));
+        int w = Math.max(1, (int) Math.round(src.getWidth() * scale));
+        int h = Math.max(1, (int) Math.round(src.getHeight() * scale));
+
+        // Always redraw into plain RGB — JPEG cannot carry alpha and PNG palettes confuse the writer
+        BufferedImage out = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, w, h);
+            g.drawImage(src, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private void encodeJpeg(BufferedImage image, OutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream ios = new MemoryCacheImageOutputStream(new NonClosingOutputStream(out))) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    public record PreparedImage(byte[] bytes, String mimeType) {}
+
+    /** Lets ImageIO / Base64 wrappers close without closing the caller's stream. */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
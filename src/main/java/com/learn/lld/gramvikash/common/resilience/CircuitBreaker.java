@@ -0,0 +1,115 @@
+package com.learn.lld.gramvikash.common.resilience;
+
+import java.util.Arrays;
+
+/**
+ * Count-based circuit breaker.
+ *
+ * CLOSED: outcomes of the last {@code windowSize} calls are kept in a ring; once at least
+ * {@code minimumCalls} have been seen and the failure rate reaches the threshold, the breaker opens.
+ * OPEN: calls are rejected until {@code openMillis} has passed.
+ * HALF_OPEN: up to {@code probes} trial calls are let through — all succeed → CLOSED, any fails → OPEN.
+ *
+ * Every permit carries the generation it was issued in, so a slow call that started before a
+ * transition cannot skew the accounting of the new state.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openMillis;
+    private final int probes;
+
+    private final boolean[] outcomes;       // true = failure
+    private int next, recorded, failures;
+
+    private State state = State.CLOSED;
+    private long generation;
+    private long openedAt;
+    private int probesInFlight, probeSuccesses;
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long openMillis, int probes) {
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openMillis = openMillis;
+        this.probes = Math.max(1, probes);
+        this.outcomes = new boolean[windowSize];
+    }
+
+    /** Returns the permit generation, or -1 if the call must be rejected. */
+    synchronized long tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMillis) return -1;
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= probes) return -1;
+            probesInFlight++;
+        }
+        return generation;
+    }
+
+    synchronized void onSuccess(long permit) {
+        if (permit != generation) return;
+        if (state == State.HALF_OPEN) {
+            probesInFlight--;
+            if (++probeSuccesses >= probes) transition(State.CLOSED);
+        } else {
+            record(false);
+        }
+    }
+
+    synchronized void onFailure(long permit) {
+        if (permit != generation) return;
+        if (state == State.HALF_OPEN) {
+            transition(State.OPEN);
+            return;
+        }
+        record(true);
+        if (recorded >= minimumCalls && (double) failures / recorded >= failureRateThreshold) {
+            transition(State.OPEN);
+        }
+    }
+
+    /** Gives back a permit whose call never ran (e.g. rejected by the bulkhead). */
+    synchronized void release(long permit) {
+        if (permit == generation && state == State.HALF_OPEN) probesInFlight--;
+    }
+
+    synchronized State state() {
+        // Report a due OPEN → HALF_OPEN transition without waiting for the next call
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) return State.HALF_OPEN;
+        return state;
+    }
+
+    synchronized double failureRate() {
+        return recorded == 0 ? 0.0 : (double) failures / recorded;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == windowSize) {
+            if (outcomes[next]) failures--;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) failures++;
+        next = (next + 1) % windowSize;
+    }
+
+    private void transition(State to) {
+        state = to;
+        generation++;
+        probesInFlight = 0;
+        probeSuccesses = 0;
+        if (to == State.OPEN) openedAt = System.currentTimeMillis();
+        if (to == State.CLOSED) {
+            next = recorded = failures = 0;
+            Arrays.fill(outcomes, false);
+        }
+    }
+}
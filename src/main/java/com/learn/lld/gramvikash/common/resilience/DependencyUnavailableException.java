@@ -0,0 +1,23 @@
+package com.learn.lld.gramvikash.common.resilience;
+
+import lombok.Getter;
+
+/**
+ * Thrown instead of calling a dependency when its breaker is open, its bulkhead is full,
+ * or the call ran past its deadline. Callers treat it like any other call failure and
+ * take their existing fallback path.
+ */
+@Getter
+public class DependencyUnavailableException extends RuntimeException {
+
+    public enum Reason { CIRCUIT_OPEN, BULKHEAD_FULL, DEADLINE_EXCEEDED }
+
+    private final String dependency;
+    private final Reason reason;
+
+    public DependencyUnavailableException(String dependency, Reason reason) {
+        super(dependency + " unavailable: " + reason);
+        this.dependency = dependency;
+        this.reason = reason;
+    }
+}
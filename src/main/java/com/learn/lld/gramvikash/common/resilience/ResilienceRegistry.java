@@ -0,0 +1,319 @@
+package com.learn.lld.gramvikash.common.resilience;
+
+import com.learn.lld.gramvikash.common.resilience.DependencyUnavailableException.Reason;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Isolation for outbound calls (Groq, Python ML service, Twilio).
+ *
+ * Each named dependency gets:
+ * <ul>
+ *   <li>a bulkhead — its own virtual-thread executor capped by a semaphore, so a slow Python
+ *       service can only ever occupy its own slots and never the emergency path's;</li>
+ *   <li>a circuit breaker with half-open probing;</li>
+ *   <li>a per-call deadline — the caller waits at most this long, then takes its fallback;</li>
+ *   <li>optional hedging for idempotent calls — if the first attempt has not answered after
+ *       {@code hedge-delay-ms}, a second one is started and the first response wins.</li>
+ * </ul>
+ *
+ * Settings are read from {@code resilience.<dependency>.*}, falling back to {@code resilience.defaults.*}.
+ */
+@Component
+@Slf4j
+public class ResilienceRegistry {
+
+    private final Environment env;
+    private final Map<String, DependencyGuard> guards = new ConcurrentHashMap<>();
+
+    public ResilienceRegistry(Environment env) {
+        this.env = env;
+    }
+
+    /**
+     * Runs the call through the dependency's breaker, bulkhead and deadline.
+     */
+    public <T> T call(String dependency, Callable<T> task) {
+        return execute(guard(dependency), task, false);
+    }
+
+    /**
+     * Same as {@link #call}, but may send a second identical request if the first is slow.
+     * Only for idempotent calls; a no-op unless the dependency has a hedge delay configured.
+     */
+    public <T> T hedgedCall(String dependency, Callable<T> task) {
+        return execute(guard(dependency), task, true);
+    }
+
+    public List<DependencyStats> stats() {
+        return guards.values().stream().map(DependencyGuard::stats).sorted(
+                (a, b) -> a.dependency().compareTo(b.dependency())).toList();
+    }
+
+    // ────────────────── Execution ──────────────────
+
+    private <T> T execute(DependencyGuard g, Callable<T> task, boolean hedge) {
+        long permit = g.breaker.tryAcquire();
+        if (permit < 0) {
+            g.rejectedOpen.increment();
+            throw new DependencyUnavailableException(g.name, Reason.CIRCUIT_OPEN);
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(g.deadlineMs);
+        g.calls.increment();
+        try {
+            T result = hedge && g.hedgeDelayMs > 0
+                    ? runHedged(g, task, deadline)
+                    : await(g, submit(g, task, null), deadline);
+            g.breaker.onSuccess(permit);
+            g.successes.increment();
+            g.latencyNanos.add(System.nanoTime() - start);
+            return result;
+        } catch (DependencyUnavailableException e) {
+            if (e.getReason() == Reason.BULKHEAD_FULL) {
+                g.breaker.release(permit);
+                g.rejectedFull.increment();
+            } else {
+                g.breaker.onFailure(permit);
+                g.timeouts.increment();
+            }
+            throw e;
+        } catch (HttpClientErrorException e) {
+            // The dependency answered — a bad request is our problem, not an outage. 429 is an outage.
+            if (e.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
+                g.breaker.onFailure(permit);
+                g.failures.increment();
+            } else {
+                g.breaker.onSuccess(permit);
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            g.breaker.onFailure(permit);
+            g.failures.increment();
+            throw e;
+        }
+    }
+
+    private <T> Future<T> submit(DependencyGuard g, Callable<T> task, BlockingQueue<Future<T>> done) {
+        acquireSlot(g, g.maxWaitMs);
+        return submitAcquired(g, task, done);
+    }
+
+    /** Starts the call on a bulkhead slot that is already held; {@code done} (optional) receives it on completion. */
+    private <T> Future<T> submitAcquired(DependencyGuard g, Callable<T> task, BlockingQueue<Future<T>> done) {
+        FutureTask<T> future = new FutureTask<>(task) {
+            @Override
+            protected void done() {
+                if (done != null) done.add(this);
+            }
+        };
+        try {
+            g.executor.execute(() -> {
+                try {
+                    future.run();
+                } finally {
+                    // Held until the call really ends, not until the caller gives up
+                    g.bulkhead.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            g.bulkhead.release();
+            throw e;
+        }
+        return future;
+    }
+
+    private void acquireSlot(DependencyGuard g, long waitMs) {
+        try {
+            if (!g.bulkhead.tryAcquire(waitMs, TimeUnit.MILLISECONDS)) {
+                throw new DependencyUnavailableException(g.name, Reason.BULKHEAD_FULL);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DependencyUnavailableException(g.name, Reason.BULKHEAD_FULL);
+        }
+    }
+
+    private <T> T await(DependencyGuard g, Future<T> future, long deadline) {
+        try {
+            return future.get(remaining(deadline), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new DependencyUnavailableException(g.name, Reason.DEADLINE_EXCEEDED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new DependencyUnavailableException(g.name, Reason.DEADLINE_EXCEEDED);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private <T> T runHedged(DependencyGuard g, Callable<T> task, long deadline) {
+        BlockingQueue<Future<T>> done = new LinkedBlockingQueue<>();
+        List<Future<T>> attempts = new ArrayList<>(2);
+        Future<T> primary = submit(g, task, done);
+        attempts.add(primary);
+
+        try {
+            Future<T> first = done.poll(Math.min(g.hedgeDelayMs * 1_000_000L, remaining(deadline)),
+                    TimeUnit.NANOSECONDS);
+            // Hedge only if a slot is free right now — hedging must never queue behind real traffic
+            if (first == null && remaining(deadline) > 0 && g.bulkhead.tryAcquire()) {
+                attempts.add(submitAcquired(g, task, done));
+                g.hedges.increment();
+            } else if (first != null) {
+                done.add(first);
+            }
+
+            ExecutionException lastFailure = null;
+            for (int pending = attempts.size(); pending > 0; pending--) {
+                Future<T> completed = done.poll(remaining(deadline), TimeUnit.NANOSECONDS);
+                if (completed == null) throw new DependencyUnavailableException(g.name, Reason.DEADLINE_EXCEEDED);
+                try {
+                    T result = completed.get();
+                    if (completed != primary) g.hedgeWins.increment();
+                    return result;
+                } catch (ExecutionException e) {
+                    lastFailure = e;
+                }
+            }
+            // Every attempt failed — surface the last real error
+            throw unwrap(lastFailure);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DependencyUnavailableException(g.name, Reason.DEADLINE_EXCEEDED);
+        } finally {
+            attempts.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException re) return re;
+        if (cause instanceof Error err) throw err;
+        return new RuntimeException(cause.getMessage(), cause);
+    }
+
+    private long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    // ────────────────── Configuration ──────────────────
+
+    private DependencyGuard guard(String name) {
+        return guards.computeIfAbsent(name, this::create);
+    }
+
+    private DependencyGuard create(String name) {
+        DependencyGuard g = new DependencyGuard(
+                name,
+                prop(name, "max-concurrent", Integer.class, 20),
+                prop(name, "max-wait-ms", Long.class, 50L),
+                prop(name, "deadline-ms", Long.class, 15_000L),
+                prop(name, "hedge-delay-ms", Long.class, 0L),
+                new CircuitBreaker(
+                        prop(name, "window-size", Integer.class, 20),
+                        prop(name, "minimum-calls", Integer.class, 10),
+                        prop(name, "failure-rate-threshold", Double.class, 0.5),
+                        prop(name, "open-ms", Long.class, 30_000L),
+                        prop(name, "half-open-probes", Integer.class, 3)));
+        log.info("[Resilience] {}: {} slots, deadline {} ms, hedge after {} ms",
+                name, g.maxConcurrent, g.deadlineMs, g.hedgeDelayMs > 0 ? g.hedgeDelayMs : "never");
+        return g;
+    }
+
+    private <T> T prop(String dependency, String key, Class<T> type, T fallback) {
+        T value = env.getProperty("resilience." + dependency + "." + key, type);
+        return value != null ? value : env.getProperty("resilience.defaults." + key, type, fallback);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        guards.values().forEach(g -> g.executor.shutdownNow());
+    }
+
+    // ────────────────── Per-dependency state ──────────────────
+
+    private static final class DependencyGuard {
+        final String name;
+        final int maxConcurrent;
+        final long maxWaitMs;
+        final long deadlineMs;
+        final long hedgeDelayMs;
+        final CircuitBreaker breaker;
+        final Semaphore bulkhead;
+        final ExecutorService executor;
+
+        final LongAdder calls = new LongAdder();
+        final LongAdder successes = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+        final LongAdder rejectedOpen = new LongAdder();
+        final LongAdder rejectedFull = new LongAdder();
+        final LongAdder hedges = new LongAdder();
+        final LongAdder hedgeWins = new LongAdder();
+        final LongAdder latencyNanos = new LongAdder();
+
+        DependencyGuard(String name, int maxConcurrent, long maxWaitMs, long deadlineMs,
+                        long hedgeDelayMs, CircuitBreaker breaker) {
+            this.name = name;
+            this.maxConcurrent = maxConcurrent;
+            this.maxWaitMs = maxWaitMs;
+            this.deadlineMs = deadlineMs;
+            this.hedgeDelayMs = hedgeDelayMs;
+            this.breaker = breaker;
+            this.bulkhead = new Semaphore(maxConcurrent);
+            this.executor = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("outbound-" + name + "-", 0).factory());
+        }
+
+        DependencyStats stats() {
+            long ok = successes.sum();
+            return new DependencyStats(
+                    name,
+                    breaker.state().name(),
+                    breaker.failureRate(),
+                    maxConcurrent - bulkhead.availablePermits(),
+                    maxConcurrent,
+                    calls.sum(),
+                    ok,
+                    failures.sum(),
+                    timeouts.sum(),
+                    rejectedOpen.sum(),
+                    rejectedFull.sum(),
+                    hedges.sum(),
+                    hedgeWins.sum(),
+                    ok == 0 ? 0 : latencyNanos.sum() / ok / 1_000_000
+            );
+        }
+    }
+
+    public record DependencyStats(
+            String dependency,
+            String circuitState,
+            double failureRate,
+            int inFlight,
+            int maxConcurrent,
+            long calls,
+            long successes,
+            long failures,
+            long timeouts,
+            long rejectedCircuitOpen,
+            long rejectedBulkheadFull,
+            long hedgesLaunched,
+            long hedgesWon,
+            long avgLatencyMs
+    ) {}
+}
@@ -0,0 +1,41 @@
+package com.learn.lld.gramvikash.common.util;
+
+/**
+ * Minimal base-32 geohash encoder. Each extra character narrows a tile roughly 32×,
+ * so precision doubles as a map zoom level (4 ≈ 39 km, 5 ≈ 4.9 km, 6 ≈ 1.2 km).
+ */
+public final class GeoHash {
+
+    public static final int MAX_PRECISION = 12;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private GeoHash() {}
+
+    public static String encode(double lat, double lng, int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Geohash precision must be 1-" + MAX_PRECISION + ": " + precision);
+        }
+        double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+        char[] out = new char[precision];
+        boolean evenBit = true;   // geohash interleaves longitude first
+        int bit = 0, ch = 0, idx = 0;
+
+        while (idx < precision) {
+            if (evenBit) {
+                double mid = (minLng + maxLng) / 2;
+                if (lng >= mid) { ch = (ch << 1) | 1; minLng = mid; } else { ch <<= 1; maxLng = mid; }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) { ch = (ch << 1) | 1; minLat = mid; } else { ch <<= 1; maxLat = mid; }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                out[idx++] = BASE32[ch];
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return new String(out);
+    }
+}
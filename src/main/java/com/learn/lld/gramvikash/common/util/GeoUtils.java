@@ -0,0 +1,32 @@
+package com.learn.lld.gramvikash.common.util;
+
+/**
+ * In-memory geo helpers. Same Haversine formula the native repository queries use,
+ * for places where candidates are already loaded and a DB round trip would be wasteful.
+ */
+public final class GeoUtils {
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    private GeoUtils() {}
+
+    public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /** Degrees of latitude spanned by the given distance. */
+    public static double kmToLatDegrees(double km) {
+        return Math.toDegrees(km / EARTH_RADIUS_KM);
+    }
+
+    /** Degrees of longitude spanned by the given distance at the given latitude. */
+    public static double kmToLngDegrees(double km, double atLat) {
+        double cos = Math.max(0.01, Math.cos(Math.toRadians(atLat)));
+        return Math.toDegrees(km / (EARTH_RADIUS_KM * cos));
+    }
+}
@@ -0,0 +1,54 @@
+package com.learn.lld.gramvikash.common.util;
+
+/**
+ * Phone normalisation without regex or intermediate strings.
+ *
+ * Keeps only the digits; a leading 91 country code is dropped when more than 10 digits remain.
+ * The result is packed into a {@code long} key — digit count in the top byte, value below — so
+ * numbers with leading zeros stay distinct and lookups never build a String.
+ */
+public final class PhoneNumbers {
+
+    /** Key for input without a usable number (no digits, or longer than E.164 allows). */
+    public static final long NONE = -1L;
+
+    private static final int MAX_DIGITS = 15;
+    private static final int COUNT_SHIFT = 56;
+    private static final long VALUE_MASK = (1L << COUNT_SHIFT) - 1;
+    private static final long TEN_DIGITS = 10_000_000_000L;
+
+    private PhoneNumbers() {}
+
+    public static long normalise(CharSequence raw) {
+        if (raw == null) return NONE;
+        long value = 0;
+        int digits = 0;
+        int leading = 0;                 // first two digits, to spot the 91 prefix
+        for (int i = 0, n = raw.length(); i < n; i++) {
+            char c = raw.charAt(i);
+            if (c < '0' || c > '9') continue;
+            if (++digits > MAX_DIGITS) return NONE;
+            value = value * 10 + (c - '0');
+            if (digits == 2) leading = (int) value;
+        }
+        if (digits == 0) return NONE;
+        if (leading == 91 && digits > 10) {
+            value %= TEN_DIGITS;
+            digits = 10;
+        }
+        return ((long) digits << COUNT_SHIFT) | value;
+    }
+
+    /** Digits of a normalised key, zero-padded to their original length; "" for {@link #NONE}. */
+    public static String format(long key) {
+        if (key == NONE) return "";
+        int digits = (int) (key >>> COUNT_SHIFT);
+        long value = key & VALUE_MASK;
+        char[] out = new char[digits];
+        for (int i = digits - 1; i >= 0; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return new String(out);
+    }
+}
@@ -0,0 +1,99 @@
+package com.learn.lld.gramvikash.common.util;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Incremental scanner for a flat JSON object arriving in arbitrary fragments (LLM token streams).
+ *
+ * Reports each top-level string field the moment its closing quote arrives, without waiting
+ * for the object to finish. Anything before the first '{' (markdown fences, chatter) is skipped;
+ * nested objects/arrays and non-string values are stepped over but not reported.
+ */
+public final class StreamingJsonFieldParser {
+
+    private final BiConsumer<String, String> onField;
+    private final StringBuilder buf = new StringBuilder();
+
+    private int depth;
+    private boolean inString, escape, readingKey, afterColon, done;
+    private int unicodeDigits = -1;     // ≥0 while reading the 4 hex digits of a \\uXXXX escape
+    private int unicodeValue;
+    private String currentKey;
+
+    public StreamingJsonFieldParser(BiConsumer<String, String> onField) {
+        this.onField = onField;
+    }
+
+    public void feed(CharSequence chunk) {
+        for (int i = 0; i < chunk.length() && !done; i++) {
+            accept(chunk.charAt(i));
+        }
+    }
+
+    private void accept(char c) {
+        if (inString) {
+            acceptInString(c);
+            return;
+        }
+        if (depth == 0) {
+            if (c == '{') {
+                depth = 1;
+                afterColon = false;
+            }
+            return;
+        }
+        switch (c) {
+            case '"' -> {
+                inString = true;
+                buf.setLength(0);
+                readingKey = depth == 1 && !afterColon;
+            }
+            case ':' -> { if (depth == 1) afterColon = true; }
+            case ',' -> { if (depth == 1) afterColon = false; }
+            case '{', '[' -> depth++;
+            case '}', ']' -> {
+                depth--;
+                if (depth == 0) done = true;
+                else if (depth == 1) afterColon = false;
+            }
+            default -> { }
+        }
+    }
+
+    private void acceptInString(char c) {
+        if (unicodeDigits >= 0) {
+            unicodeValue = (unicodeValue << 4) | Character.digit(c, 16);
+            if (++unicodeDigits == 4) {
+                buf.append((char) unicodeValue);
+                unicodeDigits = -1;
+            }
+            return;
+        }
+        if (escape) {
+            escape = false;
+            switch (c) {
+                case 'n' -> buf.append('\n');
+                case 't' -> buf.append('\t');
+                case 'r' -> buf.append('\r');
+                case 'b' -> buf.append('\b');
+                case 'f' -> buf.append('\f');
+                case 'u' -> { unicodeDigits = 0; unicodeValue = 0; }
+                default -> buf.append(c);          // \" \\ \/
+            }
+            return;
+        }
+        if (c == '\\') {
+            escape = true;
+        } else if (c == '"') {
+            inString = false;
+            if (readingKey) {
+                currentKey = buf.toString();
+            } else if (depth == 1 && afterColon) {
+                onField.accept(currentKey, buf.toString());
+                afterColon = false;
+            }
+        } else if (depth == 1) {
+            buf.append(c);
+        }
+    }
+}
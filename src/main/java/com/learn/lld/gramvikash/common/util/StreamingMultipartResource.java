@@ -0,0 +1,52 @@
+package com.learn.lld.gramvikash.common.util;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Forwards an uploaded file to an outbound multipart request without loading it into the heap.
+ *
+ * Reads straight from the servlet multipart temp file on each {@link #getInputStream()}, and
+ * reports the known size so the HTTP converters never have to drain the stream to measure it.
+ * With the streaming request factory the body goes out chunked, so memory per upload stays at
+ * one copy buffer no matter how large the file is.
+ */
+public class StreamingMultipartResource extends AbstractResource {
+
+    private final MultipartFile file;
+    private final String filename;
+
+    public StreamingMultipartResource(MultipartFile file, String defaultFilename) {
+        this.file = file;
+        String original = file.getOriginalFilename();
+        this.filename = (original != null && !original.isBlank()) ? original : defaultFilename;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return file.getInputStream();
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public long contentLength() {
+        return file.getSize();
+    }
+
+    @Override
+    public boolean isReadable() {
+        return !file.isEmpty();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Multipart upload [" + filename + "]";
+    }
+}
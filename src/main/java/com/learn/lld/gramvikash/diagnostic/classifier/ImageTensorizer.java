@@ -0,0 +1,85 @@
+package com.learn.lld.gramvikash.diagnostic.classifier;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Turns an image into the classifier's input: RGB, resized to {@code size × size} (aspect ratio
+ * not kept), channel-planar (CHW) floats scaled to 0..1.
+ *
+ * This mirrors the Python inference transform — {@code Resize((224, 224))} then
+ * {@code ToTensor()}, with no mean/std normalisation because the model was trained without one.
+ * Large images are halved repeatedly before the final bilinear step, which approximates PIL's
+ * antialiased resize closely enough that Java and Python agree on the predicted class.
+ */
+public final class ImageTensorizer {
+
+    private final int size;
+
+    public ImageTensorizer(int size) {
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Floats per image: 3 × size × size. */
+    public int length() {
+        return 3 * size * size;
+    }
+
+    /**
+     * Decoded and tensorized image, or null if ImageIO cannot read the format (HEIC, WebP) —
+     * those still go to the Python classifier.
+     */
+    public float[] tensorize(byte[] image) throws IOException {
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(image));
+        if (decoded == null) return null;
+        return toChw(resize(decoded));
+    }
+
+    private BufferedImage resize(BufferedImage src) {
+        BufferedImage current = src;
+        int w = src.getWidth();
+        int h = src.getHeight();
+        while (w >= size * 2 && h >= size * 2) {
+            w /= 2;
+            h /= 2;
+            current = draw(current, w, h);
+        }
+        return draw(current, size, size);
+    }
+
+    private static BufferedImage draw(BufferedImage src, int w, int h) {
+        // Plain RGB: drops alpha and palettes, so every pixel reads back as 0xRRGGBB
+        BufferedImage out = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, w, h);
+            g.drawImage(src, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private float[] toChw(BufferedImage image) {
+        int plane = size * size;
+        int[] rgb = image.getRGB(0, 0, size, size, null, 0, size);
+        float[] out = new float[3 * plane];
+        for (int i = 0; i < plane; i++) {
+            int p = rgb[i];
+            out[i] = ((p >>> 16) & 0xFF) / 255f;
+            out[plane + i] = ((p >>> 8) & 0xFF) / 255f;
+            out[2 * plane + i] = (p & 0xFF) / 255f;
+        }
+        return out;
+    }
+}
@@ -3,11 +3,17 @@ package com.learn.lld.gramvikash.diagnostic.controller;
 import com.learn.lld.gramvikash.common.exception.ApiResponse;
 import com.learn.lld.gramvikash.diagnostic.dto.DiagnosticRequest;
 import com.learn.lld.gramvikash.diagnostic.dto.DiagnosticResponse;
+import com.learn.lld.gramvikash.diagnostic.service.DiagnosisJobService;
+import com.learn.lld.gramvikash.diagnostic.service.DiagnosisResultCache;
 import com.learn.lld.gramvikash.diagnostic.service.DiagnosticService;
+import com.learn.lld.gramvikash.diagnostic.service.EmbeddingSearchService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/diagnostic")
@@ -15,6 +21,9 @@ import org.springframework.web.multipart.MultipartFile;
 public class DiagnosticController {
 
     private final DiagnosticService diagnosticService;
+    private final DiagnosisResultCache resultCache;
+    private final DiagnosisJobService jobService;
+    private final EmbeddingSearchService embeddingSearch;
 
     /**
      * Web diagnosis endpoint.
@@ -40,12 +49,105 @@ public class DiagnosticController {
     }
 
     /**
-     * Retrieve diagnosis history for a farmer.
+     * Same pipeline as /web without holding the request open: returns 202 with a job id at once.
+     * Follow it with GET /jobs/{jobId} (polling) or GET /jobs/{jobId}/events (server-sent events).
+     *
+     * curl -X POST http://localhost:8080/api/diagnostic/jobs \
+     *   -F "userQuery=Brown spots on my rice leaves" -F "language=en" -F "image=@leaf.jpg"
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<ApiResponse> submitDiagnosisJob(
+            @RequestParam("userQuery") String userQuery,
+            @RequestParam(value = "farmerId", required = false) Long farmerId,
+            @RequestParam(value = "language", defaultValue = "en") String language,
+            @RequestParam(value = "region", required = false) String region,
+            @RequestParam(value = "image", required = false) MultipartFile image
+    ) {
+        DiagnosticRequest request = DiagnosticRequest.builder()
+                .userQuery(userQuery)
+                .farmerId(farmerId)
+                .language(language)
+                .region(region)
+                .build();
+
+        return jobService.submit(request, image)
+                .map(job -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .body(new ApiResponse(202, "Diagnosis queued", job)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(new ApiResponse(503, "Too many diagnoses in progress, please retry shortly", null)));
+    }
+
+    /**
+     * Poll a diagnosis job: status, completed stages, and the result once done.
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ApiResponse> getDiagnosisJob(@PathVariable String jobId) {
+        return jobService.find(jobId)
+                .map(job -> ResponseEntity.ok(new ApiResponse(200, "Job status", job)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse(404, "Job not found or expired", null)));
+    }
+
+    /**
+     * Stage progress for a diagnosis job as server-sent events: {@code status}, then one
+     * {@code stage} per finished step, then {@code result} or {@code error}.
+     *
+     * curl -N http://localhost:8080/api/diagnostic/jobs/{jobId}/events
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamDiagnosisJob(@PathVariable String jobId) {
+        return jobService.subscribe(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Diagnosis history for a farmer, newest first, one page at a time.
+     * Items carry a short diagnosis preview; pass {@code nextCursor} back as {@code cursor}
+     * for the next page.
      */
     @GetMapping("/history/{farmerId}")
-    public ResponseEntity<ApiResponse> getDiagnosisHistory(@PathVariable Long farmerId) {
+    public ResponseEntity<ApiResponse> getDiagnosisHistory(
+            @PathVariable Long farmerId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
         return ResponseEntity.ok(new ApiResponse(
-                200, "History retrieved", diagnosticService.getHistory(farmerId)
+                200, "History retrieved", diagnosticService.getHistory(farmerId, cursor, limit)
         ));
     }
+
+    /**
+     * Full text of one diagnosis from the history list.
+     */
+    @GetMapping("/sessions/{sessionId}")
+    public ResponseEntity<ApiResponse> getDiagnosisSession(@PathVariable Long sessionId) {
+        return diagnosticService.getSession(sessionId)
+                .map(session -> ResponseEntity.ok(new ApiResponse(200, "Session retrieved", session)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse(404, "Session not found", null)));
+    }
+
+    /**
+     * Knowledge chunks most similar to the given one ("related diseases"), from the in-JVM
+     * embedding store. 404 if the chunk is unknown or the store has not been exported.
+     */
+    @GetMapping("/chunks/{chunkId}/similar")
+    public ResponseEntity<ApiResponse> getSimilarChunks(
+            @PathVariable String chunkId,
+            @RequestParam(value = "k", defaultValue = "5") int k
+    ) {
+        return embeddingSearch.similarTo(chunkId, Math.min(Math.max(k, 1), 50))
+                .map(matches -> ResponseEntity.ok(new ApiResponse(200, "Similar chunks", matches)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse(404, "Chunk not found or embeddings not loaded", null)));
+    }
+
+    /**
+     * Hit / miss / coalesced counters of the diagnosis result cache.
+     */
+    @GetMapping("/cache-stats")
+    public ResponseEntity<ApiResponse> getCacheStats() {
+        return ResponseEntity.ok(new ApiResponse(200, "Cache stats", resultCache.stats()));
+    }
 }
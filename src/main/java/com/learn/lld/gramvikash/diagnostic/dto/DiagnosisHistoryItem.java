@@ -0,0 +1,18 @@
+package com.learn.lld.gramvikash.diagnostic.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DiagnosisHistoryItem {
+    private Long sessionId;
+    private String classifiedCrop;
+    private String classifiedDisease;
+    private Double confidence;
+    private LocalDateTime createdAt;
+    private String diagnosisPreview;   // first few sentences; full text via /sessions/{sessionId}
+}
@@ -0,0 +1,14 @@
+package com.learn.lld.gramvikash.diagnostic.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DiagnosisHistoryPage {
+    private List<DiagnosisHistoryItem> items;
+    private String nextCursor;   // pass as ?cursor= for the next page; null on the last page
+}
@@ -0,0 +1,20 @@
+package com.learn.lld.gramvikash.diagnostic.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DiagnosisJobResponse {
+    private String jobId;
+    private String status;                 // QUEUED | RUNNING | COMPLETED | FAILED
+    private List<String> completedStages;  // classified → retrieved → generated → translated
+    private DiagnosticResponse result;     // set once COMPLETED
+    private String error;                  // set once FAILED
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+}
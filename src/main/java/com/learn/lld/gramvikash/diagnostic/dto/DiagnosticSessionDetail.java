@@ -0,0 +1,24 @@
+package com.learn.lld.gramvikash.diagnostic.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DiagnosticSessionDetail {
+    private Long sessionId;
+    private String userQuery;
+    private String classifiedCrop;
+    private String classifiedDisease;
+    private Double confidence;
+    private String diagnosis;
+    private String source;
+    private String sourceType;
+    private String language;
+    private String region;
+    private Boolean regionSpecific;
+    private LocalDateTime createdAt;
+}
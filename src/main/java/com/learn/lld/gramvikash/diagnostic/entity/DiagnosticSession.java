@@ -7,7 +7,8 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "diagnostic_sessions")
+@Table(name = "diagnostic_sessions",
+        indexes = @Index(name = "idx_diagnostic_farmer_created", columnList = "farmer_id, createdAt"))
 @Getter
 @Setter
 @NoArgsConstructor
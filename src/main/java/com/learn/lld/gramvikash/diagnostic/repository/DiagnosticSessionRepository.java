@@ -1,13 +1,68 @@
 package com.learn.lld.gramvikash.diagnostic.repository;
 
 import com.learn.lld.gramvikash.diagnostic.entity.DiagnosticSession;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface DiagnosticSessionRepository extends JpaRepository<DiagnosticSession, Long> {
-    List<DiagnosticSession> findByFarmerIdOrderByCreatedAtDesc(Long farmerId);
     List<DiagnosticSession> findBySourceTypeOrderByCreatedAtDesc(String sourceType);
+
+    /**
+     * Newest-first history page for a farmer — slim columns and a diagnosis prefix only,
+     * served from idx_diagnostic_farmer_created.
+     */
+    @Query("SELECT d.id AS id, d.classifiedCrop AS classifiedCrop, d.classifiedDisease AS classifiedDisease, "
+            + "d.classificationConfidence AS confidence, d.createdAt AS createdAt, "
+            + "SUBSTRING(d.diagnosisResponse, 1, :previewChars) AS diagnosisPreview "
+            + "FROM DiagnosticSession d WHERE d.farmer.id = :farmerId "
+            + "ORDER BY d.createdAt DESC, d.id DESC")
+    List<HistoryItem> findHistory(@Param("farmerId") Long farmerId,
+                                  @Param("previewChars") int previewChars, Pageable page);
+
+    /**
+     * Next history page: rows strictly older than the (createdAt, id) cursor.
+     */
+    @Query("SELECT d.id AS id, d.classifiedCrop AS classifiedCrop, d.classifiedDisease AS classifiedDisease, "
+            + "d.classificationConfidence AS confidence, d.createdAt AS createdAt, "
+            + "SUBSTRING(d.diagnosisResponse, 1, :previewChars) AS diagnosisPreview "
+            + "FROM DiagnosticSession d WHERE d.farmer.id = :farmerId "
+            + "AND (d.createdAt < :createdAt OR (d.createdAt = :createdAt AND d.id < :id)) "
+            + "ORDER BY d.createdAt DESC, d.id DESC")
+    List<HistoryItem> findHistoryBefore(@Param("farmerId") Long farmerId,
+                                        @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                        @Param("previewChars") int previewChars, Pageable page);
+
+    /**
+     * Successful diagnoses since {@code since}, reduced to what the frequent-query miner needs.
+     */
+    @Query("SELECT d.language AS language, d.region AS region, d.userQuery AS query, "
+            + "d.diagnosisResponse AS response, d.createdAt AS askedAt "
+            + "FROM DiagnosticSession d "
+            + "WHERE d.createdAt >= :since AND d.userQuery IS NOT NULL AND d.diagnosisResponse IS NOT NULL "
+            + "AND (d.source IS NULL OR d.source NOT IN ('error', 'local'))")
+    List<AnsweredQuery> findAnsweredQueries(@Param("since") LocalDateTime since);
+
+    interface HistoryItem {
+        Long getId();
+        String getClassifiedCrop();
+        String getClassifiedDisease();
+        Double getConfidence();
+        LocalDateTime getCreatedAt();
+        String getDiagnosisPreview();
+    }
+
+    interface AnsweredQuery {
+        String getLanguage();
+        String getRegion();
+        String getQuery();
+        String getResponse();
+        LocalDateTime getAskedAt();
+    }
 }
@@ -0,0 +1,118 @@
+package com.learn.lld.gramvikash.diagnostic.retrieval;
+
+import com.learn.lld.gramvikash.ivrs.answers.QueryNormalizer;
+
+import java.util.*;
+
+/**
+ * Okapi BM25 over small, field-weighted documents.
+ *
+ * Each field's text is tokenised with {@link QueryNormalizer} and counted with the field's boost,
+ * so a word in the disease name outweighs the same word in a management tip (BM25F-style).
+ * Postings are flat int / float arrays and scores accumulate into one array per query, so a
+ * search over a few thousand chunks costs microseconds.
+ */
+public final class Bm25Index {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    public record Hit(int doc, double score, Set<String> matchedTerms) {}
+
+    /** One document under construction: boosted term counts and boosted length. */
+    public static final class Document {
+        private final Map<String, Float> termWeights = new HashMap<>();
+        private float length;
+
+        public Document add(String text, float boost) {
+            for (String token : QueryNormalizer.tokens(text, "en")) {
+                termWeights.merge(token, boost, Float::sum);
+                length += boost;
+            }
+            return this;
+        }
+
+        public Document addAll(Collection<String> texts, float boost) {
+            for (String text : texts) add(text, boost);
+            return this;
+        }
+    }
+
+    private record Posting(int[] docs, float[] weights) {}
+
+    private final Map<String, Posting> postings;
+    private final float[] docLengths;
+    private final double avgLength;
+
+    public Bm25Index(List<Document> documents) {
+        docLengths = new float[documents.size()];
+        Map<String, List<Integer>> docIds = new HashMap<>();
+        Map<String, List<Float>> weights = new HashMap<>();
+        double total = 0;
+        for (int d = 0; d < documents.size(); d++) {
+            Document doc = documents.get(d);
+            docLengths[d] = doc.length;
+            total += doc.length;
+            for (Map.Entry<String, Float> e : doc.termWeights.entrySet()) {
+                docIds.computeIfAbsent(e.getKey(), t -> new ArrayList<>()).add(d);
+                weights.computeIfAbsent(e.getKey(), t -> new ArrayList<>()).add(e.getValue());
+            }
+        }
+        avgLength = documents.isEmpty() ? 1 : Math.max(1e-9, total / documents.size());
+
+        postings = new HashMap<>(docIds.size() * 4 / 3 + 1);
+        docIds.forEach((term, ids) -> {
+            List<Float> w = weights.get(term);
+            float[] tf = new float[w.size()];
+            for (int i = 0; i < tf.length; i++) tf[i] = w.get(i);
+            postings.put(term, new Posting(ids.stream().mapToInt(Integer::intValue).toArray(), tf));
+        });
+    }
+
+    public int size() {
+        return docLengths.length;
+    }
+
+    /** Top {@code k} documents scoring at least {@code minScore}, best first. */
+    public List<Hit> search(String query, int k, double minScore) {
+        String[] terms = QueryNormalizer.tokens(query, "en");
+        if (terms.length == 0 || docLengths.length == 0) return List.of();
+
+        int n = docLengths.length;
+        double[] scores = new double[n];
+        List<String>[] matched = null;
+        for (String term : terms) {
+            Posting p = postings.get(term);
+            if (p == null) continue;
+            double idf = Math.log(1 + (n - p.docs.length + 0.5) / (p.docs.length + 0.5));
+            for (int i = 0; i < p.docs.length; i++) {
+                int d = p.docs[i];
+                double tf = p.weights[i];
+                scores[d] += idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * docLengths[d] / avgLength));
+                if (matched == null) matched = newMatchedArray(n);
+                if (matched[d] == null) matched[d] = new ArrayList<>(terms.length);
+                matched[d].add(term);
+            }
+        }
+        if (matched == null) return List.of();
+
+        PriorityQueue<Integer> top = new PriorityQueue<>(k + 1, Comparator.comparingDouble(d -> scores[d]));
+        for (int d = 0; d < n; d++) {
+            if (scores[d] < minScore) continue;
+            top.add(d);
+            if (top.size() > k) top.poll();
+        }
+        List<Hit> hits = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            int d = top.poll();
+            hits.add(new Hit(d, scores[d], Set.copyOf(matched[d])));
+        }
+        Collections.reverse(hits);
+        return hits;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String>[] newMatchedArray(int n) {
+        return (List<String>[]) new List[n];
+    }
+}
@@ -0,0 +1,200 @@
+package com.learn.lld.gramvikash.diagnostic.retrieval;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only, memory-mapped matrix of L2-normalised float32 embeddings with top-k cosine search.
+ *
+ * File layout (written by {@code python/export_embeddings.py}):
+ * <pre>
+ *   "GVEM" | version:int32 | rows:int32 | dim:int32 | rows × dim float32, row-major   (little-endian)
+ * </pre>
+ * The file is mapped, never read: rows stay in the page cache and are viewed through
+ * {@link FloatBuffer}s, so opening a multi-gigabyte corpus costs no heap and no copy. Mappings
+ * are split on row boundaries to stay under the 2 GB per-buffer limit.
+ *
+ * Rows are unit vectors, so cosine similarity is a dot product. Scans over more than
+ * {@code parallelThreshold} rows are split into blocks, each keeping its own top-k, and the
+ * blocks run on the common fork-join pool.
+ */
+public final class MappedEmbeddingMatrix {
+
+    public static final int MAGIC = 0x4D455647;   // "GVEM" read little-endian
+    private static final int HEADER_BYTES = 16;
+    private static final int BLOCK_ROWS = 8192;
+    private static final int TILE_ROWS = 64;
+
+    public record Hit(int row, float score) {}
+
+    private final int rows;
+    private final int dim;
+    private final int rowsPerSegment;
+    private final FloatBuffer[] segments;
+    private final int parallelThreshold;
+
+    private MappedEmbeddingMatrix(int rows, int dim, int rowsPerSegment, FloatBuffer[] segments, int parallelThreshold) {
+        this.rows = rows;
+        this.dim = dim;
+        this.rowsPerSegment = rowsPerSegment;
+        this.segments = segments;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public static MappedEmbeddingMatrix open(Path file, int parallelThreshold) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) throw new IOException("Truncated header: " + file);
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) throw new IOException("Not an embedding matrix: " + file);
+            int version = header.getInt();
+            if (version != 1) throw new IOException("Unsupported embedding matrix version " + version);
+            int rows = header.getInt();
+            int dim = header.getInt();
+            if (rows < 0 || dim <= 0) throw new IOException("Bad matrix shape " + rows + " x " + dim);
+
+            long rowBytes = (long) dim * Float.BYTES;
+            long expected = HEADER_BYTES + rows * rowBytes;
+            if (channel.size() < expected) {
+                throw new IOException("Matrix file is " + channel.size() + " bytes, expected " + expected);
+            }
+
+            int rowsPerSegment = (int) Math.max(1, Integer.MAX_VALUE / rowBytes);
+            int segmentCount = rows == 0 ? 0 : (rows + rowsPerSegment - 1) / rowsPerSegment;
+            FloatBuffer[] segments = new FloatBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                int first = s * rowsPerSegment;
+                int count = Math.min(rowsPerSegment, rows - first);
+                // The mapping outlives the channel
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_BYTES + first * rowBytes, count * rowBytes);
+                segments[s] = mapped.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            }
+            return new MappedEmbeddingMatrix(rows, dim, rowsPerSegment, segments, parallelThreshold);
+        }
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int dim() {
+        return dim;
+    }
+
+    /** A copy of one row — for "more like this" queries. */
+    public float[] row(int row) {
+        float[] out = new float[dim];
+        segments[row / rowsPerSegment].get((row % rowsPerSegment) * dim, out);
+        return out;
+    }
+
+    /**
+     * Top {@code k} rows by cosine similarity to {@code query} (normalised here), best first,
+     * keeping only scores of at least {@code minScore}.
+     */
+    public List<Hit> search(float[] query, int k, float minScore) {
+        if (query.length != dim) {
+            throw new IllegalArgumentException("Query has " + query.length + " dimensions, matrix has " + dim);
+        }
+        if (rows == 0 || k <= 0) return List.of();
+        float[] q = normalise(query);
+
+        int blocks = (rows + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        IntStream blockIds = IntStream.range(0, blocks);
+        if (rows > parallelThreshold) blockIds = blockIds.parallel();
+
+        return blockIds
+                .mapToObj(b -> scan(q, b * BLOCK_ROWS, Math.min(rows, (b + 1) * BLOCK_ROWS), k, minScore))
+                .reduce(new TopK(k), TopK::merge)
+                .sorted();
+    }
+
+    /**
+     * Copies {@link #TILE_ROWS} rows at a time from the mapping into a small scratch array and
+     * scores them there: one bulk copy per tile instead of a bounds-checked get per float.
+     */
+    private TopK scan(float[] q, int from, int to, int k, float minScore) {
+        TopK top = new TopK(k);
+        float[] tile = new float[TILE_ROWS * dim];
+        for (int row = from; row < to; ) {
+            int segment = row / rowsPerSegment;
+            int inSegment = row % rowsPerSegment;
+            int count = Math.min(Math.min(TILE_ROWS, to - row), rowsPerSegment - inSegment);
+            segments[segment].get(inSegment * dim, tile, 0, count * dim);
+            for (int t = 0; t < count; t++) {
+                float score = dot(tile, t * dim, q);
+                if (score >= minScore) top.offer(row + t, score);
+            }
+            row += count;
+        }
+        return top;
+    }
+
+    /** Four independent accumulators so the JIT can keep the multiply-adds in flight. */
+    private float dot(float[] m, int offset, float[] q) {
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (int upper = dim & ~3; i < upper; i += 4) {
+            s0 += m[offset + i] * q[i];
+            s1 += m[offset + i + 1] * q[i + 1];
+            s2 += m[offset + i + 2] * q[i + 2];
+            s3 += m[offset + i + 3] * q[i + 3];
+        }
+        for (; i < dim; i++) s0 += m[offset + i] * q[i];
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static float[] normalise(float[] v) {
+        double norm = 0;
+        for (float x : v) norm += (double) x * x;
+        if (norm == 0) return v.clone();
+        float inv = (float) (1 / Math.sqrt(norm));
+        float[] out = new float[v.length];
+        for (int i = 0; i < v.length; i++) out[i] = v[i] * inv;
+        return out;
+    }
+
+    /** Bounded min-heap of the best k (row, score) pairs. */
+    private static final class TopK {
+        final int k;
+        final PriorityQueue<Hit> heap;
+
+        TopK(int k) {
+            this.k = k;
+            this.heap = new PriorityQueue<>(k + 1, Comparator.comparingDouble(Hit::score));
+        }
+
+        void offer(int row, float score) {
+            if (heap.size() < k) {
+                heap.add(new Hit(row, score));
+            } else if (score > heap.peek().score()) {
+                heap.poll();
+                heap.add(new Hit(row, score));
+            }
+        }
+
+        TopK merge(TopK other) {
+            TopK merged = new TopK(k);
+            for (Hit h : heap) merged.offer(h.row(), h.score());
+            for (Hit h : other.heap) merged.offer(h.row(), h.score());
+            return merged;
+        }
+
+        List<Hit> sorted() {
+            List<Hit> out = new ArrayList<>(heap);
+            out.sort(Comparator.comparingDouble(Hit::score).reversed());
+            return out;
+        }
+    }
+}
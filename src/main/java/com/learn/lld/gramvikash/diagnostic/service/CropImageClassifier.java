@@ -0,0 +1,247 @@
+package com.learn.lld.gramvikash.diagnostic.service;
+
+import ai.onnxruntime.NodeInfo;
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+import ai.onnxruntime.TensorInfo;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.lld.gramvikash.diagnostic.classifier.ImageTensorizer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * The Python crop disease classifier (EfficientNet-B0), run in the JVM with ONNX Runtime on CPU.
+ *
+ * Loads the model exported by {@code python/export_onnx.py}. Callers tensorize their own image —
+ * decoding and resizing run in parallel on the request/job threads — and queue it; a single
+ * inference thread takes whatever is queued, up to {@code max-batch-size} images, waiting at most
+ * {@code max-wait-ms} for the batch to fill, and runs them through one forward pass. Under load
+ * that is one pass per batch instead of one per image; when idle it costs at most the short wait.
+ *
+ * If the model is missing, the native runtime cannot load, the queue is full or a result does not
+ * arrive within {@code timeout-ms}, {@link #classify} returns empty and the image goes to Python
+ * to be classified there, as before.
+ */
+@Service
+@Slf4j
+public class CropImageClassifier {
+
+    /** Same result the Python {@code ImageClassifier.classify} returns, plus the raw class label. */
+    public record Classification(String crop, String disease, double confidence, String label) {}
+
+    private record Label(String label, String crop, String disease) {}
+
+    private record Pending(float[] input, CompletableFuture<Classification> result) {}
+
+    @Value("${diagnostic.classifier.enabled:true}")
+    private boolean enabled;
+
+    @Value("${diagnostic.classifier.model:python/model/model.onnx}")
+    private Path modelPath;
+
+    @Value("${diagnostic.classifier.labels:python/model/model.labels.json}")
+    private Path labelsPath;
+
+    @Value("${diagnostic.classifier.input-size:224}")
+    private int inputSize;
+
+    @Value("${diagnostic.classifier.max-batch-size:8}")
+    private int maxBatchSize;
+
+    @Value("${diagnostic.classifier.max-wait-ms:5}")
+    private long maxWaitMs;
+
+    @Value("${diagnostic.classifier.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${diagnostic.classifier.timeout-ms:2000}")
+    private long timeoutMs;
+
+    @Value("${diagnostic.classifier.intra-op-threads:0}")
+    private int intraOpThreads;
+
+    private final ObjectMapper objectMapper;
+
+    private ImageTensorizer tensorizer;
+    private List<Label> labels = List.of();
+    private OrtEnvironment env;
+    private OrtSession.SessionOptions options;
+    private volatile OrtSession session;
+    private String inputName;
+    private int batchLimit;
+    private FloatBuffer batchInput;
+    private BlockingQueue<Pending> queue;
+    private ExecutorService inferenceThread;
+
+    public CropImageClassifier(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) return;
+        if (!Files.exists(modelPath) || !Files.exists(labelsPath)) {
+            log.info("[Classifier] {} not found — run python/export_onnx.py to classify images in the JVM",
+                    modelPath);
+            return;
+        }
+        try {
+            labels = objectMapper.readValue(labelsPath.toFile(), new TypeReference<List<Label>>() {});
+            tensorizer = new ImageTensorizer(inputSize);
+
+            env = OrtEnvironment.getEnvironment();
+            options = new OrtSession.SessionOptions();
+            options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+            if (intraOpThreads > 0) options.setIntraOpNumThreads(intraOpThreads);
+            OrtSession s = env.createSession(modelPath.toString(), options);
+
+            Map.Entry<String, NodeInfo> input = s.getInputInfo().entrySet().iterator().next();
+            long[] shape = ((TensorInfo) input.getValue().getInfo()).getShape();
+            if (shape.length != 4 || shape[1] != 3 || (shape[2] > 0 && shape[2] != inputSize)) {
+                log.error("[Classifier] {} expects input {}, not [batch, 3, {}, {}] — classifier disabled",
+                        modelPath, Arrays.toString(shape), inputSize, inputSize);
+                s.close();
+                return;
+            }
+            // A model exported without a dynamic batch axis can still be used, one image at a time
+            batchLimit = shape[0] > 0 ? (int) Math.min(shape[0], maxBatchSize) : maxBatchSize;
+            inputName = input.getKey();
+            batchInput = ByteBuffer.allocateDirect(batchLimit * tensorizer.length() * Float.BYTES)
+                    .order(ByteOrder.nativeOrder()).asFloatBuffer();
+            queue = new ArrayBlockingQueue<>(queueCapacity);
+            inferenceThread = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "crop-classifier");
+                t.setDaemon(true);
+                return t;
+            });
+            session = s;
+            inferenceThread.execute(this::dispatch);
+            log.info("[Classifier] Loaded {} ({} classes, batches of up to {})", modelPath, labels.size(), batchLimit);
+        } catch (Exception | UnsatisfiedLinkError e) {
+            log.error("[Classifier] Could not load {} — images will be classified by the Python service",
+                    modelPath, e);
+        }
+    }
+
+    public boolean isAvailable() {
+        return session != null;
+    }
+
+    /**
+     * Classifies one image (any format ImageIO can decode). Blocks until its batch has run;
+     * empty if the classifier is unavailable, busy or too slow.
+     */
+    public Optional<Classification> classify(byte[] image) {
+        if (session == null || image == null) return Optional.empty();
+        Pending pending;
+        try {
+            float[] input = tensorizer.tensorize(image);
+            if (input == null) return Optional.empty();
+            pending = new Pending(input, new CompletableFuture<>());
+        } catch (Exception e) {
+            log.warn("[Classifier] Could not decode image: {}", e.getMessage());
+            return Optional.empty();
+        }
+
+        if (!queue.offer(pending)) {
+            log.warn("[Classifier] Queue full ({} waiting) — leaving this image to the Python service", queue.size());
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(pending.result().get(timeoutMs, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            // Marks it done, so the inference thread skips it if it hasn't run yet
+            pending.result().cancel(false);
+            log.warn("[Classifier] No result within {} ms", timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("[Classifier] Inference failed: {}", e.getCause().getMessage());
+        }
+        return Optional.empty();
+    }
+
+    // ────────────────── Inference thread ──────────────────
+
+    private void dispatch() {
+        List<Pending> batch = new ArrayList<>(batchLimit);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchLimit - batch.size());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (batch.size() < batchLimit) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                    queue.drainTo(batch, batchLimit - batch.size());
+                }
+                batch.removeIf(p -> p.result().isDone());
+                if (!batch.isEmpty()) run(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // shutting down
+        } finally {
+            queue.drainTo(batch);
+            CancellationException closed = new CancellationException("Classifier closed");
+            batch.forEach(p -> p.result().completeExceptionally(closed));
+        }
+    }
+
+    private void run(List<Pending> batch) {
+        int n = batch.size();
+        batchInput.clear();
+        for (Pending p : batch) batchInput.put(p.input());
+        batchInput.flip();
+
+        long start = System.nanoTime();
+        long[] shape = { n, 3, inputSize, inputSize };
+        try (OnnxTensor tensor = OnnxTensor.createTensor(env, batchInput, shape);
+             OrtSession.Result result = session.run(Map.of(inputName, tensor))) {
+            float[][] logits = (float[][]) result.get(0).getValue();
+            for (int i = 0; i < n; i++) batch.get(i).result().complete(best(logits[i]));
+            log.debug("[Classifier] Batch of {} in {} ms", n, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            batch.forEach(p -> p.result().completeExceptionally(e));
+        }
+    }
+
+    /** Softmax over the logits, then the top class — {@code torch.max(torch.softmax(...))}. */
+    private Classification best(float[] logits) {
+        int top = 0;
+        for (int i = 1; i < logits.length; i++) if (logits[i] > logits[top]) top = i;
+        double sum = 0;
+        for (float logit : logits) sum += Math.exp(logit - logits[top]);
+        double confidence = 1 / sum;
+
+        if (top >= labels.size()) return new Classification(null, null, confidence, "class_" + top);
+        Label label = labels.get(top);
+        return new Classification(label.crop(), label.disease(), confidence, label.label());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (inferenceThread != null) inferenceThread.shutdownNow();
+        try {
+            if (session != null) session.close();
+            if (options != null) options.close();
+        } catch (Exception e) {
+            log.debug("[Classifier] Error closing session: {}", e.getMessage());
+        }
+        session = null;
+    }
+}
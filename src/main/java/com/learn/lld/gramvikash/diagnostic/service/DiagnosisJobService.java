@@ -0,0 +1,234 @@
+package com.learn.lld.gramvikash.diagnostic.service;
+
+import com.learn.lld.gramvikash.diagnostic.dto.DiagnosisJobResponse;
+import com.learn.lld.gramvikash.diagnostic.dto.DiagnosticRequest;
+import com.learn.lld.gramvikash.diagnostic.dto.DiagnosticResponse;
+import com.learn.lld.gramvikash.diagnostic.service.DiagnosticService.PreparedDiagnosis;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Job-based web diagnosis: submission returns at once, the Python round trip runs on a bounded
+ * worker pool instead of a request thread, and clients poll or subscribe to server-sent events.
+ * <pre>
+ *   POST /jobs → QUEUED → RUNNING (classified → retrieved → generated → translated) → COMPLETED | FAILED
+ * </pre>
+ * Jobs live in memory and are dropped {@code retention-minutes} after they finish; the
+ * persisted {@code DiagnosticSession} is the durable record.
+ */
+@Service
+@Slf4j
+public class DiagnosisJobService {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    @Value("${diagnostic.jobs.workers:8}")
+    private int workers;
+
+    @Value("${diagnostic.jobs.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${diagnostic.jobs.retention-minutes:30}")
+    private long retentionMinutes;
+
+    @Value("${diagnostic.jobs.sse-timeout-ms:120000}")
+    private long sseTimeoutMs;
+
+    private final DiagnosticService diagnosticService;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    public DiagnosisJobService(DiagnosticService diagnosticService) {
+        this.diagnosticService = diagnosticService;
+    }
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadNo = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "diagnosis-job-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * Queues a diagnosis. The image is downscaled and copied here, on the request thread, since
+     * the upload is gone once the request returns.
+     *
+     * @return the queued job, or empty if the queue is full
+     */
+    public Optional<DiagnosisJobResponse> submit(DiagnosticRequest request, MultipartFile image) {
+        PreparedDiagnosis prepared = diagnosticService.prepare(request, image);
+        Job job = new Job(UUID.randomUUID().toString());
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, prepared));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            log.warn("[DiagnosisJobs] Queue full ({} waiting) — rejecting farmerID={}",
+                    executor.getQueue().size(), request.getFarmerId());
+            return Optional.empty();
+        }
+        log.info("[DiagnosisJobs] Queued job {} – farmerID={}", job.id, request.getFarmerId());
+        return Optional.of(job.snapshot());
+    }
+
+    public Optional<DiagnosisJobResponse> find(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(Job::snapshot);
+    }
+
+    /**
+     * Server-sent events for a job. Events:
+     * <ul>
+     *   <li>{@code status} — the current {@link DiagnosisJobResponse}, sent on subscribe</li>
+     *   <li>{@code stage} — a finished pipeline stage, e.g. {@code {"stage":"classified", ...}}</li>
+     *   <li>{@code result} — the completed {@link DiagnosisJobResponse}</li>
+     *   <li>{@code error} — the job failed</li>
+     * </ul>
+     * Subscribing to a finished job sends {@code status} followed by {@code result} or {@code error}.
+     */
+    public Optional<SseEmitter> subscribe(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) return Optional.empty();
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        job.subscribe(emitter);
+        return Optional.of(emitter);
+    }
+
+    private void run(Job job, PreparedDiagnosis prepared) {
+        job.start();
+        try {
+            job.complete(diagnosticService.diagnose(prepared, job::stage));
+        } catch (Exception e) {
+            log.error("[DiagnosisJobs] Job {} failed", job.id, e);
+            job.fail(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${diagnostic.jobs.evict-interval-ms:60000}")
+    public void evictFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.finishedBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ────────────────── Job state ──────────────────
+
+    /**
+     * One job's state and its SSE subscribers. State changes and event fan-out happen under the
+     * job's lock, so a subscriber registering mid-run sees every stage exactly once.
+     */
+    private static final class Job {
+        final String id;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        final List<String> completedStages = new ArrayList<>(4);
+        final List<SseEmitter> subscribers = new ArrayList<>();
+        Status status = Status.QUEUED;
+        DiagnosticResponse result;
+        String error;
+        LocalDateTime finishedAt;
+
+        Job(String id) {
+            this.id = id;
+        }
+
+        synchronized void start() {
+            status = Status.RUNNING;
+        }
+
+        synchronized void stage(String stage, Map<String, Object> data) {
+            completedStages.add(stage);
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("stage", stage);
+            event.putAll(data);
+            subscribers.removeIf(emitter -> !send(emitter, "stage", event));
+        }
+
+        synchronized void complete(DiagnosticResponse response) {
+            result = response;
+            finish(Status.COMPLETED);
+        }
+
+        synchronized void fail(String message) {
+            error = message;
+            finish(Status.FAILED);
+        }
+
+        synchronized void subscribe(SseEmitter emitter) {
+            if (!send(emitter, "status", snapshot())) return;
+            if (finishedAt != null) {
+                sendOutcome(emitter);
+                emitter.complete();
+                return;
+            }
+            subscribers.add(emitter);
+            emitter.onCompletion(() -> unsubscribe(emitter));
+            emitter.onTimeout(() -> unsubscribe(emitter));
+        }
+
+        synchronized void unsubscribe(SseEmitter emitter) {
+            subscribers.remove(emitter);
+        }
+
+        synchronized boolean finishedBefore(LocalDateTime cutoff) {
+            return finishedAt != null && finishedAt.isBefore(cutoff);
+        }
+
+        synchronized DiagnosisJobResponse snapshot() {
+            return DiagnosisJobResponse.builder()
+                    .jobId(id)
+                    .status(status.name())
+                    .completedStages(List.copyOf(completedStages))
+                    .result(result)
+                    .error(error)
+                    .submittedAt(submittedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+
+        private void finish(Status outcome) {
+            status = outcome;
+            finishedAt = LocalDateTime.now();
+            for (SseEmitter emitter : List.copyOf(subscribers)) {
+                sendOutcome(emitter);
+                emitter.complete();
+            }
+            subscribers.clear();
+        }
+
+        private void sendOutcome(SseEmitter emitter) {
+            if (status == Status.COMPLETED) send(emitter, "result", snapshot());
+            else send(emitter, "error", error);
+        }
+
+        private boolean send(SseEmitter emitter, String event, Object data) {
+            try {
+                emitter.send(SseEmitter.event().name(event).data(data));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // Client went away — the job itself carries on
+                log.debug("[DiagnosisJobs] Could not send '{}' event for job {}: {}", event, id, e.getMessage());
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.learn.lld.gramvikash.diagnostic.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Content-addressed cache of Python diagnosis results.
+ *
+ * The key is a SHA-256 over the raw image bytes plus the normalised query, language and region,
+ * so the same photo re-uploaded on a flaky connection — or forwarded around a village — maps to
+ * one entry. Concurrent identical requests share a single in-flight Python call.
+ *
+ * Results expire after {@code ttl-minutes}; region-specific answers follow local advisories
+ * (outbreak alerts, spray windows) and expire after the shorter {@code region-specific-ttl-minutes}.
+ * Fallback results — "service unavailable" or a local BM25 match — are never cached, so the
+ * next request after Python recovers gets the full answer.
+ */
+@Component
+@Slf4j
+public class DiagnosisResultCache {
+
+    @Value("${diagnostic.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${diagnostic.cache.max-entries:2000}")
+    private int maxEntries;
+
+    @Value("${diagnostic.cache.ttl-minutes:720}")
+    private long ttlMinutes;
+
+    @Value("${diagnostic.cache.region-specific-ttl-minutes:120}")
+    private long regionSpecificTtlMinutes;
+
+    public record Stats(int entries, int inFlight, long hits, long misses, long coalesced) {}
+
+    private record Entry(Map<String, Object> result, long expiresAtNanos) {}
+
+    private Map<String, Entry> entries;
+    private final Map<String, CompletableFuture<Map<String, Object>>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        entries = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Returns the cached result for this key, joins an identical call already in flight, or runs
+     * {@code loader} and caches what it returns. {@code loader} must not throw — the Python
+     * client already turns failures into a fallback result.
+     */
+    public Map<String, Object> getOrLoad(String key, Supplier<Map<String, Object>> loader) {
+        if (!enabled || key == null) return loader.get();
+
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (System.nanoTime() - entry.expiresAtNanos() < 0) {
+                hits.increment();
+                return entry.result();
+            }
+            entries.remove(key, entry);
+        }
+
+        CompletableFuture<Map<String, Object>> mine = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.increment();
+            return leader.join();
+        }
+
+        misses.increment();
+        try {
+            Map<String, Object> result = Collections.unmodifiableMap(loader.get());
+            if (cacheable(result)) {
+                long ttl = Boolean.TRUE.equals(result.get("region_specific")) ? regionSpecificTtlMinutes : ttlMinutes;
+                entries.put(key, new Entry(result, System.nanoTime() + TimeUnit.MINUTES.toNanos(ttl)));
+            }
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Cache key for a diagnosis request, or null if the image cannot be read (the request then
+     * simply bypasses the cache). The image is streamed through the digest, not copied.
+     */
+    public String key(MultipartFile image, String query, String language, String region) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            if (image != null && !image.isEmpty()) {
+                try (InputStream in = image.getInputStream()) {
+                    byte[] buf = new byte[16 * 1024];
+                    int n;
+                    while ((n = in.read(buf)) > 0) sha.update(buf, 0, n);
+                }
+            }
+            // Length-prefixed fields, so ("ab", "c") and ("a", "bc") never collide
+            for (String field : new String[]{ normalise(query), normalise(language), normalise(region) }) {
+                byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+                sha.update(new byte[]{ (byte) (bytes.length >>> 24), (byte) (bytes.length >>> 16),
+                        (byte) (bytes.length >>> 8), (byte) bytes.length });
+                sha.update(bytes);
+            }
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        } catch (IOException e) {
+            log.warn("[DiagnosisCache] Could not hash image, bypassing cache: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(entries.size(), inFlight.size(), hits.sum(), misses.sum(), coalesced.sum());
+    }
+
+    private static boolean cacheable(Map<String, Object> result) {
+        Object source = result.get("source");
+        return !"error".equals(source) && !LocalDiagnosisRetriever.SOURCE.equals(source)
+                && result.get("diagnosis") != null;
+    }
+
+    /** Case, surrounding and repeated whitespace don't change the answer. */
+    private static String normalise(String s) {
+        if (s == null) return "";
+        return s.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
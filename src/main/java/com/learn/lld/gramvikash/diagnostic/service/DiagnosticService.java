@@ -1,15 +1,25 @@
 package com.learn.lld.gramvikash.diagnostic.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.lld.gramvikash.common.image.ImagePreprocessor;
+import com.learn.lld.gramvikash.common.resilience.ResilienceRegistry;
+import com.learn.lld.gramvikash.diagnostic.dto.DiagnosisHistoryItem;
+import com.learn.lld.gramvikash.diagnostic.dto.DiagnosisHistoryPage;
 import com.learn.lld.gramvikash.diagnostic.dto.DiagnosticRequest;
 import com.learn.lld.gramvikash.diagnostic.dto.DiagnosticResponse;
+import com.learn.lld.gramvikash.diagnostic.dto.DiagnosticSessionDetail;
 import com.learn.lld.gramvikash.diagnostic.entity.DiagnosticSession;
 import com.learn.lld.gramvikash.diagnostic.repository.DiagnosticSessionRepository;
+import com.learn.lld.gramvikash.diagnostic.service.CropImageClassifier.Classification;
 import com.learn.lld.gramvikash.user.entity.Farmer;
 import com.learn.lld.gramvikash.user.repository.FarmerRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
@@ -17,28 +27,93 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.BiConsumer;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DiagnosticService {
 
+    private static final TypeReference<Map<String, Object>> STAGE_EVENT = new TypeReference<>() {};
+
     private final DiagnosticSessionRepository sessionRepository;
     private final FarmerRepository farmerRepository;
     private final RestTemplate restTemplate;
+    private final ImagePreprocessor imagePreprocessor;
+    private final ResilienceRegistry resilience;
+    private final DiagnosisResultCache resultCache;
+    private final ObjectMapper objectMapper;
+    private final LocalDiagnosisRetriever localRetriever;
+    private final CropImageClassifier cropClassifier;
 
     @Value("${python.service.url:http://localhost:8000}")
     private String pythonServiceUrl;
 
+    @Value("${image.preprocess.classifier-max-dimension:512}")
+    private int classifierMaxDimension;
+
+    @Value("${diagnostic.history.page-size:20}")
+    private int historyPageSize;
+
+    @Value("${diagnostic.history.max-page-size:100}")
+    private int historyMaxPageSize;
+
+    @Value("${diagnostic.history.preview-chars:160}")
+    private int historyPreviewChars;
+
     // ── web diagnosis ───────────────────────────────────────────────────
 
+    /**
+     * A diagnosis request resolved on the submitting thread: farmer defaults applied, cache key
+     * computed, image already downscaled — everything the pipeline needs after the upload is gone.
+     */
+    public record PreparedDiagnosis(Farmer farmer, String userQuery, String language, String region,
+                                    ImagePart image, String cacheKey) {}
+
+    /** Downscaled image bytes plus the filename sent to the classifier. */
+    public record ImagePart(byte[] bytes, String filename) {}
+
     /**
      * Full web pipeline: text + optional image → Python service → persist → respond.
      */
     public DiagnosticResponse diagnoseWeb(DiagnosticRequest request, MultipartFile image) {
         log.info("Web diagnosis request – farmerID={}", request.getFarmerId());
+        PreparedDiagnosis d = resolve(request, image);
+
+        // repeat uploads of the same photo + question are answered from cache, before any resizing
+        Map<String, Object> py = resultCache.getOrLoad(d.cacheKey(),
+                () -> callPythonDiagnose(d.userQuery(), d.language(), d.region(), prepareImage(image)));
+        return persist(d, py);
+    }
+
+    /**
+     * Resolves the request and copies the (downscaled) image, so the pipeline can run later on
+     * another thread with {@link #diagnose}.
+     */
+    public PreparedDiagnosis prepare(DiagnosticRequest request, MultipartFile image) {
+        PreparedDiagnosis d = resolve(request, image);
+        return new PreparedDiagnosis(d.farmer(), d.userQuery(), d.language(), d.region(),
+                prepareImage(image), d.cacheKey());
+    }
 
+    /**
+     * Runs a prepared diagnosis, reporting each finished Python stage to {@code onStage}
+     * (classified → retrieved → generated → translated). A cached answer reports no stages.
+     */
+    public DiagnosticResponse diagnose(PreparedDiagnosis d, BiConsumer<String, Map<String, Object>> onStage) {
+        Map<String, Object> py = resultCache.getOrLoad(d.cacheKey(),
+                () -> callPythonDiagnoseStreaming(d.userQuery(), d.language(), d.region(), d.image(), onStage));
+        return persist(d, py);
+    }
+
+    private PreparedDiagnosis resolve(DiagnosticRequest request, MultipartFile image) {
         // resolve farmer & defaults
         Farmer farmer = null;
         String region = request.getRegion();
@@ -56,21 +131,22 @@ public class DiagnosticService {
             }
         }
 
-        // call Python service
-        Map<String, Object> py = callPythonDiagnose(request.getUserQuery(), language, region, image);
+        String cacheKey = resultCache.key(image, request.getUserQuery(), language, region);
+        return new PreparedDiagnosis(farmer, request.getUserQuery(), language, region, null, cacheKey);
+    }
 
-        // persist session
+    private DiagnosticResponse persist(PreparedDiagnosis d, Map<String, Object> py) {
         DiagnosticSession session = DiagnosticSession.builder()
-                .farmer(farmer)
-                .userQuery(request.getUserQuery())
+                .farmer(d.farmer())
+                .userQuery(d.userQuery())
                 .classifiedCrop(str(py, "classified_crop"))
                 .classifiedDisease(str(py, "classified_disease"))
                 .classificationConfidence(dbl(py, "confidence"))
                 .diagnosisResponse(str(py, "diagnosis"))
                 .source(str(py, "source"))
                 .sourceType("WEB")
-                .language(language)
-                .region(region)
+                .language(d.language())
+                .region(d.region())
                 .regionSpecific(bool(py, "region_specific"))
                 .build();
 
@@ -92,18 +168,162 @@ public class DiagnosticService {
 
     // ── history ─────────────────────────────────────────────────────────
 
-    public List<DiagnosticSession> getHistory(Long farmerId) {
-        return sessionRepository.findByFarmerIdOrderByCreatedAtDesc(farmerId);
+    /**
+     * One page of a farmer's history, newest first. Keyset-paginated on (createdAt, id): each
+     * page is an index range scan from the cursor, however deep the farmer scrolls.
+     */
+    public DiagnosisHistoryPage getHistory(Long farmerId, String cursor, Integer limit) {
+        int size = Math.min(limit != null && limit > 0 ? limit : historyPageSize, historyMaxPageSize);
+        // One extra row tells us whether there is a next page; one extra char whether to add "…"
+        Pageable page = PageRequest.of(0, size + 1);
+        int previewChars = historyPreviewChars + 1;
+
+        List<DiagnosticSessionRepository.HistoryItem> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = sessionRepository.findHistory(farmerId, previewChars, page);
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            rows = sessionRepository.findHistoryBefore(farmerId, after.createdAt(), after.id(), previewChars, page);
+        }
+
+        boolean hasMore = rows.size() > size;
+        List<DiagnosisHistoryItem> items = rows.stream()
+                .limit(size)
+                .map(r -> DiagnosisHistoryItem.builder()
+                        .sessionId(r.getId())
+                        .classifiedCrop(r.getClassifiedCrop())
+                        .classifiedDisease(r.getClassifiedDisease())
+                        .confidence(r.getConfidence())
+                        .createdAt(r.getCreatedAt())
+                        .diagnosisPreview(preview(r.getDiagnosisPreview()))
+                        .build())
+                .toList();
+
+        DiagnosisHistoryItem last = hasMore ? items.get(items.size() - 1) : null;
+        return DiagnosisHistoryPage.builder()
+                .items(items)
+                .nextCursor(last != null ? new HistoryCursor(last.getCreatedAt(), last.getSessionId()).encode() : null)
+                .build();
+    }
+
+    public Optional<DiagnosticSessionDetail> getSession(Long sessionId) {
+        return sessionRepository.findById(sessionId).map(s -> DiagnosticSessionDetail.builder()
+                .sessionId(s.getId())
+                .userQuery(s.getUserQuery())
+                .classifiedCrop(s.getClassifiedCrop())
+                .classifiedDisease(s.getClassifiedDisease())
+                .confidence(s.getClassificationConfidence())
+                .diagnosis(s.getDiagnosisResponse())
+                .source(s.getSource())
+                .sourceType(s.getSourceType())
+                .language(s.getLanguage())
+                .region(s.getRegion())
+                .regionSpecific(s.getRegionSpecific())
+                .createdAt(s.getCreatedAt())
+                .build());
+    }
+
+    private String preview(String prefix) {
+        if (prefix == null || prefix.length() <= historyPreviewChars) return prefix;
+        return prefix.substring(0, historyPreviewChars).stripTrailing() + "…";
+    }
+
+    /** Position after the last row of a page, opaque to clients. */
+    private record HistoryCursor(LocalDateTime createdAt, Long id) {
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static HistoryCursor decode(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                return new HistoryCursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid history cursor");
+            }
+        }
     }
 
     // ── Python client ───────────────────────────────────────────────────
 
     @SuppressWarnings("unchecked")
-    private Map<String, Object> callPythonDiagnose(
-            String query, String language, String region, MultipartFile image
-    ) {
+    private Map<String, Object> callPythonDiagnose(String query, String language, String region, ImagePart image) {
         String url = pythonServiceUrl + "/api/v1/diagnose";
+        Classification classification = classifyLocally(image);
+        HttpEntity<MultiValueMap<String, Object>> entity = multipart(query, language, region, image, classification);
 
+        try {
+            // Inference is idempotent and the body is in memory, so a slow attempt can be hedged
+            ResponseEntity<Map> response = resilience.hedgedCall("python", () -> restTemplate.exchange(
+                    url, HttpMethod.POST, entity, Map.class
+            ));
+            return response.getBody() != null ? response.getBody() : fallback(query, language, region, classification);
+        } catch (Exception e) {
+            log.error("Python service call failed: {}", e.getMessage());
+            return fallback(query, language, region, classification);
+        }
+    }
+
+    /**
+     * Same call against {@code /api/v1/diagnose/stream}, which answers with one JSON line per
+     * finished stage and a final {@code done} line carrying the result. Not hedged: a second
+     * attempt would report every stage twice.
+     */
+    private Map<String, Object> callPythonDiagnoseStreaming(String query, String language, String region,
+                                                            ImagePart image,
+                                                            BiConsumer<String, Map<String, Object>> onStage) {
+        String url = pythonServiceUrl + "/api/v1/diagnose/stream";
+        Classification classification = classifyLocally(image);
+        HttpEntity<MultiValueMap<String, Object>> entity = multipart(query, language, region, image, classification);
+
+        try {
+            Map<String, Object> result = resilience.call("python", () -> restTemplate.execute(
+                    url, HttpMethod.POST, restTemplate.httpEntityCallback(entity),
+                    response -> readStages(response.getBody(), onStage)
+            ));
+            return result != null ? result : fallback(query, language, region, classification);
+        } catch (Exception e) {
+            log.error("Python streaming diagnosis failed: {}", e.getMessage());
+            return fallback(query, language, region, classification);
+        }
+    }
+
+    private Map<String, Object> readStages(InputStream body, BiConsumer<String, Map<String, Object>> onStage)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) continue;
+            Map<String, Object> event = objectMapper.readValue(line, STAGE_EVENT);
+            String stage = str(event, "stage");
+            if ("done".equals(stage)) return map(event, "result");
+            if ("error".equals(stage)) throw new IOException(str(event, "detail"));
+            event.remove("stage");
+            onStage.accept(stage, event);
+        }
+        throw new IOException("Diagnosis stream ended without a result");
+    }
+
+    /**
+     * Classifies the image in-process when the ONNX model is loaded, or returns null so the image
+     * is sent to Python and classified there.
+     */
+    private Classification classifyLocally(ImagePart image) {
+        if (image == null || !cropClassifier.isAvailable()) return null;
+        Classification c = cropClassifier.classify(image.bytes()).orElse(null);
+        if (c == null || c.crop() == null || c.disease() == null) return null;
+        log.info("Classified locally: {} – {} ({})", c.crop(), c.disease(), String.format("%.3f", c.confidence()));
+        return c;
+    }
+
+    /**
+     * With a local classification Python only does retrieval and generation, so the image is
+     * not uploaded at all.
+     */
+    private HttpEntity<MultiValueMap<String, Object>> multipart(String query, String language, String region,
+                                                                ImagePart image, Classification classification) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.MULTIPART_FORM_DATA);
 
@@ -111,31 +331,33 @@ public class DiagnosticService {
         body.add("user_query", query);
         body.add("language", language);
         if (region != null) body.add("region", region);
-
-        if (image != null && !image.isEmpty()) {
-            try {
-                ByteArrayResource resource = new ByteArrayResource(image.getBytes()) {
-                    @Override
-                    public String getFilename() {
-                        return image.getOriginalFilename();
-                    }
-                };
-                body.add("image", resource);
-            } catch (Exception e) {
-                log.error("Failed to read image: {}", e.getMessage());
-            }
+        if (classification != null) {
+            body.add("classified_crop", classification.crop());
+            body.add("classified_disease", classification.disease());
+            body.add("confidence", String.valueOf(classification.confidence()));
+        } else if (image != null) {
+            body.add("image", new ByteArrayResource(image.bytes()) {
+                @Override
+                public String getFilename() {
+                    return image.filename();
+                }
+            });
         }
+        return new HttpEntity<>(body, headers);
+    }
 
-        HttpEntity<MultiValueMap<String, Object>> entity = new HttpEntity<>(body, headers);
-
+    /**
+     * The classifier resizes to 224×224 anyway — send a small JPEG, not the raw photo.
+     */
+    private ImagePart prepareImage(MultipartFile image) {
+        if (image == null || image.isEmpty()) return null;
         try {
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    url, HttpMethod.POST, entity, Map.class
-            );
-            return response.getBody() != null ? response.getBody() : fallback();
+            ImagePreprocessor.PreparedImage prepared = imagePreprocessor.prepare(image, classifierMaxDimension);
+            return new ImagePart(prepared.bytes(),
+                    image.getOriginalFilename() != null ? image.getOriginalFilename() : "image.jpg");
         } catch (Exception e) {
-            log.error("Python service call failed: {}", e.getMessage());
-            return fallback();
+            log.error("Failed to read image: {}", e.getMessage());
+            return null;
         }
     }
 
@@ -149,7 +371,19 @@ public class DiagnosticService {
         };
     }
 
-    private Map<String, Object> fallback() {
+    /**
+     * Python is down or too slow: answer from the in-process BM25 index over the same knowledge
+     * chunks if anything matches, otherwise say the service is unavailable. A local image
+     * classification names the crop and disease for the lookup and is kept in the result.
+     */
+    private Map<String, Object> fallback(String query, String language, String region, Classification classification) {
+        String lookup = classification != null
+                ? classification.crop() + " " + classification.disease() + " " + query : query;
+        Optional<Map<String, Object>> local = localRetriever.diagnose(lookup, language, region);
+        if (local.isPresent()) {
+            log.info("Answered from local retrieval: {}", local.get().get("classified_disease"));
+            return withClassification(local.get(), classification);
+        }
         Map<String, Object> m = new HashMap<>();
         m.put("diagnosis", "Service temporarily unavailable. Please try again later.");
         m.put("source", "error");
@@ -159,7 +393,16 @@ public class DiagnosticService {
         m.put("region_specific", false);
         m.put("symptoms_matched", List.of());
         m.put("management_advice", Map.of());
-        return m;
+        return withClassification(m, classification);
+    }
+
+    private Map<String, Object> withClassification(Map<String, Object> result, Classification classification) {
+        if (classification != null) {
+            result.put("classified_crop", classification.crop());
+            result.put("classified_disease", classification.disease());
+            result.put("confidence", classification.confidence());
+        }
+        return result;
     }
 
     private String str(Map<String, Object> m, String key) {
@@ -0,0 +1,107 @@
+package com.learn.lld.gramvikash.diagnostic.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.lld.gramvikash.diagnostic.retrieval.MappedEmbeddingMatrix;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Semantic search over the RAG corpus inside the JVM.
+ *
+ * Serves the embedding matrix exported by {@code python/export_embeddings.py} from a
+ * {@link MappedEmbeddingMatrix}, so the corpus can grow to hundreds of thousands of chunks per
+ * node without a heap copy or a Python process holding it. Query vectors must come from the same
+ * model the corpus was embedded with (all-MiniLM-L6-v2 by default); "more like this" lookups by
+ * chunk id need no model at all.
+ *
+ * If the files are missing the store stays disabled and every search returns nothing.
+ */
+@Service
+@Slf4j
+public class EmbeddingSearchService {
+
+    public record ChunkMatch(String chunkId, float score) {}
+
+    @Value("${diagnostic.embeddings.matrix:python/model/rag_embeddings.f32}")
+    private Path matrixPath;
+
+    @Value("${diagnostic.embeddings.ids:python/model/rag_embeddings.ids.json}")
+    private Path idsPath;
+
+    @Value("${diagnostic.embeddings.parallel-threshold:50000}")
+    private int parallelThreshold;
+
+    @Value("${diagnostic.embeddings.min-score:0.3}")
+    private float minScore;
+
+    private final ObjectMapper objectMapper;
+
+    private volatile MappedEmbeddingMatrix matrix;
+    private volatile List<String> chunkIds = List.of();
+    private volatile Map<String, Integer> rowByChunkId = Map.of();
+
+    public EmbeddingSearchService(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!Files.exists(matrixPath) || !Files.exists(idsPath)) {
+            log.info("[Embeddings] {} not found — run python/export_embeddings.py to enable JVM vector search",
+                    matrixPath);
+            return;
+        }
+        try {
+            MappedEmbeddingMatrix m = MappedEmbeddingMatrix.open(matrixPath, parallelThreshold);
+            List<String> ids = objectMapper.readValue(idsPath.toFile(), new TypeReference<>() {});
+            if (ids.size() != m.rows()) {
+                log.error("[Embeddings] {} has {} rows but {} lists {} ids — store disabled",
+                        matrixPath, m.rows(), idsPath, ids.size());
+                return;
+            }
+            Map<String, Integer> rows = new HashMap<>(ids.size() * 4 / 3 + 1);
+            for (int i = 0; i < ids.size(); i++) rows.put(ids.get(i), i);
+
+            chunkIds = List.copyOf(ids);
+            rowByChunkId = rows;
+            matrix = m;
+            log.info("[Embeddings] Mapped {} x {} embeddings from {}", m.rows(), m.dim(), matrixPath);
+        } catch (Exception e) {
+            log.error("[Embeddings] Could not open {} — store disabled", matrixPath, e);
+        }
+    }
+
+    public boolean isAvailable() {
+        return matrix != null;
+    }
+
+    /** Top {@code k} chunks by cosine similarity to a query embedding. */
+    public List<ChunkMatch> search(float[] queryVector, int k) {
+        MappedEmbeddingMatrix m = matrix;
+        if (m == null) return List.of();
+        return toMatches(m.search(queryVector, k, minScore), -1);
+    }
+
+    /** Chunks closest to a given chunk, excluding itself; empty if the chunk is unknown. */
+    public Optional<List<ChunkMatch>> similarTo(String chunkId, int k) {
+        MappedEmbeddingMatrix m = matrix;
+        Integer row = rowByChunkId.get(chunkId);
+        if (m == null || row == null) return Optional.empty();
+        return Optional.of(toMatches(m.search(m.row(row), k + 1, minScore), row).stream().limit(k).toList());
+    }
+
+    private List<ChunkMatch> toMatches(List<MappedEmbeddingMatrix.Hit> hits, int excludeRow) {
+        List<String> ids = chunkIds;
+        return hits.stream()
+                .filter(h -> h.row() != excludeRow)
+                .map(h -> new ChunkMatch(ids.get(h.row()), h.score()))
+                .toList();
+    }
+}
@@ -0,0 +1,182 @@
+package com.learn.lld.gramvikash.diagnostic.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.lld.gramvikash.diagnostic.retrieval.Bm25Index;
+import com.learn.lld.gramvikash.diagnostic.retrieval.Bm25Index.Hit;
+import com.learn.lld.gramvikash.ivrs.answers.QueryNormalizer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * In-process retrieval over {@code gramvikash_rag_documents.json}, for when the Python service
+ * is down or too slow.
+ *
+ * The same knowledge chunks the Python RAG embeds are indexed here with BM25 over crop, disease,
+ * pathogen, symptoms and management text. A query returns a result shaped like the Python
+ * {@code /diagnose} response — best-matching crop/disease, the symptoms that matched, and the
+ * chunk's management advice — with {@code source = "local"}. A chunk is only used if the query
+ * names its crop or disease; symptom words alone ("white", "spots") are too generic to act on
+ * without the Python classifier and LLM. Documents are English, so Hindi/Telugu queries usually
+ * find nothing and fall through to the plain "unavailable" message.
+ */
+@Component
+@Slf4j
+public class LocalDiagnosisRetriever {
+
+    public static final String SOURCE = "local";
+
+    private static final int CANDIDATES = 5;
+
+    private static final float CROP_BOOST = 3f;
+    private static final float DISEASE_BOOST = 3f;
+    private static final float SYMPTOM_BOOST = 1.5f;
+    private static final float MANAGEMENT_BOOST = 0.5f;
+
+    private static final Map<String, String> ANSWER = Map.of(
+            "en", "Our diagnosis service is busy, so this is a quick match from our crop disease guide: "
+                    + "your description matches %s in %s. %s Please confirm with your local agriculture officer.",
+            "hi", "हमारी निदान सेवा अभी व्यस्त है, इसलिए यह फसल रोग गाइड से त्वरित मिलान है: "
+                    + "आपका विवरण %s (%s) से मिलता है। %s कृपया अपने स्थानीय कृषि अधिकारी से पुष्टि करें।",
+            "te", "మా నిర్ధారణ సేవ ప్రస్తుతం బిజీగా ఉంది, కాబట్టి ఇది పంట వ్యాధి గైడ్ నుండి త్వరిత సరిపోలిక: "
+                    + "మీ వివరణ %s (%s)కు సరిపోతుంది. %s దయచేసి మీ స్థానిక వ్యవసాయ అధికారితో నిర్ధారించుకోండి."
+    );
+
+    private static final Map<String, String> ADVICE = Map.of(
+            "en", "Suggested steps: %s.",
+            "hi", "सुझाए गए उपाय: %s।",
+            "te", "సూచించిన చర్యలు: %s."
+    );
+
+    @Value("${diagnostic.local-retrieval.documents:file:gramvikash_rag_documents.json}")
+    private Resource documentsResource;
+
+    @Value("${diagnostic.local-retrieval.min-score:2.0}")
+    private double minScore;
+
+    @Value("${diagnostic.local-retrieval.advice-per-category:2}")
+    private int advicePerCategory;
+
+    private final ObjectMapper objectMapper;
+
+    private volatile List<Map<String, Object>> documents = List.of();
+    private volatile List<Set<String>> nameTerms = List.of();
+    private volatile Bm25Index index = new Bm25Index(List.of());
+
+    public LocalDiagnosisRetriever(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!documentsResource.exists()) {
+            log.warn("[LocalRetrieval] {} not found — local fallback disabled", documentsResource);
+            return;
+        }
+        long start = System.nanoTime();
+        try (InputStream in = documentsResource.getInputStream()) {
+            List<Map<String, Object>> docs = objectMapper.readValue(in, new TypeReference<>() {});
+            List<Bm25Index.Document> indexed = new ArrayList<>(docs.size());
+            List<Set<String>> names = new ArrayList<>(docs.size());
+            for (Map<String, Object> doc : docs) {
+                names.add(Set.of(QueryNormalizer.tokens(
+                        str(doc, "crop") + " " + str(doc, "disease") + " " + str(doc, "pathogen"), "en")));
+                indexed.add(new Bm25Index.Document()
+                        .add(str(doc, "crop"), CROP_BOOST)
+                        .add(str(doc, "disease"), DISEASE_BOOST)
+                        .add(str(doc, "pathogen"), DISEASE_BOOST)
+                        .addAll(strings(doc.get("symptoms")), SYMPTOM_BOOST)
+                        .addAll(strings(doc.get("management")), MANAGEMENT_BOOST));
+            }
+            index = new Bm25Index(indexed);
+            nameTerms = List.copyOf(names);
+            documents = List.copyOf(docs);
+            log.info("[LocalRetrieval] Indexed {} chunks in {} ms", docs.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.error("[LocalRetrieval] Could not load {} — local fallback disabled", documentsResource, e);
+        }
+    }
+
+    /** Best-matching chunks, for use as a cheap pre-filter. */
+    public List<Hit> search(String query, int k) {
+        return index.search(query, k, minScore);
+    }
+
+    /**
+     * A Python-shaped diagnosis result from the best-matching chunk, or empty if nothing matches
+     * well enough to be worth saying.
+     */
+    public Optional<Map<String, Object>> diagnose(String query, String language, String region) {
+        List<Set<String>> names = nameTerms;
+        Hit best = index.search(query, CANDIDATES, minScore).stream()
+                .filter(hit -> hit.matchedTerms().stream().anyMatch(names.get(hit.doc())::contains))
+                .findFirst()
+                .orElse(null);
+        if (best == null) return Optional.empty();
+        Map<String, Object> doc = documents.get(best.doc());
+
+        List<String> symptoms = strings(doc.get("symptoms"));
+        List<String> matchedSymptoms = symptoms.stream()
+                .filter(s -> Arrays.stream(QueryNormalizer.tokens(s, "en")).anyMatch(best.matchedTerms()::contains))
+                .toList();
+        if (matchedSymptoms.isEmpty()) matchedSymptoms = symptoms;
+
+        Map<String, Object> management = doc.get("management") instanceof Map<?, ?> m
+                ? new LinkedHashMap<>(castMap(m)) : Map.of();
+
+        boolean regionSpecific = region != null && strings(doc.get("region")).stream()
+                .anyMatch(r -> r.toLowerCase(Locale.ROOT).contains(region.toLowerCase(Locale.ROOT)));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("classified_crop", str(doc, "crop"));
+        result.put("classified_disease", str(doc, "disease"));
+        result.put("confidence", 0.0);   // nothing was classified — this is a text match
+        result.put("diagnosis", answer(doc, management, language));
+        result.put("symptoms_matched", matchedSymptoms);
+        result.put("management_advice", management);
+        result.put("region_specific", regionSpecific);
+        result.put("source", SOURCE);
+        result.put("language", language);
+        return Optional.of(result);
+    }
+
+    private String answer(Map<String, Object> doc, Map<String, Object> management, String language) {
+        List<String> steps = new ArrayList<>();
+        for (Object tips : management.values()) {
+            strings(tips).stream().limit(advicePerCategory).forEach(steps::add);
+        }
+        String advice = steps.isEmpty() ? "" : String.format(msg(ADVICE, language), String.join("; ", steps));
+        return String.format(msg(ANSWER, language), str(doc, "disease"), str(doc, "crop"), advice)
+                .replace("  ", " ");
+    }
+
+    // ────────────────── JSON helpers ──────────────────
+
+    private static String str(Map<String, Object> m, String key) {
+        Object v = m.get(key);
+        return v != null ? v.toString() : "";
+    }
+
+    /** Flattens a string, a list of strings, or a map of either into a list. */
+    private static List<String> strings(Object v) {
+        if (v == null) return List.of();
+        if (v instanceof Collection<?> c) return c.stream().map(Object::toString).toList();
+        if (v instanceof Map<?, ?> m) return m.values().stream().flatMap(x -> strings(x).stream()).toList();
+        return List.of(v.toString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castMap(Map<?, ?> m) {
+        return (Map<String, Object>) m;
+    }
+
+    private static String msg(Map<String, String> map, String lang) {
+        return map.getOrDefault(lang, map.get("en"));
+    }
+}
@@ -1,12 +1,14 @@
 package com.learn.lld.gramvikash.emergency.controller;
 
+import com.learn.lld.gramvikash.emergency.dto.EmergencyHistoryDTO;
 import com.learn.lld.gramvikash.emergency.dto.EmergencyRequestDTO;
 import com.learn.lld.gramvikash.emergency.dto.EmergencyResponseDTO;
 import com.learn.lld.gramvikash.emergency.dto.LivestockEmergencyResponseDTO;
 import com.learn.lld.gramvikash.emergency.dto.VoiceEmergencyResponseDTO;
-import com.learn.lld.gramvikash.emergency.enums.EmergencyType;
+import com.learn.lld.gramvikash.emergency.service.EmergencyArchiveService;
 import com.learn.lld.gramvikash.emergency.service.EmergencyService;
-import com.learn.lld.gramvikash.emergency.service.OpenAIService;
+import com.learn.lld.gramvikash.emergency.service.LivestockEmergencyService;
+import com.learn.lld.gramvikash.emergency.service.VoiceEmergencyService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +16,10 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/emergency")
@@ -22,7 +28,9 @@ import org.springframework.web.multipart.MultipartFile;
 public class EmergencyController {
 
     private final EmergencyService emergencyService;
-    private final OpenAIService openAIService;
+    private final EmergencyArchiveService emergencyArchiveService;
+    private final VoiceEmergencyService voiceEmergencyService;
+    private final LivestockEmergencyService livestockEmergencyService;
 
     // ──────────────── 1. Standard JSON emergency request ────────────────
 
@@ -37,9 +45,9 @@ public class EmergencyController {
 
     /**
      * Accepts a voice recording from the farmer's phone.
-     * 1. OpenAI Whisper transcribes the audio
-     * 2. GPT classifies emergency type + severity
-     * 3. The normal dispatch flow is triggered automatically
+     * 1. Responders near the farmer are alerted while the voice note is still being transcribed
+     * 2. OpenAI Whisper transcribes the audio, then it is classified (local keywords → GPT)
+     * 3. Type + severity are filled in on the provisional request and responders get an update
      *
      * curl -X POST http://localhost:8080/api/emergency/voice \
      *   -F "farmerId=<uuid>" \
@@ -57,45 +65,16 @@ public class EmergencyController {
         log.info("[Voice Emergency] Received voice file from farmer {} ({}, {}), file size: {} bytes",
                 farmerId, latitude, longitude, voiceFile.getSize());
 
-        // Step 1 — Transcribe the voice note
-        String transcript = openAIService.transcribeAudio(voiceFile);
-
-        // Step 2 — Classify emergency type & severity via GPT
-        OpenAIService.ClassificationResult classification = openAIService.classifyEmergency(transcript);
-
-        log.info("[Voice Emergency] Classified as {} / {} — {}",
-                classification.emergencyType(), classification.severity(), classification.reasoning());
-
-        // Step 3 — Build the standard request DTO & dispatch
-        EmergencyRequestDTO requestDTO = EmergencyRequestDTO.builder()
-                .farmerId(farmerId)
-                .emergencyType(classification.emergencyType())
-                .severity(classification.severity())
-                .latitude(latitude)
-                .longitude(longitude)
-                .build();
-
-        EmergencyResponseDTO emergencyResponse = emergencyService.handleEmergency(requestDTO);
-
-        // Step 4 — Wrap AI metadata + dispatch response
-        VoiceEmergencyResponseDTO voiceResponse = VoiceEmergencyResponseDTO.builder()
-                .transcript(transcript)
-                .classifiedEmergencyType(classification.emergencyType())
-                .classifiedSeverity(classification.severity())
-                .aiReasoning(classification.reasoning())
-                .emergencyResponse(emergencyResponse)
-                .build();
-
-        return ResponseEntity.ok(voiceResponse);
+        return ResponseEntity.ok(voiceEmergencyService.handle(farmerId, latitude, longitude, voiceFile));
     }
 
     // ──────────────── 3. Livestock image + text emergency (multipart) ────────────────
 
     /**
      * Accepts a livestock photo + text description from the farmer.
-     * 1. Groq Vision (llama-3.2-11b-vision-preview) analyzes the image + text
-     * 2. AI classifies severity + provides diagnosis
-     * 3. The normal LIVESTOCK_EMERGENCY dispatch flow is triggered
+     * 1. Responders are alerted right away with a provisional HIGH severity
+     * 2. Groq vision (image + text) and text-only models triage the case concurrently
+     * 3. The vision answer is preferred if it is in time; severity is updated on the request
      *
      * curl -X POST http://localhost:8080/api/emergency/livestock \
      *   -F "farmerId=1" \
@@ -115,34 +94,42 @@ public class EmergencyController {
         log.info("[Livestock Emergency] Image from farmer {} ({}, {}), size: {} bytes, desc: {}",
                 farmerId, latitude, longitude, image.getSize(), description);
 
-        // Step 1 — Analyze image + text via Groq Vision
-        OpenAIService.LivestockAnalysisResult analysis =
-                openAIService.analyzeLivestockEmergency(image, description);
-
-        log.info("[Livestock Emergency] Severity: {}, Diagnosis: {}",
-                analysis.severity(), analysis.diagnosis());
-
-        // Step 2 — Build the standard request DTO & dispatch
-        EmergencyRequestDTO requestDTO = EmergencyRequestDTO.builder()
-                .farmerId(farmerId)
-                .emergencyType(EmergencyType.LIVESTOCK_EMERGENCY)
-                .severity(analysis.severity())
-                .latitude(latitude)
-                .longitude(longitude)
-                .build();
-
-        EmergencyResponseDTO emergencyResponse = emergencyService.handleEmergency(requestDTO);
-
-        // Step 3 — Wrap AI analysis + dispatch response
-        LivestockEmergencyResponseDTO livestockResponse = LivestockEmergencyResponseDTO.builder()
-                .farmerDescription(description)
-                .classifiedSeverity(analysis.severity())
-                .aiDiagnosis(analysis.diagnosis())
-                .aiReasoning(analysis.reasoning())
-                .immediateAdvice(analysis.immediateAdvice())
-                .emergencyResponse(emergencyResponse)
-                .build();
-
-        return ResponseEntity.ok(livestockResponse);
+        return ResponseEntity.ok(livestockEmergencyService.handle(farmerId, latitude, longitude, description, image));
+    }
+
+    /**
+     * Same flow as /livestock, answered as server-sent events: an {@code advice} event with the
+     * first-aid steps as soon as a model has written them, then the full {@code result}.
+     *
+     * curl -N -X POST http://localhost:8080/api/emergency/livestock/stream \
+     *   -F "farmerId=1" -F "latitude=17.3850" -F "longitude=78.4867" \
+     *   -F "description=My cow is not eating" -F "image=@cow_photo.jpg"
+     */
+    @PostMapping(value = "/livestock/stream",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLivestockEmergency(
+            @RequestParam Long farmerId,
+            @RequestParam Double latitude,
+            @RequestParam Double longitude,
+            @RequestParam String description,
+            @RequestPart MultipartFile image) {
+
+        log.info("[Livestock Emergency] Streaming request from farmer {} ({}, {}), size: {} bytes",
+                farmerId, latitude, longitude, image.getSize());
+
+        return livestockEmergencyService.stream(farmerId, latitude, longitude, description, image);
+    }
+
+    // ──────────────── 4. History (hot table + archive) ────────────────
+
+    @GetMapping("/history/{emergencyId}")
+    public ResponseEntity<EmergencyHistoryDTO> getEmergency(@PathVariable UUID emergencyId) {
+        return ResponseEntity.ok(emergencyArchiveService.findById(emergencyId));
+    }
+
+    @GetMapping("/history/farmer/{farmerId}")
+    public ResponseEntity<List<EmergencyHistoryDTO>> getFarmerEmergencies(@PathVariable Long farmerId) {
+        return ResponseEntity.ok(emergencyArchiveService.findByFarmerId(farmerId));
     }
 }
@@ -0,0 +1,35 @@
+package com.learn.lld.gramvikash.emergency.controller;
+
+import com.learn.lld.gramvikash.emergency.dto.HeatmapTileResponse;
+import com.learn.lld.gramvikash.emergency.enums.EmergencyType;
+import com.learn.lld.gramvikash.emergency.service.EmergencyHeatmapService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live emergency heatmap for district officials, served from the pre-aggregated tiles.
+ *
+ * GET /api/emergency/heatmap/tiles?precision=5&hours=24&prefix=tep&type=SNAKE_BITE
+ */
+@RestController
+@RequestMapping("/api/emergency/heatmap")
+@RequiredArgsConstructor
+public class EmergencyHeatmapController {
+
+    private final EmergencyHeatmapService heatmapService;
+
+    @GetMapping("/tiles")
+    public ResponseEntity<HeatmapTileResponse> getTiles(
+            @RequestParam(defaultValue = "5") int precision,
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) EmergencyType type) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(30, TimeUnit.SECONDS))
+                .body(heatmapService.getTiles(precision, hours, prefix, type));
+    }
+}
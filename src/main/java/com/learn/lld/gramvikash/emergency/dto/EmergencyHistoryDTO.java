@@ -0,0 +1,29 @@
+package com.learn.lld.gramvikash.emergency.dto;
+
+import com.learn.lld.gramvikash.emergency.enums.EmergencySeverity;
+import com.learn.lld.gramvikash.emergency.enums.EmergencyStatus;
+import com.learn.lld.gramvikash.emergency.enums.EmergencyType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmergencyHistoryDTO {
+
+    private UUID emergencyId;
+    private Long farmerId;
+    private EmergencyType emergencyType;
+    private EmergencySeverity severity;
+    private EmergencyStatus status;
+    private double latitude;
+    private double longitude;
+    private LocalDateTime timestamp;
+
+    // true when served from emergency_requests_archive
+    private boolean archived;
+}
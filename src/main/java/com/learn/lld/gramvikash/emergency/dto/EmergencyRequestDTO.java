@@ -1,7 +1,9 @@
 package com.learn.lld.gramvikash.emergency.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.learn.lld.gramvikash.emergency.enums.EmergencySeverity;
 import com.learn.lld.gramvikash.emergency.enums.EmergencyType;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
@@ -36,4 +38,11 @@ public class EmergencyRequestDTO {
     private String imageUrl;
 
     private String voiceNoteUrl;
+
+    /** UNCLASSIFIED is internal to provisional voice dispatch — a client always knows the type. */
+    @JsonIgnore
+    @AssertTrue(message = "Emergency type must be a specific type, not UNCLASSIFIED")
+    public boolean isEmergencyTypeClassified() {
+        return emergencyType != EmergencyType.UNCLASSIFIED;
+    }
 }
@@ -0,0 +1,25 @@
+package com.learn.lld.gramvikash.emergency.dto;
+
+import com.learn.lld.gramvikash.emergency.enums.EmergencyType;
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact heatmap payload: each tile maps to a count array indexed like {@code types},
+ * e.g. {"tdr1w": [3,0,1,0,2]} instead of one object per (tile, type).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HeatmapTileResponse {
+
+    private int precision;
+    private long fromHourEpoch;   // inclusive, hours since epoch (UTC)
+    private long toHourEpoch;     // inclusive
+    private List<EmergencyType> types;
+    private Map<String, int[]> tiles;
+}
@@ -0,0 +1,86 @@
+package com.learn.lld.gramvikash.emergency.entity;
+
+import com.learn.lld.gramvikash.emergency.enums.EmergencySeverity;
+import com.learn.lld.gramvikash.emergency.enums.EmergencyStatus;
+import com.learn.lld.gramvikash.emergency.enums.EmergencyType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Cold copy of a closed emergency request, moved out of emergency_requests by the archival job.
+ * Keeps the original id so historical lookups by id keep working.
+ */
+@Entity
+@Table(name = "emergency_requests_archive", indexes = {
+        @Index(name = "idx_emergency_archive_farmer", columnList = "farmerId"),
+        @Index(name = "idx_emergency_archive_timestamp", columnList = "timestamp")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedEmergencyRequest implements Persistable<UUID> {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private Long farmerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EmergencyType emergencyType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EmergencySeverity severity;
+
+    @Column(nullable = false)
+    private double latitude;
+
+    @Column(nullable = false)
+    private double longitude;
+
+    @Column(nullable = false)
+    private LocalDateTime timestamp;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EmergencyStatus status;
+
+    @Column(name = "image_url")
+    private String imageUrl;
+
+    @Column(name = "voice_note_url")
+    private String voiceNoteUrl;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    public static ArchivedEmergencyRequest from(EmergencyRequest r) {
+        return ArchivedEmergencyRequest.builder()
+                .id(r.getId())
+                .farmerId(r.getFarmerId())
+                .emergencyType(r.getEmergencyType())
+                .severity(r.getSeverity())
+                .latitude(r.getLatitude())
+                .longitude(r.getLongitude())
+                .timestamp(r.getTimestamp())
+                .status(r.getStatus())
+                .imageUrl(r.getImageUrl())
+                .voiceNoteUrl(r.getVoiceNoteUrl())
+                .archivedAt(LocalDateTime.now())
+                .build();
+    }
+
+    // Ids are copied from the hot table, so always INSERT instead of merge-with-select
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
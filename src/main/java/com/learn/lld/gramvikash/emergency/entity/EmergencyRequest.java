@@ -10,7 +10,12 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "emergency_requests")
+@Table(name = "emergency_requests", indexes = {
+        // Cluster counts filter by type + recent time window; archival scans by status + age
+        @Index(name = "idx_emergency_type_timestamp", columnList = "emergencyType, timestamp"),
+        @Index(name = "idx_emergency_status_timestamp", columnList = "status, timestamp"),
+        @Index(name = "idx_emergency_farmer", columnList = "farmerId")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -5,5 +5,6 @@ public enum EmergencyType {
     PESTICIDE_POISONING,
     FIRE_ACCIDENT,
     TRACTOR_ACCIDENT,
-    LIVESTOCK_EMERGENCY
+    LIVESTOCK_EMERGENCY,
+    UNCLASSIFIED      // provisional — responders alerted before voice triage finished
 }
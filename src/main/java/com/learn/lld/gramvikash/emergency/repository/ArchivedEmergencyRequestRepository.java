@@ -0,0 +1,14 @@
+package com.learn.lld.gramvikash.emergency.repository;
+
+import com.learn.lld.gramvikash.emergency.entity.ArchivedEmergencyRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ArchivedEmergencyRequestRepository extends JpaRepository<ArchivedEmergencyRequest, UUID> {
+
+    List<ArchivedEmergencyRequest> findByFarmerIdOrderByTimestampDesc(Long farmerId);
+}
@@ -57,4 +57,20 @@ public interface DriverRepository extends JpaRepository<Driver, UUID> {
             @Param("lat") double lat,
             @Param("lng") double lng,
             @Param("radiusKm") double radiusKm);
+
+    /**
+     * Finds all available drivers inside a lat/lng bounding box.
+     * Used by batched dispatch to load every candidate for a surge window in one query.
+     */
+    @Query(value = """
+            SELECT * FROM drivers
+            WHERE available = true
+              AND latitude BETWEEN :minLat AND :maxLat
+              AND longitude BETWEEN :minLng AND :maxLng
+            """, nativeQuery = true)
+    List<Driver> findAvailableDriversInBoundingBox(
+            @Param("minLat") double minLat,
+            @Param("maxLat") double maxLat,
+            @Param("minLng") double minLng,
+            @Param("maxLng") double maxLng);
 }
@@ -2,6 +2,7 @@ package com.learn.lld.gramvikash.emergency.repository;
 
 import com.learn.lld.gramvikash.emergency.entity.EmergencyRequest;
 import com.learn.lld.gramvikash.emergency.enums.EmergencyStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -20,6 +21,16 @@ public interface EmergencyRequestRepository extends JpaRepository<EmergencyReque
 
     List<EmergencyRequest> findByFarmerIdAndStatus(Long farmerId, EmergencyStatus status);
 
+    List<EmergencyRequest> findByTimestampGreaterThanEqual(LocalDateTime since);
+
+    List<EmergencyRequest> findByFarmerIdOrderByTimestampDesc(Long farmerId);
+
+    /**
+     * Oldest closed requests first — one archival batch at a time.
+     */
+    List<EmergencyRequest> findByStatusInAndTimestampBeforeOrderByTimestampAsc(
+            List<EmergencyStatus> statuses, LocalDateTime before, Pageable page);
+
     /**
      * Counts how many emergencies of the same type have been reported
      * within a given radius (km) and within the given time window,
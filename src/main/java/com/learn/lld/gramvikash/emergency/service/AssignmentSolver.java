@@ -0,0 +1,102 @@
+package com.learn.lld.gramvikash.emergency.service;
+
+import java.util.Arrays;
+
+/**
+ * Min-cost bipartite assignment (Hungarian / Kuhn-Munkres with potentials).
+ *
+ * Runs in O(n² · m) for an n × m cost matrix, which keeps a surge window of a
+ * few hundred emergencies × drivers well under a millisecond budget per pair.
+ * Rectangular matrices are supported — the smaller side is fully assigned.
+ *
+ * Cells set to {@link #FORBIDDEN} are never returned as a match.
+ */
+final class AssignmentSolver {
+
+    static final double FORBIDDEN = 1e9;
+
+    private AssignmentSolver() {}
+
+    /**
+     * @param cost cost[row][col], rows = emergencies, cols = drivers
+     * @return for each row, the assigned column or -1 if unassigned / only forbidden pairs were left
+     */
+    static int[] solve(double[][] cost) {
+        int rows = cost.length;
+        if (rows == 0) return new int[0];
+        int cols = cost[0].length;
+        int[] result = new int[rows];
+        Arrays.fill(result, -1);
+        if (cols == 0) return result;
+
+        // The potentials algorithm below needs n <= m — transpose when there are more emergencies than drivers
+        boolean transposed = rows > cols;
+        double[][] a = transposed ? transpose(cost) : cost;
+        int n = a.length, m = a[0].length;
+
+        // 1-indexed arrays, as in the classic formulation
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];      // p[col] = row matched to col
+        int[] way = new int[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            double[] minv = new double[m + 1];
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            boolean[] used = new boolean[m + 1];
+            do {
+                used[j0] = true;
+                int i0 = p[j0], j1 = 0;
+                double delta = Double.POSITIVE_INFINITY;
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) continue;
+                    double cur = a[i0 - 1][j - 1] - u[i0] - v[j];
+                    if (cur < minv[j]) {
+                        minv[j] = cur;
+                        way[j] = j0;
+                    }
+                    if (minv[j] < delta) {
+                        delta = minv[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        for (int j = 1; j <= m; j++) {
+            if (p[j] == 0) continue;
+            int row = transposed ? j - 1 : p[j] - 1;
+            int col = transposed ? p[j] - 1 : j - 1;
+            if (cost[row][col] < FORBIDDEN) {
+                result[row] = col;
+            }
+        }
+        return result;
+    }
+
+    private static double[][] transpose(double[][] m) {
+        double[][] t = new double[m[0].length][m.length];
+        for (int i = 0; i < m.length; i++) {
+            for (int j = 0; j < m[0].length; j++) {
+                t[j][i] = m[i][j];
+            }
+        }
+        return t;
+    }
+}
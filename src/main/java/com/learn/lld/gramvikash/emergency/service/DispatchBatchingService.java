@@ -0,0 +1,221 @@
+package com.learn.lld.gramvikash.emergency.service;
+
+import com.learn.lld.gramvikash.common.util.GeoUtils;
+import com.learn.lld.gramvikash.emergency.entity.Driver;
+import com.learn.lld.gramvikash.emergency.entity.EmergencyRequest;
+import com.learn.lld.gramvikash.emergency.enums.EmergencySeverity;
+import com.learn.lld.gramvikash.emergency.enums.EmergencyType;
+import com.learn.lld.gramvikash.emergency.enums.VehicleType;
+import com.learn.lld.gramvikash.emergency.repository.DriverRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Optional surge-mode driver dispatch.
+ *
+ * Instead of every emergency greedily notifying the same nearest drivers, emergencies
+ * arriving within a short window are collected and solved together as a min-cost
+ * assignment (one driver per emergency). Cost = distance × severity weight × vehicle fit,
+ * so critical cases get the closest suitable vehicle.
+ *
+ * Callers block for at most one window; if no driver could be assigned they fall back
+ * to the regular broadcast in {@link EmergencyService}, minus drivers held for other
+ * emergencies ({@link #withoutHeld}).
+ */
+@Service
+@Slf4j
+public class DispatchBatchingService {
+
+    // Extra time a caller waits beyond the window for the solver + DB lookup
+    private static final long ASSIGNMENT_GRACE_MS = 3_000;
+
+    private static final Map<EmergencySeverity, Double> SEVERITY_WEIGHT = Map.of(
+            EmergencySeverity.LOW, 1.0,
+            EmergencySeverity.MEDIUM, 1.5,
+            EmergencySeverity.HIGH, 2.5,
+            EmergencySeverity.CRITICAL, 4.0
+    );
+
+    // Multiplier on distance — 1.0 = ideal vehicle for this emergency, higher = less suitable
+    private static final Map<EmergencyType, Map<VehicleType, Double>> VEHICLE_FIT = Map.of(
+            EmergencyType.SNAKE_BITE, Map.of(
+                    VehicleType.AUTO, 1.0, VehicleType.TRUCK, 1.2, VehicleType.BIKE, 1.3,
+                    VehicleType.TRACTOR, 1.5, VehicleType.WATER_TANKER, 3.0),
+            EmergencyType.PESTICIDE_POISONING, Map.of(
+                    VehicleType.AUTO, 1.0, VehicleType.TRUCK, 1.2, VehicleType.BIKE, 1.3,
+                    VehicleType.TRACTOR, 1.5, VehicleType.WATER_TANKER, 3.0),
+            EmergencyType.FIRE_ACCIDENT, Map.of(
+                    VehicleType.WATER_TANKER, 1.0, VehicleType.TRUCK, 1.5, VehicleType.TRACTOR, 1.5,
+                    VehicleType.AUTO, 2.0, VehicleType.BIKE, 3.0),
+            EmergencyType.TRACTOR_ACCIDENT, Map.of(
+                    VehicleType.TRACTOR, 1.0, VehicleType.TRUCK, 1.0, VehicleType.AUTO, 1.3,
+                    VehicleType.BIKE, 2.0, VehicleType.WATER_TANKER, 2.5),
+            EmergencyType.LIVESTOCK_EMERGENCY, Map.of(
+                    VehicleType.TRUCK, 1.0, VehicleType.TRACTOR, 1.2, VehicleType.AUTO, 1.5,
+                    VehicleType.BIKE, 2.0, VehicleType.WATER_TANKER, 2.5)
+    );
+
+    @Value("${emergency.dispatch.batch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${emergency.dispatch.batch.window-ms:2000}")
+    private long windowMs;
+
+    @Value("${emergency.dispatch.batch.radius-km:5.0}")
+    private double radiusKm;
+
+    // Drivers assigned in a previous window are kept out of later windows for this long
+    @Value("${emergency.dispatch.batch.assignment-hold-seconds:120}")
+    private long assignmentHoldSeconds;
+
+    private final DriverRepository driverRepository;
+    private final ScheduledExecutorService scheduler;
+    private final Map<UUID, Long> heldDrivers = new ConcurrentHashMap<>();
+
+    private final Object lock = new Object();
+    private List<PendingDispatch> window = new ArrayList<>();
+
+    public DispatchBatchingService(DriverRepository driverRepository) {
+        this.driverRepository = driverRepository;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "dispatch-batcher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds the (already persisted) emergency to the current window and waits for the solver.
+     * Returns the single driver assigned to it, or empty if none could be matched.
+     */
+    public Optional<Driver> awaitAssignment(EmergencyRequest request) {
+        PendingDispatch pending = new PendingDispatch(request, new CompletableFuture<>());
+        synchronized (lock) {
+            window.add(pending);
+            // First arrival opens the window — nothing ticks while there is no traffic
+            if (window.size() == 1) {
+                scheduler.schedule(this::flush, windowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        try {
+            return pending.result().get(windowMs + ASSIGNMENT_GRACE_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("[DispatchBatch] No assignment for emergency {}: {}", request.getId(), e.toString());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Drops drivers currently held for an assigned emergency — for the fallback broadcast, so
+     * a driver just given one emergency is not also texted about another in the same window.
+     */
+    public List<Driver> withoutHeld(List<Driver> drivers) {
+        long now = System.currentTimeMillis();
+        return drivers.stream()
+                .filter(d -> {
+                    Long until = heldDrivers.get(d.getId());
+                    return until == null || until < now;
+                })
+                .toList();
+    }
+
+    // ────────────────── Window flush ──────────────────
+
+    void flush() {
+        List<PendingDispatch> batch;
+        synchronized (lock) {
+            batch = window;
+            window = new ArrayList<>();
+        }
+        if (batch.isEmpty()) return;
+
+        try {
+            List<Driver> drivers = loadCandidates(batch);
+            int[] assignment = AssignmentSolver.solve(buildCostMatrix(batch, drivers));
+
+            long holdUntil = System.currentTimeMillis() + assignmentHoldSeconds * 1000;
+            int matched = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                Optional<Driver> driver = Optional.empty();
+                if (assignment[i] >= 0) {
+                    Driver d = drivers.get(assignment[i]);
+                    heldDrivers.put(d.getId(), holdUntil);
+                    driver = Optional.of(d);
+                    matched++;
+                }
+                batch.get(i).result().complete(driver);
+            }
+
+            log.info("[DispatchBatch] Window closed: {} emergencies, {} candidate drivers, {} matched",
+                    batch.size(), drivers.size(), matched);
+        } catch (Exception e) {
+            log.error("[DispatchBatch] Assignment failed for window of {}", batch.size(), e);
+            batch.forEach(p -> p.result().completeExceptionally(e));
+        }
+    }
+
+    /**
+     * One bounding-box query for the whole window, then exact Haversine filtering in memory.
+     */
+    private List<Driver> loadCandidates(List<PendingDispatch> batch) {
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        double minLng = Double.MAX_VALUE, maxLng = -Double.MAX_VALUE;
+        for (PendingDispatch p : batch) {
+            EmergencyRequest r = p.request();
+            double dLat = GeoUtils.kmToLatDegrees(radiusKm);
+            double dLng = GeoUtils.kmToLngDegrees(radiusKm, r.getLatitude());
+            minLat = Math.min(minLat, r.getLatitude() - dLat);
+            maxLat = Math.max(maxLat, r.getLatitude() + dLat);
+            minLng = Math.min(minLng, r.getLongitude() - dLng);
+            maxLng = Math.max(maxLng, r.getLongitude() + dLng);
+        }
+
+        long now = System.currentTimeMillis();
+        heldDrivers.values().removeIf(until -> until < now);
+
+        return driverRepository.findAvailableDriversInBoundingBox(minLat, maxLat, minLng, maxLng)
+                .stream()
+                .filter(d -> !heldDrivers.containsKey(d.getId()))
+                .toList();
+    }
+
+    private double[][] buildCostMatrix(List<PendingDispatch> batch, List<Driver> drivers) {
+        double[][] cost = new double[batch.size()][drivers.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            EmergencyRequest r = batch.get(i).request();
+            double severityWeight = SEVERITY_WEIGHT.getOrDefault(r.getSeverity(), 1.0);
+            Map<VehicleType, Double> fit = VEHICLE_FIT.getOrDefault(r.getEmergencyType(), Map.of());
+
+            for (int j = 0; j < drivers.size(); j++) {
+                Driver d = drivers.get(j);
+                double km = GeoUtils.haversineKm(r.getLatitude(), r.getLongitude(),
+                        d.getLatitude(), d.getLongitude());
+                cost[i][j] = km > radiusKm
+                        ? AssignmentSolver.FORBIDDEN
+                        : km * severityWeight * fit.getOrDefault(d.getVehicleType(), 2.0);
+            }
+        }
+        return cost;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        flush();
+    }
+
+    private record PendingDispatch(EmergencyRequest request, CompletableFuture<Optional<Driver>> result) {}
+}
@@ -0,0 +1,94 @@
+package com.learn.lld.gramvikash.emergency.service;
+
+import com.learn.lld.gramvikash.emergency.dto.EmergencyHistoryDTO;
+import com.learn.lld.gramvikash.emergency.entity.ArchivedEmergencyRequest;
+import com.learn.lld.gramvikash.emergency.entity.EmergencyRequest;
+import com.learn.lld.gramvikash.emergency.enums.EmergencyStatus;
+import com.learn.lld.gramvikash.emergency.repository.ArchivedEmergencyRequestRepository;
+import com.learn.lld.gramvikash.emergency.repository.EmergencyRequestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Hot/cold split for emergency_requests.
+ *
+ * Closed requests older than the retention window are moved in batches into
+ * emergency_requests_archive, so dispatch and cluster queries only scan recent rows.
+ * Historical lookups read the hot table first and fall back to the archive.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmergencyArchiveService {
+
+    private final EmergencyRequestRepository emergencyRequestRepository;
+    private final ArchivedEmergencyRequestRepository archiveRepository;
+
+    /**
+     * Moves one batch (copy + delete in the same transaction). Returns the number of rows moved.
+     */
+    @Transactional
+    public int archiveBatch(List<EmergencyStatus> statuses, LocalDateTime before, int batchSize) {
+        List<EmergencyRequest> batch = emergencyRequestRepository
+                .findByStatusInAndTimestampBeforeOrderByTimestampAsc(statuses, before, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) return 0;
+
+        archiveRepository.saveAll(batch.stream().map(ArchivedEmergencyRequest::from).toList());
+        emergencyRequestRepository.deleteAllInBatch(batch);
+        return batch.size();
+    }
+
+    // ────────────────── Read path ──────────────────
+
+    public EmergencyHistoryDTO findById(UUID id) {
+        return emergencyRequestRepository.findById(id)
+                .map(this::toHistory)
+                .or(() -> archiveRepository.findById(id).map(this::toHistory))
+                .orElseThrow(() -> new RuntimeException("Emergency not found with id: " + id));
+    }
+
+    public List<EmergencyHistoryDTO> findByFarmerId(Long farmerId) {
+        List<EmergencyHistoryDTO> history = new ArrayList<>();
+        emergencyRequestRepository.findByFarmerIdOrderByTimestampDesc(farmerId)
+                .forEach(r -> history.add(toHistory(r)));
+        archiveRepository.findByFarmerIdOrderByTimestampDesc(farmerId)
+                .forEach(r -> history.add(toHistory(r)));
+        history.sort(Comparator.comparing(EmergencyHistoryDTO::getTimestamp,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return history;
+    }
+
+    private EmergencyHistoryDTO toHistory(EmergencyRequest r) {
+        return EmergencyHistoryDTO.builder()
+                .emergencyId(r.getId())
+                .farmerId(r.getFarmerId())
+                .emergencyType(r.getEmergencyType())
+                .severity(r.getSeverity())
+                .status(r.getStatus())
+                .latitude(r.getLatitude())
+                .longitude(r.getLongitude())
+                .timestamp(r.getTimestamp())
+                .archived(false)
+                .build();
+    }
+
+    private EmergencyHistoryDTO toHistory(ArchivedEmergencyRequest r) {
+        return EmergencyHistoryDTO.builder()
+                .emergencyId(r.getId())
+                .farmerId(r.getFarmerId())
+                .emergencyType(r.getEmergencyType())
+                .severity(r.getSeverity())
+                .status(r.getStatus())
+                .latitude(r.getLatitude())
+                .longitude(r.getLongitude())
+                .timestamp(r.getTimestamp())
+                .archived(true)
+                .build();
+    }
+}
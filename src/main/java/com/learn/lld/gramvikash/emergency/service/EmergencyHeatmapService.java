@@ -0,0 +1,180 @@
+package com.learn.lld.gramvikash.emergency.service;
+
+import com.learn.lld.gramvikash.common.util.GeoHash;
+import com.learn.lld.gramvikash.emergency.dto.HeatmapTileResponse;
+import com.learn.lld.gramvikash.emergency.entity.EmergencyRequest;
+import com.learn.lld.gramvikash.emergency.enums.EmergencyType;
+import com.learn.lld.gramvikash.emergency.repository.EmergencyRequestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Pre-aggregated emergency counts for the district heatmap.
+ *
+ * Counts are kept per (geohash precision, hour bucket) → geohash tile → per-type counters
+ * and updated incrementally on every new emergency, so a dashboard refresh reads a handful
+ * of hour buckets instead of aggregating emergency_requests.
+ *
+ * The aggregate is rebuilt from the retention window on startup and old buckets are evicted hourly.
+ * A rebuild fills a fresh map and swaps it in; emergencies recorded while it runs are replayed
+ * into the new map unless the rebuild query already saw them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmergencyHeatmapService {
+
+    private static final EmergencyType[] TYPES = EmergencyType.values();
+
+    @Value("${emergency.heatmap.precisions:4,5,6}")
+    private int[] precisions;
+
+    @Value("${emergency.heatmap.retention-hours:168}")
+    private int retentionHours;
+
+    private final EmergencyRequestRepository emergencyRequestRepository;
+
+    // key = bucketKey(precision, hour)
+    private volatile Map<Long, Map<String, AtomicIntegerArray>> buckets = new ConcurrentHashMap<>();
+
+    // Recorders share the read lock; only the swap at the end of a rebuild takes the write lock
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private Queue<EmergencyRequest> recordedDuringRebuild;
+
+    /**
+     * Adds one emergency to every zoom level. Called right after the request is persisted.
+     */
+    public void record(EmergencyRequest request) {
+        swapLock.readLock().lock();
+        try {
+            add(buckets, request);
+            if (recordedDuringRebuild != null) recordedDuringRebuild.add(request);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void add(Map<Long, Map<String, AtomicIntegerArray>> target, EmergencyRequest request) {
+        long hour = hourOf(request.getTimestamp());
+        int typeIdx = request.getEmergencyType().ordinal();
+        for (int precision : precisions) {
+            String tile = GeoHash.encode(request.getLatitude(), request.getLongitude(), precision);
+            target.computeIfAbsent(bucketKey(precision, hour), k -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(tile, t -> new AtomicIntegerArray(TYPES.length))
+                    .incrementAndGet(typeIdx);
+        }
+    }
+
+    /**
+     * Returns tile counts for the last {@code hours} hours at the given precision,
+     * optionally restricted to tiles under a geohash prefix (the visible map area)
+     * and to a single emergency type.
+     */
+    public HeatmapTileResponse getTiles(int precision, int hours, String prefix, EmergencyType type) {
+        if (Arrays.stream(precisions).noneMatch(p -> p == precision)) {
+            throw new RuntimeException("Unsupported heatmap precision " + precision
+                    + ", available: " + Arrays.toString(precisions));
+        }
+        int window = Math.max(1, Math.min(hours, retentionHours));
+        long toHour = hourOf(LocalDateTime.now());
+        long fromHour = toHour - window + 1;
+        String tilePrefix = prefix != null ? prefix.toLowerCase() : "";
+
+        Map<String, int[]> tiles = new TreeMap<>();
+        for (long hour = fromHour; hour <= toHour; hour++) {
+            Map<String, AtomicIntegerArray> bucket = buckets.get(bucketKey(precision, hour));
+            if (bucket == null) continue;
+
+            bucket.forEach((tile, counts) -> {
+                if (!tile.startsWith(tilePrefix)) return;
+                int[] acc = tiles.computeIfAbsent(tile, t -> new int[TYPES.length]);
+                for (int i = 0; i < TYPES.length; i++) {
+                    acc[i] += counts.get(i);
+                }
+            });
+        }
+
+        List<EmergencyType> types = List.of(TYPES);
+        if (type != null) {
+            types = List.of(type);
+            tiles.replaceAll((tile, counts) -> new int[]{counts[type.ordinal()]});
+            tiles.values().removeIf(counts -> counts[0] == 0);
+        }
+
+        return HeatmapTileResponse.builder()
+                .precision(precision)
+                .fromHourEpoch(fromHour)
+                .toHourEpoch(toHour)
+                .types(types)
+                .tiles(tiles)
+                .build();
+    }
+
+    // ────────────────── Lifecycle ──────────────────
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Queue<EmergencyRequest> recordedMeanwhile = new ConcurrentLinkedQueue<>();
+        swapLock.writeLock().lock();
+        try {
+            recordedDuringRebuild = recordedMeanwhile;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        LocalDateTime since = LocalDateTime.now().minusHours(retentionHours);
+        List<EmergencyRequest> recent = emergencyRequestRepository.findByTimestampGreaterThanEqual(since);
+        Map<Long, Map<String, AtomicIntegerArray>> fresh = new ConcurrentHashMap<>();
+        recent.forEach(r -> add(fresh, r));
+        Set<UUID> loaded = recent.stream().map(EmergencyRequest::getId).collect(Collectors.toSet());
+
+        swapLock.writeLock().lock();
+        try {
+            recordedMeanwhile.stream()
+                    .filter(r -> !loaded.contains(r.getId()))
+                    .forEach(r -> add(fresh, r));
+            buckets = fresh;
+            recordedDuringRebuild = null;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        log.info("[Heatmap] Rebuilt aggregate from {} emergencies in the last {} hours",
+                recent.size(), retentionHours);
+    }
+
+    @Scheduled(cron = "0 5 * * * *")
+    public void evictExpired() {
+        long oldest = hourOf(LocalDateTime.now()) - retentionHours;
+        buckets.keySet().removeIf(key -> hourFromKey(key) < oldest);
+    }
+
+    // ────────────────── Keys ──────────────────
+
+    /** UTC hours since epoch. Timestamps are server-local wall-clock time, so go through the zone. */
+    private long hourOf(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond() / 3600;
+    }
+
+    private long bucketKey(int precision, long hour) {
+        return (hour << 4) | precision;
+    }
+
+    private long hourFromKey(long key) {
+        return key >> 4;
+    }
+}
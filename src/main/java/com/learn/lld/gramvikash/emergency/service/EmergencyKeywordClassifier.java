@@ -0,0 +1,211 @@
+package com.learn.lld.gramvikash.emergency.service;
+
+import com.learn.lld.gramvikash.emergency.enums.EmergencySeverity;
+import com.learn.lld.gramvikash.emergency.enums.EmergencyType;
+import com.learn.lld.gramvikash.emergency.service.OpenAIService.ClassificationResult;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * In-process first pass for voice emergency triage.
+ *
+ * Matches EN / HI / TE keywords and phrases (native script and romanised) against the
+ * transcript and scores each emergency type. Clear cases ("saanp ne kaata", "పాము కాటు",
+ * "tractor overturned") are answered locally; only ambiguous transcripts go to the LLM.
+ *
+ * Final results are cached by transcript hash, so repeated or retried voice notes never
+ * pay for classification twice.
+ */
+@Service
+@Slf4j
+public class EmergencyKeywordClassifier {
+
+    private static final double STRONG = 1.0;
+    private static final double WEAK = 0.4;
+
+    // Everything except letters and combining marks (Devanagari / Telugu vowel signs) is a separator
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{M}]+");
+
+    private static final Map<EmergencyType, Map<String, Double>> TYPE_TERMS = Map.of(
+            EmergencyType.SNAKE_BITE, terms(
+                    STRONG, "snake", "snakebite", "snake bite", "cobra", "viper", "krait",
+                    "saanp", "saap", "sanp", "naag", "sarp", "साँप", "सांप", "सर्प", "नाग",
+                    "paamu", "pamu", "naagupaamu", "పాము", "నాగుపాము", "త్రాచు",
+                    "పాములు", "పామును", "పాముకాటు", "పాముకాటుకు", "నాగుపాముకాటు", "सांपों", "साँपों",
+                    WEAK, "bite", "bitten", "kaata", "kata", "काटा", "डसा", "kaatu", "కాటు", "కరిచింది"),
+            EmergencyType.PESTICIDE_POISONING, terms(
+                    STRONG, "pesticide", "insecticide", "poison", "poisoning", "monocrotophos",
+                    "keetnashak", "kitnashak", "jahar", "zehar", "zeher", "कीटनाशक", "जहर", "ज़हर",
+                    "purugu mandu", "purugumandu", "visham", "పురుగుమందు", "పురుగు మందు", "విషం",
+                    "పురుగుమందులు", "పురుగులమందు", "విషప్రయోగం",
+                    WEAK, "chemical", "spray", "spraying", "dawa", "दवा", "mandu", "మందు"),
+            EmergencyType.FIRE_ACCIDENT, terms(
+                    STRONG, "fire", "flames", "burning", "aag", "आग", "jal raha", "jal rahi",
+                    "nippu", "mantalu", "agni", "నిప్పు", "మంటలు", "అగ్ని", "అగ్ని ప్రమాదం",
+                    "అగ్నిప్రమాదం", "నిప్పంటుకుంది",
+                    WEAK, "smoke", "burn", "burnt", "dhuan", "धुआं", "pogalu", "పొగ"),
+            EmergencyType.TRACTOR_ACCIDENT, terms(
+                    STRONG, "tractor", "thresher", "harvester", "overturned", "rotavator",
+                    "ट्रैक्टर", "ट्रॉली", "thresar", "ట్రాక్టర్", "ట్రాలీ",
+                    WEAK, "accident", "machine", "trolley", "durghatna", "दुर्घटना",
+                    "pramadam", "ప్రమాదం", "palti", "पलट")
+    );
+
+    private static final Map<String, Double> CRITICAL_TERMS = terms(
+            STRONG, "unconscious", "not breathing", "cannot breathe", "fainted",
+            "dying", "heavy bleeding", "many people", "children", "behosh", "बेहोश", "saans nahi",
+            "सांस नहीं", "मर रहा", "spruha ledu", "స్పృహ లేదు", "ఊపిరి ఆడటం లేదు", "chanipotunnadu");
+
+    private static final Map<String, Double> HIGH_TERMS = terms(
+            STRONG, "bleeding", "blood", "vomiting", "swelling", "fracture", "spreading",
+            "khoon", "खून", "ulti", "उल्टी", "sujan", "सूजन", "raktam", "రక్తం",
+            "vanthulu", "వాంతులు", "vapu", "వాపు");
+
+    private static final Map<String, Double> MEDIUM_TERMS = terms(
+            STRONG, "minor", "small", "under control", "contained", "thoda", "थोड़ा",
+            "konchem", "కొంచెం", "chinna", "చిన్న");
+
+    // Types that are never downgraded below HIGH on keyword evidence alone
+    private static final Set<EmergencyType> ALWAYS_SERIOUS = Set.of(
+            EmergencyType.SNAKE_BITE, EmergencyType.PESTICIDE_POISONING);
+
+    @Value("${emergency.classifier.confidence-threshold:0.7}")
+    private double confidenceThreshold;
+
+    @Value("${emergency.classifier.cache-size:5000}")
+    private int cacheSize;
+
+    private Map<String, ClassificationResult> cache;
+
+    @PostConstruct
+    void initCache() {
+        cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ClassificationResult> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    // ────────────────── Public API ──────────────────
+
+    public Optional<ClassificationResult> cached(String transcript) {
+        return Optional.ofNullable(cache.get(cacheKey(transcript)));
+    }
+
+    public void remember(String transcript, ClassificationResult result) {
+        cache.put(cacheKey(transcript), result);
+    }
+
+    /**
+     * Scores the transcript against every emergency type.
+     */
+    public LocalClassification classify(String transcript) {
+        String text = normalise(transcript);
+
+        EmergencyType best = null;
+        double bestScore = 0, secondScore = 0;
+        List<String> matched = List.of();
+
+        for (Map.Entry<EmergencyType, Map<String, Double>> entry : TYPE_TERMS.entrySet()) {
+            List<String> typeMatched = new ArrayList<>();
+            double score = score(text, entry.getValue(), typeMatched);
+            if (score > bestScore) {
+                secondScore = bestScore;
+                bestScore = score;
+                best = entry.getKey();
+                matched = typeMatched;
+            } else if (score > secondScore) {
+                secondScore = score;
+            }
+        }
+
+        if (best == null) {
+            return new LocalClassification(null, EmergencySeverity.HIGH, 0.0, List.of());
+        }
+
+        // Margin over the runner-up, scaled down when the only evidence is weak terms
+        double confidence = ((bestScore - secondScore) / bestScore) * Math.min(1.0, bestScore / STRONG);
+        return new LocalClassification(best, severityFor(best, text), confidence, matched);
+    }
+
+    public boolean isConfident(LocalClassification local) {
+        return local.emergencyType() != null && local.confidence() >= confidenceThreshold;
+    }
+
+    // ────────────────── Internals ──────────────────
+
+    private EmergencySeverity severityFor(EmergencyType type, String text) {
+        if (score(text, CRITICAL_TERMS, null) > 0) return EmergencySeverity.CRITICAL;
+        if (score(text, HIGH_TERMS, null) > 0 || ALWAYS_SERIOUS.contains(type)) return EmergencySeverity.HIGH;
+        if (score(text, MEDIUM_TERMS, null) > 0) return EmergencySeverity.MEDIUM;
+        return EmergencySeverity.HIGH;
+    }
+
+    private double score(String text, Map<String, Double> terms, List<String> matched) {
+        double score = 0;
+        for (Map.Entry<String, Double> term : terms.entrySet()) {
+            if (text.contains(term.getKey())) {
+                score += term.getValue();
+                if (matched != null) matched.add(term.getKey().trim());
+            }
+        }
+        return score;
+    }
+
+    /** Lower-cases and pads every word with spaces so terms only match on word boundaries. */
+    private String normalise(String transcript) {
+        if (transcript == null) return " ";
+        return " " + SEPARATORS.matcher(transcript.toLowerCase(Locale.ROOT)).replaceAll(" ").trim() + " ";
+    }
+
+    private String cacheKey(String transcript) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(normalise(transcript).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Builds a term → weight map. Arguments are a weight followed by the terms it applies to,
+     * e.g. {@code terms(STRONG, "snake", "cobra", WEAK, "bite")}.
+     */
+    private static Map<String, Double> terms(Object... weightsAndTerms) {
+        Map<String, Double> map = new HashMap<>();
+        double weight = STRONG;
+        for (Object o : weightsAndTerms) {
+            if (o instanceof Double w) {
+                weight = w;
+            } else {
+                // Whole words only, in every script: a bare substring would find आग (fire) in
+                // आगे (ahead) and नाग (cobra) in नागरिक. Fused compounds such as పాముకాటు are
+                // listed as terms of their own.
+                map.put(" " + o + " ", weight);
+            }
+        }
+        return Map.copyOf(map);
+    }
+
+    public record LocalClassification(
+            EmergencyType emergencyType,
+            EmergencySeverity severity,
+            double confidence,
+            List<String> matchedTerms
+    ) {
+        public ClassificationResult toResult() {
+            return new ClassificationResult(emergencyType, severity,
+                    "Local keyword match (" + String.join(", ", matchedTerms) + ")");
+        }
+    }
+}
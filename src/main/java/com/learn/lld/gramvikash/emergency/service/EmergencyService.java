@@ -5,7 +5,9 @@ import com.learn.lld.gramvikash.emergency.dto.EmergencyResponseDTO;
 import com.learn.lld.gramvikash.emergency.entity.Doctor;
 import com.learn.lld.gramvikash.emergency.entity.Driver;
 import com.learn.lld.gramvikash.emergency.entity.EmergencyRequest;
+import com.learn.lld.gramvikash.emergency.enums.EmergencySeverity;
 import com.learn.lld.gramvikash.emergency.enums.EmergencyStatus;
+import com.learn.lld.gramvikash.emergency.enums.EmergencyType;
 import com.learn.lld.gramvikash.emergency.repository.DoctorRepository;
 import com.learn.lld.gramvikash.emergency.repository.DriverRepository;
 import com.learn.lld.gramvikash.emergency.repository.EmergencyRequestRepository;
@@ -28,6 +30,8 @@ public class EmergencyService {
     private final DriverRepository driverRepository;
     private final TwilioService twilioService;
     private final ClusterAlertService clusterAlertService;
+    private final DispatchBatchingService dispatchBatchingService;
+    private final EmergencyHeatmapService heatmapService;
 
     public EmergencyResponseDTO handleEmergency(EmergencyRequestDTO dto) {
         // 1. Persist the emergency request
@@ -43,70 +47,112 @@ public class EmergencyService {
         request = emergencyRequestRepository.save(request);
 
         // 2. Dispatch based on emergency type
+        DispatchNotice notice = notifyResponders(request, dispatchMessage(request.getEmergencyType()));
+
+        // 3-5. Status, cluster check, response
+        return finalizeDispatch(request, notice);
+    }
+
+    // ──────────────────────────────── Provisional dispatch ────────────────────────────────
+
+    /**
+     * Persists the emergency and alerts responders before triage has finished.
+     * Pass a null type when it is not known yet — responders get a generic alert.
+     * Must be followed by {@link #completeProvisionalDispatch}.
+     */
+    public ProvisionalDispatch startProvisionalDispatch(Long farmerId, EmergencyType type,
+                                                        EmergencySeverity provisionalSeverity,
+                                                        double latitude, double longitude) {
+        EmergencyRequest request = emergencyRequestRepository.save(EmergencyRequest.builder()
+                .farmerId(farmerId)
+                .emergencyType(type != null ? type : EmergencyType.UNCLASSIFIED)
+                .severity(provisionalSeverity)
+                .latitude(latitude)
+                .longitude(longitude)
+                .build());
+
+        DispatchNotice notice = notifyResponders(request, dispatchMessage(request.getEmergencyType()));
+        log.info("[Emergency] Provisional dispatch {} — {} drivers, {} doctors alerted",
+                request.getId(), notice.notifiedDrivers().size(), notice.notifiedDoctors().size());
+        return new ProvisionalDispatch(request, notice);
+    }
+
+    /**
+     * Fills in the triaged type/severity. Responders already alerted get a follow-up SMS
+     * when the type changed or the severity went up. An UNCLASSIFIED result (triage failed)
+     * sends nothing — the generic alert stands — and skips the cluster check.
+     */
+    public EmergencyResponseDTO completeProvisionalDispatch(ProvisionalDispatch dispatch,
+                                                            EmergencyType type, EmergencySeverity severity) {
+        EmergencyRequest request = dispatch.request();
+        boolean upgraded = type != EmergencyType.UNCLASSIFIED
+                && (request.getEmergencyType() != type || severity.compareTo(request.getSeverity()) > 0);
+
+        request.setEmergencyType(type);
+        request.setSeverity(severity);
+
+        if (upgraded) {
+            String update = "UPDATE: " + dispatchMessage(type) + " Severity " + severity + ".";
+            dispatch.notice().phones().forEach(phone ->
+                    twilioService.sendEmergencySms(phone, update, request.getLatitude(), request.getLongitude()));
+        }
+        return finalizeDispatch(request, dispatch.notice());
+    }
+
+    // ──────────────────────────────── Dispatch internals ────────────────────────────────
+
+    private DispatchNotice notifyResponders(EmergencyRequest request, String message) {
         List<String> notifiedDoctors = new ArrayList<>();
         List<String> notifiedDrivers = new ArrayList<>();
-        List<String> dosAndDonts;
-        String message;
-
-        switch (dto.getEmergencyType()) {
-            case SNAKE_BITE -> {
-                dosAndDonts = getSnakeBiteDosAndDonts();
-                message = "SNAKE BITE! Rush to farmer.";
-            }
-            case PESTICIDE_POISONING -> {
-                dosAndDonts = getPesticidePoisoningDosAndDonts();
-                message = "POISONING! Farmer needs help.";
-            }
-            case FIRE_ACCIDENT -> {
-                dosAndDonts = getFireAccidentDosAndDonts();
-                message = "FIRE! Vehicle needed now.";
-            }
-            case TRACTOR_ACCIDENT -> {
-                dosAndDonts = getTractorAccidentDosAndDonts();
-                message = "ACCIDENT! Rescue needed.";
-            }
-            case LIVESTOCK_EMERGENCY -> {
-                dosAndDonts = getLivestockEmergencyDosAndDonts();
-                message = "LIVESTOCK EMERGENCY! Vet needed.";
-            }
-            default -> {
-                dosAndDonts = List.of("Stay calm.", "Call local emergency services.");
-                message = "EMERGENCY! Help needed.";
-            }
-        }
+        List<String> phones = new ArrayList<>();
+        double lat = request.getLatitude(), lng = request.getLongitude();
 
-        // ── Notify ALL nearby drivers (any vehicle type) ──
-        List<Driver> nearbyDrivers = driverRepository.findNearbyAvailableDrivers(
-                dto.getLatitude(), dto.getLongitude(), DEFAULT_RADIUS_KM);
+        // ── Notify drivers: one assigned driver in surge-batch mode, otherwise ALL nearby (any vehicle type) ──
+        List<Driver> nearbyDrivers = dispatchBatchingService.isEnabled()
+                ? dispatchBatchingService.awaitAssignment(request)
+                        .map(List::of)
+                        .orElseGet(() -> dispatchBatchingService.withoutHeld(findAllNearbyDrivers(lat, lng)))
+                : findAllNearbyDrivers(lat, lng);
         for (Driver d : nearbyDrivers) {
-            twilioService.sendEmergencySms(d.getPhone(), message, dto.getLatitude(), dto.getLongitude());
+            twilioService.sendEmergencySms(d.getPhone(), message, lat, lng);
             notifiedDrivers.add(d.getName() + " (" + d.getPhone() + ")");
+            phones.add(d.getPhone());
         }
 
         // ── Notify nearest doctor ──
-        Optional<Doctor> nearestDoctor = doctorRepository.findNearestAvailableDoctor(
-                dto.getLatitude(), dto.getLongitude());
+        Optional<Doctor> nearestDoctor = doctorRepository.findNearestAvailableDoctor(lat, lng);
         nearestDoctor.ifPresent(doc -> {
-            twilioService.sendEmergencySms(doc.getPhone(), message, dto.getLatitude(), dto.getLongitude());
+            twilioService.sendEmergencySms(doc.getPhone(), message, lat, lng);
             notifiedDoctors.add(doc.getName() + " (" + doc.getPhone() + ")");
+            phones.add(doc.getPhone());
         });
 
+        return new DispatchNotice(notifiedDrivers, notifiedDoctors, phones);
+    }
+
+    private EmergencyResponseDTO finalizeDispatch(EmergencyRequest request, DispatchNotice notice) {
         // 3. Update request status
         request.setStatus(EmergencyStatus.NOTIFIED);
-        emergencyRequestRepository.save(request);
+        request = emergencyRequestRepository.save(request);
+        heatmapService.record(request);
 
-        // 4. Cluster alert check — runs after save so this request is included in count
-        ClusterAlertResult clusterResult = clusterAlertService.checkAndAlert(
-                dto.getEmergencyType(), dto.getLatitude(), dto.getLongitude());
+        // 4. Cluster alert check — runs after save so this request is included in count.
+        //    An unclassified request is no evidence of an outbreak of anything.
+        ClusterAlertResult clusterResult = request.getEmergencyType() == EmergencyType.UNCLASSIFIED
+                ? ClusterAlertResult.notTriggered()
+                : clusterAlertService.checkAndAlert(
+                        request.getEmergencyType(), request.getLatitude(), request.getLongitude());
 
         // 5. Build response
+        List<String> notifiedDoctors = notice.notifiedDoctors();
+        List<String> notifiedDrivers = notice.notifiedDrivers();
         return EmergencyResponseDTO.builder()
                 .emergencyId(request.getId())
                 .emergencyType(request.getEmergencyType())
                 .severity(request.getSeverity())
                 .status(request.getStatus())
                 .timestamp(request.getTimestamp())
-                .dosAndDonts(dosAndDonts)
+                .dosAndDonts(dosAndDonts(request.getEmergencyType()))
                 .notifiedDoctors(notifiedDoctors)
                 .notifiedDrivers(notifiedDrivers)
                 .message(notifiedDoctors.isEmpty() && notifiedDrivers.isEmpty()
@@ -119,6 +165,32 @@ public class EmergencyService {
                 .build();
     }
 
+    private List<Driver> findAllNearbyDrivers(double lat, double lng) {
+        return driverRepository.findNearbyAvailableDrivers(lat, lng, DEFAULT_RADIUS_KM);
+    }
+
+    private String dispatchMessage(EmergencyType type) {
+        return switch (type) {
+            case SNAKE_BITE -> "SNAKE BITE! Rush to farmer.";
+            case PESTICIDE_POISONING -> "POISONING! Farmer needs help.";
+            case FIRE_ACCIDENT -> "FIRE! Vehicle needed now.";
+            case TRACTOR_ACCIDENT -> "ACCIDENT! Rescue needed.";
+            case LIVESTOCK_EMERGENCY -> "LIVESTOCK EMERGENCY! Vet needed.";
+            default -> "EMERGENCY! Help needed.";
+        };
+    }
+
+    private List<String> dosAndDonts(EmergencyType type) {
+        return switch (type) {
+            case SNAKE_BITE -> getSnakeBiteDosAndDonts();
+            case PESTICIDE_POISONING -> getPesticidePoisoningDosAndDonts();
+            case FIRE_ACCIDENT -> getFireAccidentDosAndDonts();
+            case TRACTOR_ACCIDENT -> getTractorAccidentDosAndDonts();
+            case LIVESTOCK_EMERGENCY -> getLivestockEmergencyDosAndDonts();
+            default -> List.of("Stay calm.", "Call local emergency services.");
+        };
+    }
+
     // ──────────────────────────────── Static Do's and Don'ts ────────────────────────────────
 
     private List<String> getSnakeBiteDosAndDonts() {
@@ -179,4 +251,17 @@ public class EmergencyService {
                 "DON'T: Do NOT mix the animal back with healthy livestock."
         );
     }
+
+    // ──────────────────────────────── Records ────────────────────────────────
+
+    public record DispatchNotice(
+            List<String> notifiedDrivers,
+            List<String> notifiedDoctors,
+            List<String> phones
+    ) {}
+
+    public record ProvisionalDispatch(
+            EmergencyRequest request,
+            DispatchNotice notice
+    ) {}
 }
@@ -0,0 +1,187 @@
+package com.learn.lld.gramvikash.emergency.service;
+
+import com.learn.lld.gramvikash.emergency.dto.EmergencyResponseDTO;
+import com.learn.lld.gramvikash.emergency.dto.LivestockEmergencyResponseDTO;
+import com.learn.lld.gramvikash.emergency.enums.EmergencySeverity;
+import com.learn.lld.gramvikash.emergency.enums.EmergencyType;
+import com.learn.lld.gramvikash.emergency.service.EmergencyService.ProvisionalDispatch;
+import com.learn.lld.gramvikash.emergency.service.OpenAIService.LivestockAnalysisResult;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Livestock emergency flow: dispatch and both triage models run at once.
+ * <pre>
+ *   ┌─ vision (90b, image + text) ──┐
+ *   ├─ text only (70b) ─────────────┼─→ pick result → fill in severity → cluster check → response
+ *   └─ persist provisional HIGH → lookup → SMS ─┘
+ * </pre>
+ * The vision answer wins if it arrives before the deadline, otherwise the text answer is used;
+ * whichever is not used is cancelled. If neither arrives in time the provisional HIGH alert stands.
+ */
+@Service
+@Slf4j
+public class LivestockEmergencyService {
+
+    private static final LivestockAnalysisResult DEADLINE_DEFAULT = new LivestockAnalysisResult(
+            EmergencySeverity.HIGH,
+            "Analysis failed — visual inspection needed",
+            "Triage missed the deadline — keeping provisional high severity",
+            "Keep the animal calm, isolate from herd, and wait for the veterinarian."
+    );
+
+    // Extra SSE lifetime beyond the triage deadline for the dispatch bookkeeping and final event
+    private static final long SSE_GRACE_MS = 15_000;
+
+    @Value("${emergency.livestock.deadline-ms:20000}")
+    private long deadlineMs;
+
+    private final EmergencyService emergencyService;
+    private final OpenAIService openAIService;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public LivestockEmergencyService(EmergencyService emergencyService, OpenAIService openAIService) {
+        this.emergencyService = emergencyService;
+        this.openAIService = openAIService;
+    }
+
+    public LivestockEmergencyResponseDTO handle(Long farmerId, double latitude, double longitude,
+                                                String description, MultipartFile image) {
+        return handle(farmerId, latitude, longitude, description, image, null);
+    }
+
+    /**
+     * Server-sent events version of {@link #handle}. Events:
+     * <ul>
+     *   <li>{@code advice} — immediateAdvice text, from whichever model writes it first</li>
+     *   <li>{@code result} — the full {@link LivestockEmergencyResponseDTO}</li>
+     *   <li>{@code error} — dispatch failed</li>
+     * </ul>
+     */
+    public SseEmitter stream(Long farmerId, double latitude, double longitude,
+                             String description, MultipartFile image) {
+        SseEmitter emitter = new SseEmitter(deadlineMs + SSE_GRACE_MS);
+        AtomicBoolean adviceSent = new AtomicBoolean();
+
+        executor.submit(() -> {
+            try {
+                LivestockEmergencyResponseDTO response = handle(farmerId, latitude, longitude, description, image,
+                        advice -> {
+                            if (adviceSent.compareAndSet(false, true)) send(emitter, "advice", advice);
+                        });
+                send(emitter, "result", response);
+                emitter.complete();
+            } catch (Exception e) {
+                log.error("[Livestock Emergency] Streaming flow failed", e);
+                send(emitter, "error", e.getMessage());
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+    private LivestockEmergencyResponseDTO handle(Long farmerId, double latitude, double longitude,
+                                                 String description, MultipartFile image,
+                                                 Consumer<String> onAdvice) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+
+        Future<LivestockAnalysisResult> vision = executor.submit(
+                () -> openAIService.analyzeWithVision(image, description, onAdvice));
+        Future<LivestockAnalysisResult> textOnly = executor.submit(
+                () -> openAIService.analyzeTextOnly(description, onAdvice));
+
+        // Responders are alerted while the models are still thinking
+        Future<ProvisionalDispatch> dispatch = executor.submit(() ->
+                emergencyService.startProvisionalDispatch(farmerId, EmergencyType.LIVESTOCK_EMERGENCY,
+                        EmergencySeverity.HIGH, latitude, longitude));
+
+        ProvisionalDispatch provisional;
+        try {
+            provisional = dispatch.get(remaining(deadline), TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            vision.cancel(true);
+            textOnly.cancel(true);
+            dispatch.cancel(true);
+            throw new RuntimeException("Emergency dispatch failed: " + rootMessage(e));
+        }
+
+        LivestockAnalysisResult analysis;
+        try {
+            analysis = awaitTriage(vision, textOnly, deadline);
+        } finally {
+            vision.cancel(true);
+            textOnly.cancel(true);
+        }
+
+        log.info("[Livestock Emergency] Severity: {}, Diagnosis: {}", analysis.severity(), analysis.diagnosis());
+
+        EmergencyResponseDTO emergencyResponse = emergencyService.completeProvisionalDispatch(
+                provisional, EmergencyType.LIVESTOCK_EMERGENCY, analysis.severity());
+
+        return LivestockEmergencyResponseDTO.builder()
+                .farmerDescription(description)
+                .classifiedSeverity(analysis.severity())
+                .aiDiagnosis(analysis.diagnosis())
+                .aiReasoning(analysis.reasoning())
+                .immediateAdvice(analysis.immediateAdvice())
+                .emergencyResponse(emergencyResponse)
+                .build();
+    }
+
+    /**
+     * Vision until the deadline; if it fails or runs out, whatever the text model has by then.
+     */
+    private LivestockAnalysisResult awaitTriage(Future<LivestockAnalysisResult> vision,
+                                                Future<LivestockAnalysisResult> textOnly, long deadline) {
+        try {
+            return vision.get(remaining(deadline), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return DEADLINE_DEFAULT;
+        } catch (TimeoutException | ExecutionException e) {
+            log.warn("[Groq Vision] No vision result: {}. Using text-only analysis.", rootMessage(e));
+        }
+
+        try {
+            return textOnly.get(remaining(deadline), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException | ExecutionException e) {
+            log.error("[Groq Text] Text-only livestock analysis also unavailable: {}", rootMessage(e));
+        }
+        return DEADLINE_DEFAULT;
+    }
+
+    private void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+        } catch (IOException | IllegalStateException e) {
+            // Client went away — the dispatch itself carries on
+            log.debug("[Livestock Emergency] Could not send '{}' event: {}", event, e.getMessage());
+        }
+    }
+
+    private long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    private String rootMessage(Throwable e) {
+        Throwable t = e;
+        while (t.getCause() != null) t = t.getCause();
+        return t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -2,11 +2,15 @@ package com.learn.lld.gramvikash.emergency.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.lld.gramvikash.common.image.ImagePreprocessor;
+import com.learn.lld.gramvikash.common.resilience.ResilienceRegistry;
+import com.learn.lld.gramvikash.common.util.StreamingJsonFieldParser;
+import com.learn.lld.gramvikash.common.util.StreamingMultipartResource;
 import com.learn.lld.gramvikash.emergency.enums.EmergencySeverity;
 import com.learn.lld.gramvikash.emergency.enums.EmergencyType;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
@@ -14,10 +18,15 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.util.Base64;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Uses Groq's OpenAI-compatible API:
@@ -31,19 +40,32 @@ import java.util.Map;
 @Slf4j
 public class OpenAIService {
 
-    private static final String GROQ_WHISPER_URL =
-            "https://api.groq.com/openai/v1/audio/transcriptions";
-    private static final String GROQ_CHAT_URL =
-            "https://api.groq.com/openai/v1/chat/completions";
+    private static final String WHISPER_PATH = "/audio/transcriptions";
+    private static final String CHAT_PATH = "/chat/completions";
 
     @Value("${groq.api-key}")
     private String apiKey;
 
+    // Overridable so load tests can point at a local stub
+    @Value("${groq.base-url:https://api.groq.com/openai/v1}")
+    private String groqBaseUrl;
+
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
 
-    public OpenAIService(RestTemplate restTemplate) {
+    @Value("${image.preprocess.vision-max-dimension:1024}")
+    private int visionMaxDimension;
+
+    private final EmergencyKeywordClassifier keywordClassifier;
+    private final ImagePreprocessor imagePreprocessor;
+    private final ResilienceRegistry resilience;
+
+    public OpenAIService(@Qualifier("groqRestTemplate") RestTemplate restTemplate, EmergencyKeywordClassifier keywordClassifier,
+                         ImagePreprocessor imagePreprocessor, ResilienceRegistry resilience) {
         this.restTemplate = restTemplate;
+        this.keywordClassifier = keywordClassifier;
+        this.imagePreprocessor = imagePreprocessor;
+        this.resilience = resilience;
         this.objectMapper = new ObjectMapper();
     }
 
@@ -58,17 +80,13 @@ public class OpenAIService {
             MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
             body.add("model", "whisper-large-v3-turbo");
             body.add("response_format", "json");
-            body.add("file", new ByteArrayResource(audioFile.getBytes()) {
-                @Override
-                public String getFilename() {
-                    String original = audioFile.getOriginalFilename();
-                    return (original != null && !original.isBlank()) ? original : "voice.webm";
-                }
-            });
+            // Streamed from the multipart temp file — the voice note is never copied into the heap
+            body.add("file", new StreamingMultipartResource(audioFile, "voice.webm"));
 
             HttpEntity<MultiValueMap<String, Object>> request = new HttpEntity<>(body, headers);
-            ResponseEntity<String> response = restTemplate.exchange(
-                    GROQ_WHISPER_URL, HttpMethod.POST, request, String.class);
+            // Not hedged — a second upload of the same voice note is pure extra cost
+            ResponseEntity<String> response = resilience.call("groq", () -> restTemplate.exchange(
+                    groqBaseUrl + WHISPER_PATH, HttpMethod.POST, request, String.class));
 
             JsonNode root = objectMapper.readTree(response.getBody());
             String transcript = root.path("text").asText("");
@@ -80,9 +98,33 @@ public class OpenAIService {
         }
     }
 
-    // ─────────────────── 2. Classify emergency via Groq LLaMA ───────────────────
+    // ─────────────────── 2. Classify emergency (local keywords → Groq LLaMA) ───────────────────
 
+    /**
+     * Cached result → local multilingual keyword match → LLM, in that order.
+     * The LLM round trip is only paid when the local match is missing or ambiguous.
+     */
     public ClassificationResult classifyEmergency(String transcript) {
+        Optional<ClassificationResult> cached = keywordClassifier.cached(transcript);
+        if (cached.isPresent()) {
+            log.info("[Classifier] Cache hit for transcript");
+            return cached.get();
+        }
+
+        EmergencyKeywordClassifier.LocalClassification local = keywordClassifier.classify(transcript);
+        if (keywordClassifier.isConfident(local)) {
+            log.info("[Classifier] Local match {} / {} (confidence {})",
+                    local.emergencyType(), local.severity(), String.format("%.2f", local.confidence()));
+            ClassificationResult result = local.toResult();
+            keywordClassifier.remember(transcript, result);
+            return result;
+        }
+
+        return classifyWithLlm(transcript, local);
+    }
+
+    private ClassificationResult classifyWithLlm(String transcript,
+                                                 EmergencyKeywordClassifier.LocalClassification local) {
         try {
             String systemPrompt = """
                     You are a rural emergency triage assistant in India.
@@ -119,8 +161,8 @@ public class OpenAIService {
 
             HttpEntity<String> request = new HttpEntity<>(
                     objectMapper.writeValueAsString(requestBody), headers);
-            ResponseEntity<String> response = restTemplate.exchange(
-                    GROQ_CHAT_URL, HttpMethod.POST, request, String.class);
+            ResponseEntity<String> response = resilience.hedgedCall("groq", () -> restTemplate.exchange(
+                    groqBaseUrl + CHAT_PATH, HttpMethod.POST, request, String.class));
 
             JsonNode root = objectMapper.readTree(response.getBody());
             String content = root.path("choices").get(0)
@@ -135,13 +177,22 @@ public class OpenAIService {
                     classification.path("severity").asText());
             String reasoning = classification.path("reasoning").asText("");
 
-            return new ClassificationResult(type, severity, reasoning);
+            ClassificationResult result = new ClassificationResult(type, severity, reasoning);
+            keywordClassifier.remember(transcript, result);
+            return result;
         } catch (Exception e) {
-            log.error("[Groq LLaMA] Classification failed, defaulting to SNAKE_BITE/HIGH", e);
+            // Prefer a low-confidence local guess over a blind default
+            if (local.emergencyType() != null) {
+                log.error("[Groq LLaMA] Classification failed, using local best guess {} / {}",
+                        local.emergencyType(), local.severity(), e);
+                return local.toResult();
+            }
+            // No evidence for any type: say so rather than guess one that texts the wrong responders
+            log.error("[Groq LLaMA] Classification failed, leaving type UNCLASSIFIED/HIGH", e);
             return new ClassificationResult(
-                    EmergencyType.SNAKE_BITE,
+                    EmergencyType.UNCLASSIFIED,
                     EmergencySeverity.HIGH,
-                    "Classification failed — defaulting to safe high-severity response"
+                    "Classification failed — type unknown, treated as high severity"
             );
         }
     }
@@ -153,42 +204,27 @@ public class OpenAIService {
      * Groq's vision model. Returns severity classification + AI diagnosis.
      *
      * Uses llama-3.2-90b-vision-preview with image as a base64 data URI.
-     * Falls back to text-only analysis with llama-3.3-70b-versatile if vision fails.
+     * Runs alongside {@link #analyzeTextOnly} — see LivestockEmergencyService.
      */
-    public LivestockAnalysisResult analyzeLivestockEmergency(MultipartFile image, String description) {
-        // First try vision model with image
-        try {
-            return analyzeWithVision(image, description);
-        } catch (Exception visionEx) {
-            log.warn("[Groq Vision] Vision model failed: {}. Falling back to text-only analysis.",
-                    visionEx.getMessage());
-        }
-
-        // Fallback: text-only analysis using the powerful 70b model
-        try {
-            return analyzeTextOnly(description);
-        } catch (Exception textEx) {
-            log.error("[Groq Text] Text-only livestock analysis also failed", textEx);
-            return new LivestockAnalysisResult(
-                    EmergencySeverity.HIGH,
-                    "Analysis failed — visual inspection needed",
-                    "Error: " + textEx.getMessage(),
-                    "Keep the animal calm, isolate from herd, and wait for the veterinarian."
-            );
-        }
+    public LivestockAnalysisResult analyzeWithVision(MultipartFile image, String description) throws Exception {
+        return analyzeWithVision(image, description, null);
     }
 
-    private LivestockAnalysisResult analyzeWithVision(MultipartFile image, String description) throws Exception {
-        String base64Image = Base64.getEncoder().encodeToString(image.getBytes());
-        String mimeType = image.getContentType() != null ? image.getContentType() : "image/jpeg";
+    /**
+     * Streaming variant — {@code onAdvice} receives {@code immediateAdvice} as soon as the model has written it.
+     */
+    public LivestockAnalysisResult analyzeWithVision(MultipartFile image, String description,
+                                                     Consumer<String> onAdvice) throws Exception {
+        // Downscaled, EXIF-free JPEG encoded straight to base64 — not the raw multi-MB photo
+        String imageDataUri = imagePreprocessor.toDataUri(image, visionMaxDimension);
 
         String instructions = """
                 You are a veterinary emergency triage assistant for rural India.
                 Analyze this livestock image and the farmer's description to determine:
-                1. severity: one of LOW, MEDIUM, HIGH, CRITICAL
-                2. diagnosis: What is likely wrong with the animal (one line)
-                3. reasoning: Why you chose this severity (one line)
-                4. immediateAdvice: What the farmer should do RIGHT NOW (2-3 actionable steps)
+                1. immediateAdvice: What the farmer should do RIGHT NOW (2-3 actionable steps)
+                2. severity: one of LOW, MEDIUM, HIGH, CRITICAL
+                3. diagnosis: What is likely wrong with the animal (one line)
+                4. reasoning: Why you chose this severity (one line)
 
                 Severity rules:
                 - CRITICAL: animal dying, severe bleeding, unable to stand, contagious disease suspected
@@ -196,7 +232,7 @@ public class OpenAIService {
                 - MEDIUM: mild injury, skin disease, limping, reduced appetite
                 - LOW: minor symptoms, routine concern, preventive check
 
-                Respond ONLY with valid JSON: {"severity":"...","diagnosis":"...","reasoning":"...","immediateAdvice":"..."}
+                Respond ONLY with valid JSON, in this key order: {"immediateAdvice":"...","severity":"...","diagnosis":"...","reasoning":"..."}
                 
                 Farmer describes: "%s"
                 """.formatted(description);
@@ -207,7 +243,7 @@ public class OpenAIService {
                         Map.of("type", "text", "text", instructions),
                         Map.of("type", "image_url",
                                 "image_url", Map.of(
-                                        "url", "data:" + mimeType + ";base64," + base64Image
+                                        "url", imageDataUri
                                 ))
                 )
         );
@@ -219,18 +255,25 @@ public class OpenAIService {
                 "max_tokens", 400
         );
 
-        return callGroqAndParse(requestBody, "Vision");
+        return callGroqAndParse(requestBody, "Vision", onAdvice);
+    }
+
+    /**
+     * Text-only analysis with llama-3.3-70b-versatile — used when the vision answer fails or is late.
+     */
+    public LivestockAnalysisResult analyzeTextOnly(String description) throws Exception {
+        return analyzeTextOnly(description, null);
     }
 
-    private LivestockAnalysisResult analyzeTextOnly(String description) throws Exception {
+    public LivestockAnalysisResult analyzeTextOnly(String description, Consumer<String> onAdvice) throws Exception {
         String systemPrompt = """
                 You are a veterinary emergency triage assistant for rural India.
                 A farmer has described their livestock's condition. Based on the description,
                 determine:
-                1. severity: one of LOW, MEDIUM, HIGH, CRITICAL
-                2. diagnosis: What is likely wrong with the animal (one line)
-                3. reasoning: Why you chose this severity (one line)
-                4. immediateAdvice: What the farmer should do RIGHT NOW (2-3 actionable steps)
+                1. immediateAdvice: What the farmer should do RIGHT NOW (2-3 actionable steps)
+                2. severity: one of LOW, MEDIUM, HIGH, CRITICAL
+                3. diagnosis: What is likely wrong with the animal (one line)
+                4. reasoning: Why you chose this severity (one line)
 
                 Severity rules:
                 - CRITICAL: animal dying, severe bleeding, unable to stand, contagious disease suspected
@@ -238,7 +281,7 @@ public class OpenAIService {
                 - MEDIUM: mild injury, skin disease, limping, reduced appetite
                 - LOW: minor symptoms, routine concern, preventive check
 
-                Respond ONLY with valid JSON: {"severity":"...","diagnosis":"...","reasoning":"...","immediateAdvice":"..."}
+                Respond ONLY with valid JSON, in this key order: {"immediateAdvice":"...","severity":"...","diagnosis":"...","reasoning":"..."}
                 """;
 
         Map<String, Object> requestBody = Map.of(
@@ -252,10 +295,16 @@ public class OpenAIService {
                 "max_tokens", 400
         );
 
-        return callGroqAndParse(requestBody, "Text-Only");
+        return callGroqAndParse(requestBody, "Text-Only", onAdvice);
     }
 
-    private LivestockAnalysisResult callGroqAndParse(Map<String, Object> requestBody, String tag) throws Exception {
+    private LivestockAnalysisResult callGroqAndParse(Map<String, Object> requestBody, String tag,
+                                                     Consumer<String> onAdvice) throws Exception {
+        if (onAdvice != null) {
+            // Not hedged — two streams would race each other to the farmer's screen
+            return resilience.call("groq", () -> streamGroqAndParse(requestBody, tag, onAdvice));
+        }
+
         HttpHeaders headers = new HttpHeaders();
         headers.setBearerAuth(apiKey);
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -263,14 +312,63 @@ public class OpenAIService {
         HttpEntity<String> request = new HttpEntity<>(
                 objectMapper.writeValueAsString(requestBody), headers);
 
-        ResponseEntity<String> response = restTemplate.exchange(
-                GROQ_CHAT_URL, HttpMethod.POST, request, String.class);
+        ResponseEntity<String> response = resilience.hedgedCall("groq", () -> restTemplate.exchange(
+                groqBaseUrl + CHAT_PATH, HttpMethod.POST, request, String.class));
 
         JsonNode root = objectMapper.readTree(response.getBody());
         String content = root.path("choices").get(0)
                 .path("message").path("content").asText("");
         log.info("[Groq {}] Livestock analysis response: {}", tag, content);
 
+        return parseLivestockAnalysis(content);
+    }
+
+    /**
+     * Same request with {@code "stream": true}. Reads the SSE token stream line by line, feeds the
+     * content deltas to an incremental JSON scanner and hands {@code immediateAdvice} to the caller
+     * the moment its closing quote arrives — the rest of the answer is still being generated.
+     */
+    private LivestockAnalysisResult streamGroqAndParse(Map<String, Object> requestBody, String tag,
+                                                       Consumer<String> onAdvice) throws IOException {
+        Map<String, Object> streamingBody = new HashMap<>(requestBody);
+        streamingBody.put("stream", true);
+        byte[] json = objectMapper.writeValueAsBytes(streamingBody);
+
+        StringBuilder content = new StringBuilder();
+        StreamingJsonFieldParser parser = new StreamingJsonFieldParser((field, value) -> {
+            if ("immediateAdvice".equals(field) && !value.isBlank()) {
+                log.info("[Groq {}] immediateAdvice ready after {} chars", tag, content.length());
+                onAdvice.accept(value);
+            }
+        });
+
+        restTemplate.execute(groqBaseUrl + CHAT_PATH, HttpMethod.POST, request -> {
+            request.getHeaders().setBearerAuth(apiKey);
+            request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            request.getHeaders().setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+            request.getBody().write(json);
+        }, response -> {
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(response.getBody(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("data:")) continue;
+                String data = line.substring(5).trim();
+                if ("[DONE]".equals(data)) break;
+
+                String delta = objectMapper.readTree(data).path("choices").path(0)
+                        .path("delta").path("content").asText("");
+                content.append(delta);
+                parser.feed(delta);
+            }
+            return null;
+        });
+
+        log.info("[Groq {}] Streamed livestock analysis: {}", tag, content);
+        return parseLivestockAnalysis(content.toString());
+    }
+
+    private LivestockAnalysisResult parseLivestockAnalysis(String content) throws IOException {
         String jsonStr = extractJson(content);
         JsonNode analysis = objectMapper.readTree(jsonStr);
 
@@ -1,17 +1,23 @@
 package com.learn.lld.gramvikash.emergency.service;
 
+import com.learn.lld.gramvikash.common.resilience.ResilienceRegistry;
 import com.twilio.Twilio;
+import com.twilio.http.TwilioRestClient;
 import com.twilio.rest.api.v2010.account.Message;
 import com.twilio.type.PhoneNumber;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class TwilioService {
 
+    private final ResilienceRegistry resilience;
+
     @Value("${twilio.account-sid}")
     private String accountSid;
 
@@ -21,9 +27,19 @@ public class TwilioService {
     @Value("${twilio.phone-number}")
     private String fromPhoneNumber;
 
+    // Set only for load tests / offline runs — sends SDK requests to a local stub instead of Twilio
+    @Value("${twilio.api-base-url:}")
+    private String apiBaseUrl;
+
     @PostConstruct
     public void init() {
         Twilio.init(accountSid, authToken);
+        if (!apiBaseUrl.isBlank()) {
+            Twilio.setRestClient(new TwilioRestClient.Builder(accountSid, authToken)
+                    .httpClient(new TwilioStubHttpClient(apiBaseUrl))
+                    .build());
+            log.warn("[Twilio] API requests redirected to {}", apiBaseUrl);
+        }
         log.info("[Twilio] Initialized with account SID: {}...", accountSid.substring(0, Math.min(8, accountSid.length())));
     }
 
@@ -38,11 +54,12 @@ public class TwilioService {
             String fullMessage = emergencyMessage + "\n" + locationUrl;
             log.info(fullMessage);
 
-            Message message = Message.creator(
+            // Never hedged — a duplicate attempt would be a duplicate SMS
+            Message message = resilience.call("twilio", () -> Message.creator(
                     new PhoneNumber(toPhone),
                     new PhoneNumber(fromPhoneNumber),
                     fullMessage
-            ).create();
+            ).create());
 
             log.info("[Twilio] SMS sent to {} | SID: {}", toPhone, message.getSid());
         } catch (Exception e) {
@@ -0,0 +1,57 @@
+package com.learn.lld.gramvikash.emergency.service;
+
+import com.twilio.http.HttpClient;
+import com.twilio.http.Request;
+import com.twilio.http.Response;
+
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Twilio SDK transport that sends every API request to another base URL (a local stub) instead
+ * of api.twilio.com, keeping path, query, form body and basic auth. Only used when
+ * {@code twilio.api-base-url} is set — load tests and offline development.
+ */
+class TwilioStubHttpClient extends HttpClient {
+
+    private final String baseUrl;
+    private final java.net.http.HttpClient client = java.net.http.HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    TwilioStubHttpClient(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    @Override
+    public Response makeRequest(Request request) {
+        URL original = request.constructURL();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + original.getFile()))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/x-www-form-urlencoded");
+        if (request.requiresAuthentication()) {
+            String credentials = request.getUsername() + ":" + request.getPassword();
+            builder.header("Authorization",
+                    "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+        }
+        String body = request.encodeFormBody();
+        builder.method(request.getMethod().toString(), body.isEmpty()
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(body));
+
+        try {
+            HttpResponse<String> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+            return new Response(response.body(), response.statusCode());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Twilio stub request interrupted", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Twilio stub request failed: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.learn.lld.gramvikash.emergency.service;
+
+import com.learn.lld.gramvikash.emergency.dto.EmergencyResponseDTO;
+import com.learn.lld.gramvikash.emergency.dto.VoiceEmergencyResponseDTO;
+import com.learn.lld.gramvikash.emergency.enums.EmergencySeverity;
+import com.learn.lld.gramvikash.emergency.enums.EmergencyType;
+import com.learn.lld.gramvikash.emergency.service.EmergencyService.ProvisionalDispatch;
+import com.learn.lld.gramvikash.emergency.service.OpenAIService.ClassificationResult;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.concurrent.*;
+
+/**
+ * Voice emergency flow with speculative dispatch.
+ *
+ * Responder lookup only needs lat/lng, so it does not wait for the transcript:
+ * <pre>
+ *   ┌─ transcribe → classify ─────────────────┐
+ *   │                                          ├─→ fill in type/severity → cluster check → response
+ *   └─ persist provisional → lookup → SMS ─────┘
+ * </pre>
+ * Both branches run as subtasks of one request under a shared deadline. If one branch fails
+ * the other is cancelled; if classification fails or misses the deadline the provisional
+ * alert stands as it was sent — UNCLASSIFIED, HIGH — with no follow-up SMS and no cluster check.
+ */
+@Service
+@Slf4j
+public class VoiceEmergencyService {
+
+    private static final ClassificationResult TRIAGE_UNAVAILABLE = new ClassificationResult(
+            EmergencyType.UNCLASSIFIED,
+            EmergencySeverity.HIGH,
+            "Classification unavailable — provisional high-severity alert stands"
+    );
+
+    @Value("${emergency.voice.deadline-ms:20000}")
+    private long deadlineMs;
+
+    private final EmergencyService emergencyService;
+    private final OpenAIService openAIService;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public VoiceEmergencyService(EmergencyService emergencyService, OpenAIService openAIService) {
+        this.emergencyService = emergencyService;
+        this.openAIService = openAIService;
+    }
+
+    public VoiceEmergencyResponseDTO handle(Long farmerId, double latitude, double longitude,
+                                           MultipartFile voiceFile) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+
+        // Branch 1 — Whisper + classification
+        Future<Triage> triage = executor.submit(() -> {
+            String transcript = openAIService.transcribeAudio(voiceFile);
+            return new Triage(transcript, openAIService.classifyEmergency(transcript));
+        });
+
+        // Branch 2 — provisional request + responder lookup + first SMS, while Whisper runs
+        Future<ProvisionalDispatch> dispatch = executor.submit(() ->
+                emergencyService.startProvisionalDispatch(
+                        farmerId, null, EmergencySeverity.HIGH, latitude, longitude));
+
+        ProvisionalDispatch provisional;
+        try {
+            provisional = dispatch.get(remaining(deadline), TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            // Without a persisted request there is nothing to attach triage to — fail the whole scope
+            triage.cancel(true);
+            dispatch.cancel(true);
+            throw new RuntimeException("Emergency dispatch failed: " + rootMessage(e));
+        }
+
+        Triage result;
+        try {
+            result = triage.get(remaining(deadline), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            triage.cancel(true);
+            result = new Triage("", TRIAGE_UNAVAILABLE);
+        } catch (TimeoutException | ExecutionException e) {
+            triage.cancel(true);
+            log.warn("[Voice Emergency] Triage unavailable for {}: {}",
+                    provisional.request().getId(), rootMessage(e));
+            result = new Triage("", TRIAGE_UNAVAILABLE);
+        }
+
+        ClassificationResult classification = result.classification();
+        log.info("[Voice Emergency] Classified as {} / {} — {}",
+                classification.emergencyType(), classification.severity(), classification.reasoning());
+
+        EmergencyResponseDTO emergencyResponse = emergencyService.completeProvisionalDispatch(
+                provisional, classification.emergencyType(), classification.severity());
+
+        return VoiceEmergencyResponseDTO.builder()
+                .transcript(result.transcript())
+                .classifiedEmergencyType(classification.emergencyType())
+                .classifiedSeverity(classification.severity())
+                .aiReasoning(classification.reasoning())
+                .emergencyResponse(emergencyResponse)
+                .build();
+    }
+
+    private long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    private String rootMessage(Throwable e) {
+        Throwable t = e;
+        while (t.getCause() != null) t = t.getCause();
+        return t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private record Triage(String transcript, ClassificationResult classification) {}
+}
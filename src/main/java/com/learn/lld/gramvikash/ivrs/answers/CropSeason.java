@@ -0,0 +1,25 @@
+package com.learn.lld.gramvikash.ivrs.answers;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+
+/**
+ * Indian cropping seasons. Callers in the same season tend to report the same pests and diseases.
+ */
+public enum CropSeason {
+    KHARIF,     // June – October, monsoon crops (paddy, cotton, maize)
+    RABI,       // November – March, winter crops (wheat, mustard, gram)
+    ZAID;       // April – May, summer crops (vegetables, melons)
+
+    public static CropSeason of(Month month) {
+        return switch (month) {
+            case JUNE, JULY, AUGUST, SEPTEMBER, OCTOBER -> KHARIF;
+            case APRIL, MAY -> ZAID;
+            default -> RABI;
+        };
+    }
+
+    public static CropSeason of(LocalDateTime time) {
+        return of(time.getMonth());
+    }
+}
@@ -0,0 +1,74 @@
+package com.learn.lld.gramvikash.ivrs.answers;
+
+import java.util.*;
+
+/**
+ * Turns a spoken symptom description into a canonical token set for lexical matching.
+ *
+ * Lower-cases, splits on anything that is not a letter, digit or combining mark (so Devanagari
+ * and Telugu words stay whole), drops filler words per language and folds English plurals.
+ * Tokens come back sorted and de-duplicated, ready for a merge-based {@link #jaccard}.
+ */
+public final class QueryNormalizer {
+
+    private static final Map<String, Set<String>> STOPWORDS = Map.of(
+            "en", Set.of("a", "an", "the", "is", "are", "was", "am", "my", "me", "i", "we", "our", "in", "on",
+                    "of", "and", "or", "to", "it", "its", "have", "has", "with", "what", "do", "does", "should",
+                    "please", "can", "you", "tell", "there", "some", "this", "that", "for", "from", "getting"),
+            "hi", Set.of("है", "हैं", "में", "की", "का", "के", "को", "और", "मेरी", "मेरा", "मेरे", "से", "पर",
+                    "क्या", "रहे", "रही", "रहा", "हो", "कर", "भी", "यह", "वह", "तो", "ने", "कुछ", "बताइए", "करें"),
+            "te", Set.of("నా", "లో", "ఉంది", "ఉన్నాయి", "మరియు", "కి", "కు", "ఏమి", "చేయాలి", "ఈ", "ఆ",
+                    "నేను", "మా", "కూడా", "చెప్పండి")
+    );
+
+    private QueryNormalizer() {}
+
+    public static String[] tokens(String text, String lang) {
+        if (text == null || text.isBlank()) return new String[0];
+        Set<String> stop = STOPWORDS.getOrDefault(lang, Set.of());
+        boolean english = "en".equals(lang);
+        TreeSet<String> out = new TreeSet<>();
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder word = new StringBuilder(16);
+        for (int i = 0, n = lower.length(); i <= n; ) {
+            int cp = i < n ? lower.codePointAt(i) : ' ';
+            if (i < n && isWordChar(cp)) {
+                word.appendCodePoint(cp);
+            } else if (!word.isEmpty()) {
+                String w = word.toString();
+                word.setLength(0);
+                if (english) w = singular(w);
+                if (!stop.contains(w)) out.add(w);
+            }
+            i += i < n ? Character.charCount(cp) : 1;
+        }
+        return out.toArray(String[]::new);
+    }
+
+    /** |a ∩ b| / |a ∪ b| over sorted, de-duplicated token arrays. */
+    public static double jaccard(String[] a, String[] b) {
+        if (a.length == 0 || b.length == 0) return 0;
+        int i = 0, j = 0, common = 0;
+        while (i < a.length && j < b.length) {
+            int c = a[i].compareTo(b[j]);
+            if (c == 0) { common++; i++; j++; }
+            else if (c < 0) i++;
+            else j++;
+        }
+        return (double) common / (a.length + b.length - common);
+    }
+
+    /** leaves → leaf, flies → fly, spots → spot; good enough for symptom vocabulary. */
+    private static String singular(String w) {
+        if (w.length() <= 3 || !w.endsWith("s") || w.endsWith("ss")) return w;
+        if (w.endsWith("ves")) return w.substring(0, w.length() - 3) + "f";
+        if (w.endsWith("ies")) return w.substring(0, w.length() - 3) + "y";
+        return w.substring(0, w.length() - 1);
+    }
+
+    private static boolean isWordChar(int cp) {
+        return Character.isLetterOrDigit(cp) || Character.getType(cp) == Character.NON_SPACING_MARK
+                || Character.getType(cp) == Character.COMBINING_SPACING_MARK;
+    }
+}
@@ -1,12 +1,15 @@
 package com.learn.lld.gramvikash.ivrs.controller;
 
 import com.learn.lld.gramvikash.ivrs.service.IVRSService;
+import com.learn.lld.gramvikash.ivrs.twiml.TwimlRenderer;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 /**
  * Twilio webhook controller for IVRS.
  *
@@ -14,10 +17,14 @@ import org.springframework.web.bind.annotation.*;
  * Call flow:
  *   /incoming         → welcome + menu
  *   /menu             → route by digit
- *   /process-symptoms → speech → Python RAG → voice response
+ *   /process-symptoms → speech → Python RAG started in the background → hold prompt
+ *   /symptom-result   → answer if ready, otherwise hold again (Twilio &lt;Redirect&gt; loop);
+ *                       callers waiting for a pipeline slot hear their place in line
+ *   /status           → Twilio call-status callback (configure on the phone number)
  * </pre>
  *
- * All responses are TwiML (XML) consumed directly by Twilio.
+ * All responses are TwiML (XML) consumed directly by Twilio, rendered from precompiled
+ * templates straight into the servlet response.
  */
 @RestController
 @RequestMapping("/api/ivrs")
@@ -26,40 +33,69 @@ import org.springframework.web.bind.annotation.*;
 public class IVRSController {
 
     private final IVRSService ivrsService;
+    private final TwimlRenderer twimlRenderer;
 
     /**
      * Twilio incoming-call webhook.
      */
     @PostMapping(value = "/incoming", produces = MediaType.APPLICATION_XML_VALUE)
-    public ResponseEntity<String> handleIncomingCall(
+    public void handleIncomingCall(
             @RequestParam("CallSid") String callSid,
-            @RequestParam("From") String from
-    ) {
+            @RequestParam("From") String from,
+            HttpServletResponse response
+    ) throws IOException {
         log.info("IVRS incoming: CallSid={}, From={}", callSid, from);
-        return ResponseEntity.ok(ivrsService.handleIncomingCall(callSid, from));
+        twimlRenderer.write(ivrsService.handleIncomingCall(callSid, from), response);
     }
 
     /**
      * Menu-selection webhook – receives the digit the user pressed.
      */
     @PostMapping(value = "/menu", produces = MediaType.APPLICATION_XML_VALUE)
-    public ResponseEntity<String> handleMenuSelection(
+    public void handleMenuSelection(
             @RequestParam("callSid") String callSid,
-            @RequestParam("Digits") String digits
-    ) {
+            @RequestParam("Digits") String digits,
+            HttpServletResponse response
+    ) throws IOException {
         log.info("IVRS menu: CallSid={}, Digits={}", callSid, digits);
-        return ResponseEntity.ok(ivrsService.handleMenuSelection(callSid, digits));
+        twimlRenderer.write(ivrsService.handleMenuSelection(callSid, digits), response);
     }
 
     /**
      * Symptom-processing webhook – receives transcribed speech.
      */
     @PostMapping(value = "/process-symptoms", produces = MediaType.APPLICATION_XML_VALUE)
-    public ResponseEntity<String> handleSymptoms(
+    public void handleSymptoms(
             @RequestParam("callSid") String callSid,
-            @RequestParam("SpeechResult") String speechResult
-    ) {
+            @RequestParam("SpeechResult") String speechResult,
+            HttpServletResponse response
+    ) throws IOException {
         log.info("IVRS symptoms: CallSid={}, Speech={}", callSid, speechResult);
-        return ResponseEntity.ok(ivrsService.handleSymptomsGathered(callSid, speechResult));
+        twimlRenderer.write(ivrsService.handleSymptomsGathered(callSid, speechResult), response);
+    }
+
+    /**
+     * Hold-loop webhook – Twilio is redirected here until the answer is ready.
+     */
+    @PostMapping(value = "/symptom-result", produces = MediaType.APPLICATION_XML_VALUE)
+    public void handleSymptomResult(
+            @RequestParam("callSid") String callSid,
+            @RequestParam(value = "attempt", defaultValue = "1") int attempt,
+            HttpServletResponse response
+    ) throws IOException {
+        log.debug("IVRS symptom result: CallSid={}, attempt={}", callSid, attempt);
+        twimlRenderer.write(ivrsService.handleSymptomResult(callSid, attempt), response);
+    }
+
+    /**
+     * Call-status callback – Twilio reports hang-ups here so queued callers give up their place.
+     */
+    @PostMapping("/status")
+    public void handleCallStatus(
+            @RequestParam("CallSid") String callSid,
+            @RequestParam("CallStatus") String callStatus
+    ) {
+        log.debug("IVRS status: CallSid={}, CallStatus={}", callSid, callStatus);
+        ivrsService.handleCallStatus(callSid, callStatus);
     }
 }
@@ -0,0 +1,54 @@
+package com.learn.lld.gramvikash.ivrs.entity;
+
+import com.learn.lld.gramvikash.ivrs.answers.CropSeason;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A frequently asked symptom query with its answer computed ahead of time.
+ * Rebuilt wholesale by FrequentQueryMiner; region NULL = any region for that language.
+ */
+@Entity
+@Table(name = "ivrs_frequent_answers",
+        indexes = @Index(name = "idx_frequent_answer_bucket", columnList = "language, region, season"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FrequentQueryAnswer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String language;
+
+    private String region;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CropSeason season;
+
+    @Column(nullable = false, length = 1000)
+    private String queryTokens;         // normalised, sorted, space-separated
+
+    @Column(columnDefinition = "TEXT")
+    private String sampleQuery;         // most recent raw wording from a caller
+
+    private int occurrences;
+
+    @Column(columnDefinition = "TEXT")
+    private String translatedQuery;
+
+    @Column(columnDefinition = "TEXT")
+    private String responseText;
+
+    @Column(columnDefinition = "TEXT")
+    private String translatedResponse;
+
+    private LocalDateTime minedAt;
+}
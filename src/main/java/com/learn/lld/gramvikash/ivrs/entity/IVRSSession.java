@@ -49,7 +49,7 @@ public class IVRSSession {
 
     @PrePersist
     protected void onCreate() {
-        startedAt = LocalDateTime.now();
+        if (startedAt == null) startedAt = LocalDateTime.now();
     }
 
     public enum CallStatus {
@@ -59,6 +59,12 @@ public class IVRSSession {
         GATHERING_SYMPTOMS,
         PROCESSING,
         COMPLETED,
-        FAILED
+        FAILED,
+        ABANDONED;      // caller hung up before the call finished
+
+        /** No webhook moves a call on from here. */
+        public boolean isFinal() {
+            return this == COMPLETED || this == FAILED || this == ABANDONED;
+        }
     }
 }
@@ -0,0 +1,9 @@
+package com.learn.lld.gramvikash.ivrs.repository;
+
+import com.learn.lld.gramvikash.ivrs.entity.FrequentQueryAnswer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FrequentQueryAnswerRepository extends JpaRepository<FrequentQueryAnswer, Long> {
+}
@@ -2,14 +2,40 @@ package com.learn.lld.gramvikash.ivrs.repository;
 
 import com.learn.lld.gramvikash.ivrs.entity.IVRSSession;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface IVRSSessionRepository extends JpaRepository<IVRSSession, Long> {
     Optional<IVRSSession> findByCallSid(String callSid);
+    List<IVRSSession> findByCallSidIn(Collection<String> callSids);
     List<IVRSSession> findByFarmerIdOrderByStartedAtDesc(Long farmerId);
     List<IVRSSession> findByPhoneNumberOrderByStartedAtDesc(String phoneNumber);
+
+    /**
+     * Answered calls since {@code since}, reduced to what the frequent-query miner needs.
+     */
+    @Query("SELECT s.language AS language, st.name AS region, s.userSpeechText AS query, "
+            + "s.translatedQuery AS translatedQuery, s.responseText AS responseText, "
+            + "s.translatedResponse AS translatedResponse, s.startedAt AS askedAt "
+            + "FROM IVRSSession s LEFT JOIN s.farmer f LEFT JOIN f.state st "
+            + "WHERE s.startedAt >= :since AND s.callStatus = :status AND s.userSpeechText IS NOT NULL")
+    List<AnsweredQuery> findAnsweredQueries(@Param("since") LocalDateTime since,
+                                            @Param("status") IVRSSession.CallStatus status);
+
+    interface AnsweredQuery {
+        String getLanguage();
+        String getRegion();
+        String getQuery();
+        String getTranslatedQuery();
+        String getResponseText();
+        String getTranslatedResponse();
+        LocalDateTime getAskedAt();
+    }
 }
@@ -0,0 +1,217 @@
+package com.learn.lld.gramvikash.ivrs.service;
+
+import com.learn.lld.gramvikash.diagnostic.repository.DiagnosticSessionRepository;
+import com.learn.lld.gramvikash.ivrs.answers.CropSeason;
+import com.learn.lld.gramvikash.ivrs.answers.QueryNormalizer;
+import com.learn.lld.gramvikash.ivrs.entity.FrequentQueryAnswer;
+import com.learn.lld.gramvikash.ivrs.entity.IVRSSession.CallStatus;
+import com.learn.lld.gramvikash.ivrs.repository.FrequentQueryAnswerRepository;
+import com.learn.lld.gramvikash.ivrs.repository.IVRSSessionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Offline job that finds what farmers ask most and answers it ahead of time.
+ *
+ * <ol>
+ *   <li>Loads answered IVRS calls and successful web diagnoses from the look-back window.</li>
+ *   <li>Buckets them by (language, region, season) — plus a language-wide bucket per season for
+ *       callers without a known region — and normalises each query to a token set.</li>
+ *   <li>Clusters near-identical token sets greedily, most frequent first, and keeps clusters
+ *       asked at least {@code min-occurrences} times.</li>
+ *   <li>Runs the most recent wording of each cluster through the Python pipeline once, falling
+ *       back to the latest stored answer if the service is down.</li>
+ *   <li>Replaces {@code ivrs_frequent_answers} and the in-memory {@link InstantAnswerIndex}.</li>
+ * </ol>
+ */
+@Component
+@Slf4j
+public class FrequentQueryMiner {
+
+    @Value("${ivrs.instant-answers.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ivrs.instant-answers.lookback-days:365}")
+    private int lookbackDays;
+
+    @Value("${ivrs.instant-answers.min-occurrences:5}")
+    private int minOccurrences;
+
+    @Value("${ivrs.instant-answers.max-per-bucket:25}")
+    private int maxPerBucket;
+
+    @Value("${ivrs.instant-answers.min-similarity:0.7}")
+    private double clusterSimilarity;
+
+    private final IVRSSessionRepository ivrsSessionRepository;
+    private final DiagnosticSessionRepository diagnosticSessionRepository;
+    private final FrequentQueryAnswerRepository answerRepository;
+    private final IVRSPipelineClient pipelineClient;
+    private final InstantAnswerIndex index;
+    private final TransactionTemplate transactionTemplate;
+
+    public FrequentQueryMiner(IVRSSessionRepository ivrsSessionRepository,
+                              DiagnosticSessionRepository diagnosticSessionRepository,
+                              FrequentQueryAnswerRepository answerRepository,
+                              IVRSPipelineClient pipelineClient,
+                              InstantAnswerIndex index,
+                              TransactionTemplate transactionTemplate) {
+        this.ivrsSessionRepository = ivrsSessionRepository;
+        this.diagnosticSessionRepository = diagnosticSessionRepository;
+        this.answerRepository = answerRepository;
+        this.pipelineClient = pipelineClient;
+        this.index = index;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(cron = "${ivrs.instant-answers.mine-cron:0 30 2 * * *}")
+    public void mine() {
+        if (!enabled) return;
+        long start = System.currentTimeMillis();
+        LocalDateTime since = LocalDateTime.now().minusDays(lookbackDays);
+
+        List<Asked> asked = Stream.concat(
+                ivrsSessionRepository.findAnsweredQueries(since, CallStatus.COMPLETED).stream()
+                        .filter(q -> q.getResponseText() != null && !"Service error".equals(q.getResponseText()))
+                        .map(q -> new Asked(q.getLanguage(), q.getRegion(), q.getQuery(), q.getTranslatedQuery(),
+                                q.getResponseText(), q.getTranslatedResponse(), q.getAskedAt())),
+                diagnosticSessionRepository.findAnsweredQueries(since).stream()
+                        .map(q -> new Asked(q.getLanguage(), q.getRegion(), q.getQuery(), null,
+                                q.getResponse(), q.getResponse(), q.getAskedAt()))
+        ).filter(a -> a.language() != null && a.askedAt() != null).toList();
+
+        Map<BucketKey, List<Asked>> buckets = new HashMap<>();
+        for (Asked a : asked) {
+            CropSeason season = CropSeason.of(a.askedAt());
+            if (a.region() != null) {
+                buckets.computeIfAbsent(new BucketKey(a.language(), a.region(), season), k -> new ArrayList<>()).add(a);
+            }
+            buckets.computeIfAbsent(new BucketKey(a.language(), null, season), k -> new ArrayList<>()).add(a);
+        }
+
+        LocalDateTime minedAt = LocalDateTime.now();
+        List<FrequentQueryAnswer> answers = new ArrayList<>();
+        buckets.forEach((key, queries) -> {
+            for (Cluster c : cluster(key.language(), queries)) {
+                FrequentQueryAnswer answer = precompute(key, c, minedAt);
+                if (answer != null) answers.add(answer);
+            }
+        });
+
+        List<FrequentQueryAnswer> saved = transactionTemplate.execute(status -> {
+            answerRepository.deleteAllInBatch();
+            return answerRepository.saveAll(answers);
+        });
+        index.replace(saved);
+        log.info("[InstantAnswers] Mined {} queries into {} answers across {} buckets in {} ms",
+                asked.size(), answers.size(), buckets.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Exact token sets are counted first; the distinct sets are then merged, most frequent first,
+     * into the first cluster they resemble. Returns the biggest qualifying clusters.
+     */
+    private List<Cluster> cluster(String lang, List<Asked> queries) {
+        Map<String, Cluster> exact = new HashMap<>();
+        for (Asked q : queries) {
+            String[] tokens = QueryNormalizer.tokens(q.query(), lang);
+            if (tokens.length == 0) continue;
+            exact.computeIfAbsent(String.join(" ", tokens), k -> new Cluster(tokens)).add(q);
+        }
+
+        List<Cluster> merged = new ArrayList<>();
+        exact.values().stream()
+                .sorted(Comparator.comparingInt((Cluster c) -> c.count).reversed())
+                .forEach(candidate -> merged.stream()
+                        .filter(c -> QueryNormalizer.jaccard(c.tokens, candidate.tokens) >= clusterSimilarity)
+                        .findFirst()
+                        .ifPresentOrElse(c -> c.absorb(candidate), () -> merged.add(candidate)));
+
+        return merged.stream()
+                .filter(c -> c.count >= minOccurrences)
+                .sorted(Comparator.comparingInt((Cluster c) -> c.count).reversed())
+                .limit(maxPerBucket)
+                .toList();
+    }
+
+    private FrequentQueryAnswer precompute(BucketKey key, Cluster c, LocalDateTime minedAt) {
+        String translatedQuery;
+        String responseText;
+        String translatedResponse;
+        try {
+            Map<String, Object> result = pipelineClient.process(c.latest.query(), key.language(), key.region());
+            translatedQuery = (String) result.get("translated_query");
+            responseText = (String) result.get("diagnosis");
+            translatedResponse = (String) result.get("translated_response");
+        } catch (Exception e) {
+            if (c.latestAnswered == null) return null;
+            log.warn("[InstantAnswers] Pipeline unavailable for '{}', reusing last answer: {}",
+                    c.latest.query(), e.getMessage());
+            translatedQuery = c.latestAnswered.translatedQuery();
+            responseText = c.latestAnswered.responseText();
+            translatedResponse = c.latestAnswered.translatedResponse();
+        }
+        if (isBlank(translatedResponse)) translatedResponse = responseText;
+        if (isBlank(translatedResponse)) return null;
+
+        return FrequentQueryAnswer.builder()
+                .language(key.language())
+                .region(key.region())
+                .season(key.season())
+                .queryTokens(String.join(" ", c.tokens))
+                .sampleQuery(c.latest.query())
+                .occurrences(c.count)
+                .translatedQuery(translatedQuery != null ? translatedQuery : c.latest.query())
+                .responseText(responseText != null ? responseText : translatedResponse)
+                .translatedResponse(translatedResponse)
+                .minedAt(minedAt)
+                .build();
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    // ────────────────── Working types ──────────────────
+
+    private record Asked(String language, String region, String query, String translatedQuery,
+                         String responseText, String translatedResponse, LocalDateTime askedAt) {}
+
+    private record BucketKey(String language, String region, CropSeason season) {}
+
+    private static final class Cluster {
+        final String[] tokens;
+        int count;
+        Asked latest;
+        Asked latestAnswered;
+
+        Cluster(String[] tokens) {
+            this.tokens = tokens;
+        }
+
+        void add(Asked q) {
+            count++;
+            latest = newer(latest, q);
+            if (!isBlank(q.translatedResponse())) latestAnswered = newer(latestAnswered, q);
+        }
+
+        void absorb(Cluster other) {
+            count += other.count;
+            latest = newer(latest, other.latest);
+            latestAnswered = newer(latestAnswered, other.latestAnswered);
+        }
+
+        private static Asked newer(Asked a, Asked b) {
+            if (a == null) return b;
+            if (b == null) return a;
+            return b.askedAt().isAfter(a.askedAt()) ? b : a;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.learn.lld.gramvikash.ivrs.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Admission control for the IVRS symptom pipeline.
+ *
+ * At most {@code max-in-flight} calls run through the Python service at once; the rest wait in
+ * a FIFO queue of at most {@code max-queue} callers and hear their position while they wait.
+ * When a running call finishes, the head of the queue is promoted straight away, so the Python
+ * service is kept at its sustainable rate instead of being flooded during an outbreak.
+ * Callers who hang up are dropped from the queue via Twilio's status callback.
+ */
+@Component
+@Slf4j
+public class IVRSAdmissionControl {
+
+    public enum Admission { ADMITTED, QUEUED, REJECTED }
+
+    public record Stats(int running, int queued, int maxInFlight, int maxQueue) {}
+
+    @Value("${ivrs.admission.max-in-flight:6}")
+    private int maxInFlight;
+
+    @Value("${ivrs.admission.max-queue:300}")
+    private int maxQueue;
+
+    private final Set<String> running = new HashSet<>();
+    private final LinkedHashSet<String> waiting = new LinkedHashSet<>();
+
+    public synchronized Admission admit(String callSid) {
+        if (running.contains(callSid)) return Admission.ADMITTED;
+        if (waiting.contains(callSid)) return Admission.QUEUED;
+        if (running.size() < maxInFlight) {
+            running.add(callSid);
+            return Admission.ADMITTED;
+        }
+        if (waiting.size() >= maxQueue) {
+            log.warn("[IVRS Admission] Queue full ({} waiting) — rejecting sid={}", waiting.size(), callSid);
+            return Admission.REJECTED;
+        }
+        waiting.add(callSid);
+        return Admission.QUEUED;
+    }
+
+    /** 1-based place in line, or 0 if the call is not waiting. */
+    public synchronized int position(String callSid) {
+        if (!waiting.contains(callSid)) return 0;
+        int position = 1;
+        for (String sid : waiting) {
+            if (sid.equals(callSid)) break;
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Frees the call's slot and promotes the next caller in line.
+     *
+     * @return the promoted call, already counted as running, or null if nobody is waiting
+     */
+    public synchronized String releaseAndPromote(String callSid) {
+        running.remove(callSid);
+        if (running.size() >= maxInFlight || waiting.isEmpty()) return null;
+        String next = waiting.removeFirst();
+        running.add(next);
+        return next;
+    }
+
+    /** Caller hung up — a waiting call gives up its place; a running one keeps its slot until it ends. */
+    public synchronized boolean abandon(String callSid) {
+        return waiting.remove(callSid);
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(running.size(), waiting.size(), maxInFlight, maxQueue);
+    }
+}
@@ -0,0 +1,52 @@
+package com.learn.lld.gramvikash.ivrs.service;
+
+import com.learn.lld.gramvikash.common.resilience.ResilienceRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Client for the Python IVRS pipeline (translate → RAG → LLM → translate back).
+ * Used live by {@link IVRSService} and offline by {@link FrequentQueryMiner}.
+ *
+ * Runs under its own {@code python-ivrs} dependency rather than the shared {@code python} one:
+ * a caller on hold waits up to {@code poll-wait-ms × max-polls}, so the pipeline gets that whole
+ * budget, its own bulkhead slots, and no hedging.
+ */
+@Component
+@RequiredArgsConstructor
+public class IVRSPipelineClient {
+
+    private final RestTemplate restTemplate;
+    private final ResilienceRegistry resilience;
+
+    @Value("${python.service.url:http://localhost:8000}")
+    private String pythonServiceUrl;
+
+    /**
+     * @return the pipeline's JSON body ({@code translated_query}, {@code diagnosis},
+     *         {@code translated_response}); throws if the service is unavailable
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> process(String speechText, String lang, String region) {
+        String url = pythonServiceUrl + "/api/v1/ivrs/process";
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("speech_text", speechText);
+        body.put("language", lang);
+        if (region != null) body.put("region", region);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<Map> resp = resilience.call("python-ivrs",
+                () -> restTemplate.exchange(url, HttpMethod.POST, entity, Map.class));
+        return resp.getBody() != null ? resp.getBody() : Map.of();
+    }
+}
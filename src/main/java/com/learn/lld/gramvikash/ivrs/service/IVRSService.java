@@ -1,19 +1,24 @@
 package com.learn.lld.gramvikash.ivrs.service;
 
-import com.learn.lld.gramvikash.ivrs.entity.IVRSSession;
+import com.learn.lld.gramvikash.common.util.PhoneNumbers;
 import com.learn.lld.gramvikash.ivrs.entity.IVRSSession.CallStatus;
-import com.learn.lld.gramvikash.ivrs.repository.IVRSSessionRepository;
-import com.learn.lld.gramvikash.user.entity.Farmer;
-import com.learn.lld.gramvikash.user.repository.FarmerRepository;
+import com.learn.lld.gramvikash.ivrs.session.CallState;
+import com.learn.lld.gramvikash.ivrs.session.CallStateStore;
+import com.learn.lld.gramvikash.ivrs.twiml.Twiml;
+import com.learn.lld.gramvikash.ivrs.twiml.TwimlTemplate;
+import com.learn.lld.gramvikash.schemes.service.SchemeVoiceSummaryService;
+import com.learn.lld.gramvikash.user.service.FarmerPhoneDirectory;
+import com.learn.lld.gramvikash.user.service.FarmerPhoneDirectory.Caller;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
 
 /**
  * Manages the Twilio IVRS call flow:
@@ -26,12 +31,25 @@ import java.util.*;
 @Slf4j
 public class IVRSService {
 
-    private final IVRSSessionRepository sessionRepository;
-    private final FarmerRepository farmerRepository;
-    private final RestTemplate restTemplate;
+    private final CallStateStore callStateStore;
+    private final IVRSSessionWriter sessionWriter;
+    private final FarmerPhoneDirectory farmerPhoneDirectory;
+    private final SchemeVoiceSummaryService schemeSummaries;
+    private final IVRSPipelineClient pipelineClient;
+    private final InstantAnswerIndex instantAnswers;
+    private final IVRSAdmissionControl admission;
 
-    @Value("${python.service.url:http://localhost:8000}")
-    private String pythonServiceUrl;
+    // How long one hold-loop request waits for the answer — must stay well under Twilio's 15 s
+    @Value("${ivrs.async.poll-wait-ms:6000}")
+    private long pollWaitMs;
+
+    @Value("${ivrs.async.max-polls:8}")
+    private int maxPolls;
+
+    private static final Set<String> TERMINAL_CALL_STATUSES = Set.of("completed", "busy", "failed", "no-answer", "canceled");
+
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
 
     // ── voice / language maps ───────────────────────────────────────────
 
@@ -73,12 +91,50 @@ public class IVRSService {
             "te", "గ్రామ వికాశ్ ఉపయోగించినందుకు ధన్యవాదాలు. వీడ్కోలు!"
     );
 
-    private static final Map<String, String> SCHEME_COMING_SOON = Map.of(
-            "en", "Scheme information service will be available soon. Thank you.",
-            "hi", "योजना जानकारी सेवा जल्द ही उपलब्ध होगी। धन्यवाद।",
-            "te", "పథక సమాచార సేవ త్వరలో అందుబాటులో ఉంటుంది. ధన్యవాదాలు."
+    private static final Map<String, String> SCHEMES_UNREGISTERED = Map.of(
+            "en", "This number is not registered with Gram Vikash. Please register in the app to hear the schemes you qualify for. Thank you.",
+            "hi", "यह नंबर ग्राम विकास में पंजीकृत नहीं है। अपनी पात्र योजनाएं सुनने के लिए कृपया ऐप में पंजीकरण करें। धन्यवाद।",
+            "te", "ఈ నంబర్ గ్రామ వికాస్‌లో నమోదు కాలేదు. మీకు అర్హత ఉన్న పథకాలు వినడానికి దయచేసి యాప్‌లో నమోదు చేసుకోండి. ధన్యవాదాలు."
+    );
+
+    private static final Map<String, String> SCHEMES_PREPARING = Map.of(
+            "en", "We are still preparing your scheme information. Please call again in a few minutes. Thank you.",
+            "hi", "आपकी योजना जानकारी तैयार की जा रही है। कृपया कुछ मिनट बाद फिर से कॉल करें। धन्यवाद।",
+            "te", "మీ పథక సమాచారం సిద్ధమవుతోంది. దయచేసి కొన్ని నిమిషాల తర్వాత మళ్ళీ కాల్ చేయండి. ధన్యవాదాలు."
+    );
+
+    private static final Map<String, String> HOLD = Map.of(
+            "en", "Thank you. Please stay on the line while we analyse your crop problem.",
+            "hi", "धन्यवाद। कृपया लाइन पर बने रहें, हम आपकी फसल की समस्या का विश्लेषण कर रहे हैं।",
+            "te", "ధన్యవాదాలు. మేము మీ పంట సమస్యను విశ్లేషిస్తున్నాము, దయచేసి లైన్‌లో ఉండండి."
+    );
+
+    private static final Map<String, String> STILL_WORKING = Map.of(
+            "en", "Still working on your answer. Please hold.",
+            "hi", "आपका उत्तर तैयार किया जा रहा है। कृपया प्रतीक्षा करें।",
+            "te", "మీ సమాధానం సిద్ధమవుతోంది. దయచేసి వేచి ఉండండి."
+    );
+
+    private static final Map<String, String> SERVICE_BUSY = Map.of(
+            "en", "Sorry, our service is busy right now. Please call again in a few minutes. Goodbye.",
+            "hi", "क्षमा करें, हमारी सेवा अभी व्यस्त है। कृपया कुछ मिनट बाद फिर से कॉल करें। अलविदा।",
+            "te", "క్షమించండి, మా సేవ ప్రస్తుతం బిజీగా ఉంది. దయచేసి కొన్ని నిమిషాల తర్వాత మళ్ళీ కాల్ చేయండి. వీడ్కోలు."
+    );
+
+    private static final Map<String, String> QUEUE_POSITION = Map.of(
+            "en", "Many farmers are calling right now. You are number {{1}} in line. Please stay on the line.",
+            "hi", "इस समय बहुत से किसान कॉल कर रहे हैं। आप कतार में {{1}} नंबर पर हैं। कृपया लाइन पर बने रहें।",
+            "te", "ప్రస్తుతం చాలా మంది రైతులు కాల్ చేస్తున్నారు. మీరు వరుసలో {{1}}వ స్థానంలో ఉన్నారు. దయచేసి లైన్‌లో ఉండండి."
     );
 
+    private static final int HOLD_PAUSE_SECONDS = 2;
+    private static final int QUEUE_PAUSE_SECONDS = 5;
+
+    // ── precompiled TwiML, one set per language ─────────────────────────
+
+    private static final Map<String, Prompts> PROMPTS = LANG_VOICE.keySet().stream()
+            .collect(Collectors.toUnmodifiableMap(lang -> lang, IVRSService::compilePrompts));
+
     // ====================================================================
     // CALL-FLOW HANDLERS
     // ====================================================================
@@ -86,28 +142,32 @@ public class IVRSService {
     /**
      * 1. Incoming call – look up farmer, pick language, create session, play welcome + menu.
      */
-    public String handleIncomingCall(String callSid, String fromNumber) {
+    public Twiml handleIncomingCall(String callSid, String fromNumber) {
         log.info("Incoming IVRS call: sid={}, from={}", callSid, fromNumber);
-        String phone = normalisePhone(fromNumber);
+        long phoneKey = PhoneNumbers.normalise(fromNumber);
 
-        Farmer farmer = farmerRepository.findByPhoneNumber(phone).orElse(null);
+        // In-memory directory — the greeting never waits on MySQL
+        Caller caller = farmerPhoneDirectory.lookup(phoneKey).orElse(null);
         String lang = "en";
-        if (farmer != null && farmer.getLanguage() != null) {
-            lang = switch (farmer.getLanguage()) {
+        if (caller != null && caller.language() != null) {
+            lang = switch (caller.language()) {
                 case HINDI -> "hi";
                 case TELUGU -> "te";
                 default -> "en";
             };
         }
 
-        IVRSSession session = IVRSSession.builder()
+        // Resolve everything later webhooks need now, so they never go back to the database
+        CallState call = CallState.builder()
                 .callSid(callSid)
-                .phoneNumber(phone)
-                .farmer(farmer)
+                .phoneNumber(PhoneNumbers.format(phoneKey))
+                .farmerId(caller != null ? caller.farmerId() : null)
+                .region(caller != null ? caller.stateName() : null)
                 .language(lang)
                 .callStatus(CallStatus.STARTED)
+                .startedAt(LocalDateTime.now())
                 .build();
-        sessionRepository.save(session);
+        update(call);
 
         return twimlWelcome(lang, callSid);
     }
@@ -115,146 +175,308 @@ public class IVRSService {
     /**
      * 2. Menu digit pressed.
      */
-    public String handleMenuSelection(String callSid, String digits) {
+    public Twiml handleMenuSelection(String callSid, String digits) {
         log.info("Menu selection: digits={} for sid={}", digits, callSid);
 
-        IVRSSession session = sessionRepository.findByCallSid(callSid)
-                .orElseThrow(() -> new RuntimeException("Session not found: " + callSid));
-        session.setCallStatus(CallStatus.MENU_SELECTED);
-        sessionRepository.save(session);
+        CallState call = findCall(callSid);
+        call.setCallStatus(CallStatus.MENU_SELECTED);
+        update(call);
 
-        String lang = session.getLanguage();
+        String lang = call.getLanguage();
 
         return switch (digits) {
             case "1" -> twimlGatherSymptoms(lang, callSid);
-            case "2" -> twimlSay(msg(SCHEME_COMING_SOON, lang), lang, true);
+            case "2" -> {
+                complete(call);
+                yield twimlSay(schemeSummary(call), lang);
+            }
             default  -> twimlMenu(lang, callSid);
         };
     }
 
     /**
-     * 3. Speech result received – call Python IVRS pipeline, return diagnosis as voice.
+     * 3. Speech result received – a frequent question is answered on the spot from the
+     *    precomputed set. Otherwise start the Python IVRS pipeline in the background and put the
+     *    caller on hold. RAG + LLM + translation can take longer than Twilio's 15 s webhook limit,
+     *    so the answer is collected by {@link #handleSymptomResult} via &lt;Redirect&gt;.
      */
-    public String handleSymptomsGathered(String callSid, String speechResult) {
+    public Twiml handleSymptomsGathered(String callSid, String speechResult) {
         log.info("Symptoms for sid={}: {}", callSid, speechResult);
 
-        IVRSSession session = sessionRepository.findByCallSid(callSid)
-                .orElseThrow(() -> new RuntimeException("Session not found: " + callSid));
-        session.setUserSpeechText(speechResult);
-        session.setCallStatus(CallStatus.PROCESSING);
-        sessionRepository.save(session);
-
-        String lang = session.getLanguage();
-        String region = null;
-        if (session.getFarmer() != null && session.getFarmer().getState() != null) {
-            region = session.getFarmer().getState().getName();
+        CallState call = findCall(callSid);
+        // Twilio retries a webhook it considers failed — never start the pipeline twice
+        if (call.getCallStatus() != CallStatus.PROCESSING) {
+            call.setUserSpeechText(speechResult);
+
+            InstantAnswerIndex.Answer instant =
+                    instantAnswers.match(speechResult, call.getLanguage(), call.getRegion()).orElse(null);
+            if (instant != null) {
+                log.info("Instant answer for sid={} (similarity {})", callSid, String.format("%.2f", instant.similarity()));
+                call.setTranslatedQuery(instant.translatedQuery());
+                call.setResponseText(instant.responseText());
+                call.setTranslatedResponse(instant.translatedResponse());
+                complete(call);
+                return twimlAnswer(instant.translatedResponse(), call.getLanguage());
+            }
+
+            call.setCallStatus(CallStatus.PROCESSING);
+            update(call);
+
+            // Outbreak protection — only a bounded number of calls hit the Python service at once
+            switch (admission.admit(callSid)) {
+                case ADMITTED -> processSymptomsAsync(call);
+                case QUEUED -> {
+                    return twimlQueued(call.getLanguage(), callSid, admission.position(callSid));
+                }
+                case REJECTED -> {
+                    finish(call, CallStatus.FAILED);
+                    return twimlSay(msg(SERVICE_BUSY, call.getLanguage()), call.getLanguage());
+                }
+            }
         }
+        return twimlHold(call.getLanguage(), callSid, 1);
+    }
 
-        // ── call Python IVRS endpoint ───────────────────────────────────
-        Map<String, Object> result = callPythonIVRS(speechResult, lang, region);
+    /**
+     * 4. Hold loop – Twilio comes back here after each hold prompt. A queued caller hears their
+     *    place in line; once admitted, waits briefly for the answer, speaks it if ready, otherwise
+     *    holds again and gives up after {@code max-polls} rounds.
+     */
+    public Twiml handleSymptomResult(String callSid, int attempt) {
+        CallState call = findCall(callSid);
+        String lang = call.getLanguage();
+
+        int position = admission.position(callSid);
+        if (position > 0) {
+            return twimlQueued(lang, callSid, position);
+        }
+
+        if (call.getResponseText() == null) {
+            CompletableFuture<Void> pending = inFlight.get(callSid);
+            if (pending != null) {
+                try {
+                    pending.get(pollWaitMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (TimeoutException | ExecutionException ignored) {
+                    // still running (or failed — the task records its own fallback answer)
+                }
+            }
+            call = findCall(callSid);
+        }
 
-        String translatedResponse = (String) result.getOrDefault("translated_response", "");
-        String diagnosis = (String) result.getOrDefault("diagnosis", "");
-        String translatedQuery = (String) result.getOrDefault("translated_query", speechResult);
+        if (call.getResponseText() != null) {
+            complete(call);
+            String translated = call.getTranslatedResponse();
+            String spoken = translated != null && !translated.isBlank() ? translated : call.getResponseText();
+            return twimlAnswer(spoken, lang);
+        }
 
-        session.setTranslatedQuery(translatedQuery);
-        session.setResponseText(diagnosis);
-        session.setTranslatedResponse(translatedResponse);
-        session.setCallStatus(CallStatus.COMPLETED);
-        session.setCompletedAt(LocalDateTime.now());
-        sessionRepository.save(session);
+        if (attempt >= maxPolls) {
+            log.warn("IVRS answer for sid={} not ready after {} hold rounds", callSid, attempt);
+            finish(call, CallStatus.FAILED);
+            return twimlSay(msg(SERVICE_BUSY, lang), lang);
+        }
+        return twimlHold(lang, callSid, attempt + 1);
+    }
 
-        String spoken = !translatedResponse.isEmpty() ? translatedResponse : diagnosis;
-        return twimlSay(spoken + " " + msg(GOODBYE, lang), lang, true);
+    private void processSymptomsAsync(CallState call) {
+        String callSid = call.getCallSid();
+        String speech = call.getUserSpeechText();
+        CompletableFuture<Void> task = CompletableFuture.runAsync(() -> {
+            Map<String, Object> result = callPythonIVRS(speech, call.getLanguage(), call.getRegion());
+
+            // Applied to the live state (possibly on another node with the JDBC store), and only if
+            // the call is still going — a caller who hung up meanwhile must stay ABANDONED
+            callStateStore.updateIfActive(callSid, latest -> {
+                latest.setTranslatedQuery(text(result, "translated_query", speech));
+                latest.setTranslatedResponse(text(result, "translated_response", ""));
+                latest.setResponseText(text(result, "diagnosis", ""));
+            }).ifPresent(sessionWriter::enqueue);
+        }, executor);
+        inFlight.put(callSid, task);
+        task.whenComplete((v, e) -> {
+            inFlight.remove(callSid);
+            if (e != null) log.error("IVRS processing failed for sid={}", callSid, e);
+            startNext(admission.releaseAndPromote(callSid));
+        });
+    }
+
+    /** Hands a freed slot to the next caller in line; skips callers whose state has already expired. */
+    private void startNext(String callSid) {
+        while (callSid != null) {
+            Optional<CallState> next = callStateStore.get(callSid);
+            if (next.isPresent()) {
+                processSymptomsAsync(next.get());
+                return;
+            }
+            callSid = admission.releaseAndPromote(callSid);
+        }
+    }
+
+    /**
+     * 5. Twilio call-status callback – a caller who hangs up leaves the queue, and an unfinished
+     *    call is recorded as abandoned.
+     */
+    public void handleCallStatus(String callSid, String twilioStatus) {
+        if (!TERMINAL_CALL_STATUSES.contains(twilioStatus)) return;
+        if (admission.abandon(callSid)) {
+            log.info("Caller sid={} hung up while queued", callSid);
+        }
+        callStateStore.get(callSid).ifPresent(call -> finish(call, CallStatus.ABANDONED));
+    }
+
+    /** Precomputed by SchemeVoiceSummaryService — one row lookup, no eligibility evaluation mid-call. */
+    private String schemeSummary(CallState call) {
+        String lang = call.getLanguage();
+        if (call.getFarmerId() == null) return msg(SCHEMES_UNREGISTERED, lang);
+        return schemeSummaries.spokenSummary(call.getFarmerId()).orElseGet(() -> msg(SCHEMES_PREPARING, lang));
+    }
+
+    // ── call state ──────────────────────────────────────────────────────
+
+    private CallState findCall(String callSid) {
+        return callStateStore.get(callSid)
+                .orElseThrow(() -> new RuntimeException("Session not found: " + callSid));
+    }
+
+    private void update(CallState call) {
+        callStateStore.put(call);
+        sessionWriter.enqueue(call);
+    }
+
+    private void complete(CallState call) {
+        finish(call, CallStatus.COMPLETED);
+    }
+
+    /** Final state: flushed to ivrs_sessions right away and dropped from the live store. */
+    private void finish(CallState call, CallStatus status) {
+        call.setCallStatus(status);
+        call.setCompletedAt(LocalDateTime.now());
+        sessionWriter.enqueue(call);
+        callStateStore.remove(call.getCallSid());
     }
 
     // ====================================================================
     // TwiML GENERATORS
     // ====================================================================
 
-    private String twimlWelcome(String lang, String callSid) {
-        String v = voice(lang), lc = langCode(lang);
-        return """
-                <?xml version="1.0" encoding="UTF-8"?>
-                <Response>
-                    <Say voice="%s" language="%s">%s</Say>
-                    <Gather numDigits="1" action="/api/ivrs/menu?callSid=%s" method="POST" timeout="10">
-                        <Say voice="%s" language="%s">%s</Say>
-                    </Gather>
-                    <Say voice="%s" language="%s">%s</Say>
-                </Response>
-                """.formatted(
-                v, lc, msg(WELCOME, lang),
-                callSid,
-                v, lc, msg(MENU, lang),
-                v, lc, msg(GOODBYE, lang)
-        );
+    private Twiml twimlWelcome(String lang, String callSid) {
+        return prompts(lang).welcome().with(callSid);
     }
 
-    private String twimlMenu(String lang, String callSid) {
-        String v = voice(lang), lc = langCode(lang);
-        return """
-                <?xml version="1.0" encoding="UTF-8"?>
-                <Response>
-                    <Gather numDigits="1" action="/api/ivrs/menu?callSid=%s" method="POST" timeout="10">
-                        <Say voice="%s" language="%s">%s</Say>
-                    </Gather>
-                </Response>
-                """.formatted(callSid, v, lc, msg(MENU, lang));
+    private Twiml twimlMenu(String lang, String callSid) {
+        return prompts(lang).menu().with(callSid);
     }
 
-    private String twimlGatherSymptoms(String lang, String callSid) {
-        String v = voice(lang), lc = langCode(lang);
-        return """
-                <?xml version="1.0" encoding="UTF-8"?>
-                <Response>
-                    <Say voice="%s" language="%s">%s</Say>
-                    <Gather input="speech" action="/api/ivrs/process-symptoms?callSid=%s" method="POST"
-                            language="%s" speechTimeout="5" timeout="15">
-                    </Gather>
-                    <Say voice="%s" language="%s">%s</Say>
-                </Response>
-                """.formatted(
-                v, lc, msg(SYMPTOM_PROMPT, lang),
-                callSid,
-                lc,
-                v, lc, msg(GOODBYE, lang)
-        );
+    private Twiml twimlGatherSymptoms(String lang, String callSid) {
+        return prompts(lang).gatherSymptoms().with(callSid);
+    }
+
+    private Twiml twimlSay(String message, String lang) {
+        return prompts(lang).sayAndHangup().with(message);
+    }
+
+    private Twiml twimlHold(String lang, String callSid, int attempt) {
+        Prompts p = prompts(lang);
+        return (attempt == 1 ? p.hold() : p.stillWorking()).with(callSid, Integer.toString(attempt));
+    }
+
+    private Twiml twimlQueued(String lang, String callSid, int position) {
+        return prompts(lang).queued().with(callSid, Integer.toString(position));
+    }
+
+    private Twiml twimlAnswer(String answer, String lang) {
+        return prompts(lang).answerAndGoodbye().with(answer);
+    }
+
+    private static Prompts prompts(String lang) {
+        return PROMPTS.getOrDefault(lang, PROMPTS.get("en"));
     }
 
-    private String twimlSay(String message, String lang, boolean hangup) {
+    /**
+     * Compiles every TwiML response for one language. Voice, language code and the localised
+     * prompts are baked in; only the callSid or the spoken answer is filled in per request.
+     */
+    private static Prompts compilePrompts(String lang) {
         String v = voice(lang), lc = langCode(lang);
-        StringBuilder sb = new StringBuilder();
-        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<Response>\n");
-        sb.append("    <Say voice=\"").append(v)
-          .append("\" language=\"").append(lc).append("\">")
-          .append(escapeXml(message))
-          .append("</Say>\n");
-        if (hangup) sb.append("    <Hangup/>\n");
-        sb.append("</Response>");
-        return sb.toString();
+        String welcome = TwimlTemplate.escape(msg(WELCOME, lang));
+        String menu = TwimlTemplate.escape(msg(MENU, lang));
+        String symptomPrompt = TwimlTemplate.escape(msg(SYMPTOM_PROMPT, lang));
+        String goodbye = TwimlTemplate.escape(msg(GOODBYE, lang));
+        String hold = TwimlTemplate.escape(msg(HOLD, lang));
+        String stillWorking = TwimlTemplate.escape(msg(STILL_WORKING, lang));
+        String queuePosition = TwimlTemplate.escape(msg(QUEUE_POSITION, lang));
+        // %5$s: the next attempt number — a slot while holding, reset to 1 while still queued
+        String holdLoop = """
+                        <?xml version="1.0" encoding="UTF-8"?>
+                        <Response>
+                            <Say voice="%1$s" language="%2$s">%3$s</Say>
+                            <Pause length="%4$d"/>
+                            <Redirect method="POST">/api/ivrs/symptom-result?callSid={{0}}&amp;attempt=%5$s</Redirect>
+                        </Response>
+                        """;
+
+        return new Prompts(
+                TwimlTemplate.compile("""
+                        <?xml version="1.0" encoding="UTF-8"?>
+                        <Response>
+                            <Say voice="%1$s" language="%2$s">%3$s</Say>
+                            <Gather numDigits="1" action="/api/ivrs/menu?callSid={{0}}" method="POST" timeout="10">
+                                <Say voice="%1$s" language="%2$s">%4$s</Say>
+                            </Gather>
+                            <Say voice="%1$s" language="%2$s">%5$s</Say>
+                        </Response>
+                        """.formatted(v, lc, welcome, menu, goodbye)),
+                TwimlTemplate.compile("""
+                        <?xml version="1.0" encoding="UTF-8"?>
+                        <Response>
+                            <Gather numDigits="1" action="/api/ivrs/menu?callSid={{0}}" method="POST" timeout="10">
+                                <Say voice="%1$s" language="%2$s">%3$s</Say>
+                            </Gather>
+                        </Response>
+                        """.formatted(v, lc, menu)),
+                TwimlTemplate.compile("""
+                        <?xml version="1.0" encoding="UTF-8"?>
+                        <Response>
+                            <Say voice="%1$s" language="%2$s">%3$s</Say>
+                            <Gather input="speech" action="/api/ivrs/process-symptoms?callSid={{0}}" method="POST"
+                                    language="%2$s" speechTimeout="5" timeout="15">
+                            </Gather>
+                            <Say voice="%1$s" language="%2$s">%4$s</Say>
+                        </Response>
+                        """.formatted(v, lc, symptomPrompt, goodbye)),
+                TwimlTemplate.compile("""
+                        <?xml version="1.0" encoding="UTF-8"?>
+                        <Response>
+                            <Say voice="%1$s" language="%2$s">{{0}}</Say>
+                            <Hangup/>
+                        </Response>
+                        """.formatted(v, lc)),
+                TwimlTemplate.compile("""
+                        <?xml version="1.0" encoding="UTF-8"?>
+                        <Response>
+                            <Say voice="%1$s" language="%2$s">{{0}} %3$s</Say>
+                            <Hangup/>
+                        </Response>
+                        """.formatted(v, lc, goodbye)),
+                TwimlTemplate.compile(holdLoop.formatted(v, lc, hold, HOLD_PAUSE_SECONDS, "{{1}}")),
+                TwimlTemplate.compile(holdLoop.formatted(v, lc, stillWorking, HOLD_PAUSE_SECONDS, "{{1}}")),
+                TwimlTemplate.compile(holdLoop.formatted(v, lc, queuePosition, QUEUE_PAUSE_SECONDS, "1"))
+        );
     }
 
+    private record Prompts(TwimlTemplate welcome, TwimlTemplate menu, TwimlTemplate gatherSymptoms,
+                           TwimlTemplate sayAndHangup, TwimlTemplate answerAndGoodbye,
+                           TwimlTemplate hold, TwimlTemplate stillWorking, TwimlTemplate queued) {}
+
     // ====================================================================
     // PYTHON CLIENT
     // ====================================================================
 
-    @SuppressWarnings("unchecked")
     private Map<String, Object> callPythonIVRS(String speechText, String lang, String region) {
-        String url = pythonServiceUrl + "/api/v1/ivrs/process";
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("speech_text", speechText);
-        body.put("language", lang);
-        if (region != null) body.put("region", region);
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
         try {
-            ResponseEntity<Map> resp = restTemplate.exchange(url, HttpMethod.POST, entity, Map.class);
-            return resp.getBody() != null ? resp.getBody() : Map.of();
+            return pipelineClient.process(speechText, lang, region);
         } catch (Exception e) {
             log.error("Python IVRS service call failed: {}", e.getMessage());
             Map<String, Object> fb = new HashMap<>();
@@ -269,33 +491,26 @@ public class IVRSService {
     // UTILS
     // ====================================================================
 
-    private String voice(String lang) {
-        return LANG_VOICE.getOrDefault(lang, "Polly.Raveena");
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
     }
 
-    private String langCode(String lang) {
-        return LANG_CODE.getOrDefault(lang, "en-IN");
+    private static String voice(String lang) {
+        return LANG_VOICE.getOrDefault(lang, "Polly.Raveena");
     }
 
-    private String msg(Map<String, String> map, String lang) {
-        return map.getOrDefault(lang, map.get("en"));
+    private static String langCode(String lang) {
+        return LANG_CODE.getOrDefault(lang, "en-IN");
     }
 
-    private String normalisePhone(String phone) {
-        if (phone == null) return "";
-        phone = phone.replaceAll("[^0-9]", "");
-        if (phone.startsWith("91") && phone.length() > 10) {
-            phone = phone.substring(phone.length() - 10);
-        }
-        return phone;
+    /** A string field of the pipeline response; Python sends explicit nulls for missing values. */
+    private static String text(Map<String, Object> result, String key, String fallback) {
+        Object v = result.get(key);
+        return v != null ? v.toString() : fallback;
     }
 
-    private String escapeXml(String text) {
-        if (text == null) return "";
-        return text.replace("&", "&amp;")
-                   .replace("<", "&lt;")
-                   .replace(">", "&gt;")
-                   .replace("\"", "&quot;")
-                   .replace("'", "&apos;");
+    private static String msg(Map<String, String> map, String lang) {
+        return map.getOrDefault(lang, map.get("en"));
     }
 }
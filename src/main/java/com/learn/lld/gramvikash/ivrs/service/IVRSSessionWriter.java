@@ -0,0 +1,188 @@
+package com.learn.lld.gramvikash.ivrs.service;
+
+import com.learn.lld.gramvikash.ivrs.entity.IVRSSession;
+import com.learn.lld.gramvikash.ivrs.repository.IVRSSessionRepository;
+import com.learn.lld.gramvikash.ivrs.session.CallState;
+import com.learn.lld.gramvikash.user.repository.FarmerRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind persistence of IVRS call state into {@code ivrs_sessions}.
+ *
+ * Webhooks only enqueue a snapshot; pending writes are coalesced per call (latest state wins)
+ * and flushed in batches — one lookup query plus one transaction per batch. The final state
+ * of a call triggers an immediate flush.
+ *
+ * When a batch fails its calls are retried one per transaction, so a single bad row cannot hold
+ * back the rest. A call that keeps failing is re-queued (unless a newer state has arrived) up to
+ * {@code max-attempts} times and then dropped. While the database itself is unreachable nothing
+ * is counted against the calls — they simply wait for the next flush.
+ */
+@Component
+@Slf4j
+public class IVRSSessionWriter {
+
+    @Value("${ivrs.session.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${ivrs.session.write-behind.max-attempts:5}")
+    private int maxAttempts;
+
+    private final IVRSSessionRepository sessionRepository;
+    private final FarmerRepository farmerRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, CallState> pending = new ConcurrentHashMap<>();
+    private final Map<String, Integer> failures = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private final Object flushLock = new Object();
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "ivrs-session-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public IVRSSessionWriter(IVRSSessionRepository sessionRepository, FarmerRepository farmerRepository,
+                             TransactionTemplate transactionTemplate) {
+        this.sessionRepository = sessionRepository;
+        this.farmerRepository = farmerRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void enqueue(CallState state) {
+        // A late update from a slower thread or node never replaces a call's final state
+        pending.merge(state.getCallSid(), state.snapshot(),
+                (queued, next) -> queued.isFinished() && !next.isFinished() ? queued : next);
+        if (state.isFinished() || pending.size() >= batchSize) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ivrs.session.write-behind.flush-interval-ms:2000}")
+    public void flush() {
+        synchronized (flushLock) {
+            // Calls that failed in this flush wait for the next one instead of being retried in a tight loop
+            List<CallState> retry = new ArrayList<>();
+            try {
+                while (!pending.isEmpty()) {
+                    List<CallState> batch = drain();
+                    try {
+                        transactionTemplate.executeWithoutResult(tx -> write(batch));
+                        batch.forEach(s -> failures.remove(s.getCallSid()));
+                    } catch (Exception e) {
+                        if (isUnavailable(e)) {
+                            log.error("[IVRS] Write-behind of {} sessions failed, will retry: {}", batch.size(), e.getMessage());
+                            retry.addAll(batch);
+                            return;
+                        }
+                        log.warn("[IVRS] Write-behind of {} sessions failed, retrying one at a time: {}",
+                                batch.size(), e.getMessage());
+                        if (!writeEach(batch, retry)) return;
+                    }
+                }
+            } finally {
+                retry.forEach(s -> pending.putIfAbsent(s.getCallSid(), s));
+            }
+        }
+    }
+
+    /** Writes each state in its own transaction; false if the database became unreachable. */
+    private boolean writeEach(List<CallState> batch, List<CallState> retry) {
+        for (int i = 0; i < batch.size(); i++) {
+            CallState state = batch.get(i);
+            try {
+                transactionTemplate.executeWithoutResult(tx -> write(List.of(state)));
+                failures.remove(state.getCallSid());
+            } catch (Exception e) {
+                if (isUnavailable(e)) {
+                    retry.addAll(batch.subList(i, batch.size()));
+                    return false;
+                }
+                String callSid = state.getCallSid();
+                int attempts = failures.merge(callSid, 1, Integer::sum);
+                if (attempts < maxAttempts) {
+                    log.warn("[IVRS] Session {} failed to write (attempt {}/{}): {}",
+                            callSid, attempts, maxAttempts, e.getMessage());
+                    retry.add(state);
+                } else {
+                    failures.remove(callSid);
+                    dropped.increment();
+                    log.error("[IVRS] Dropping session {} ({}) after {} failed writes ({} dropped so far): {}",
+                            callSid, state.getCallStatus(), attempts, dropped.sum(), e.getMessage());
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Connection or transaction-start failures: nothing is wrong with the rows themselves. */
+    private static boolean isUnavailable(Exception e) {
+        return e instanceof CannotCreateTransactionException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransientDataAccessException;
+    }
+
+    /** Sessions given up on after {@code max-attempts} failed writes since startup. */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    private List<CallState> drain() {
+        List<CallState> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        for (String callSid : pending.keySet()) {
+            if (batch.size() == batchSize) break;
+            CallState state = pending.remove(callSid);
+            if (state != null) batch.add(state);
+        }
+        return batch;
+    }
+
+    private void write(List<CallState> batch) {
+        Map<String, IVRSSession> existing = sessionRepository
+                .findByCallSidIn(batch.stream().map(CallState::getCallSid).toList())
+                .stream()
+                .collect(Collectors.toMap(IVRSSession::getCallSid, Function.identity()));
+
+        List<IVRSSession> rows = new ArrayList<>(batch.size());
+        for (CallState state : batch) {
+            IVRSSession row = existing.getOrDefault(state.getCallSid(), new IVRSSession());
+            if (row.getCallStatus() != null && row.getCallStatus().isFinal() && !state.isFinished()) continue;
+            row.setCallSid(state.getCallSid());
+            row.setPhoneNumber(state.getPhoneNumber());
+            row.setLanguage(state.getLanguage());
+            row.setFarmer(state.getFarmerId() != null ? farmerRepository.getReferenceById(state.getFarmerId()) : null);
+            row.setCallStatus(state.getCallStatus());
+            row.setUserSpeechText(state.getUserSpeechText());
+            row.setTranslatedQuery(state.getTranslatedQuery());
+            row.setResponseText(state.getResponseText());
+            row.setTranslatedResponse(state.getTranslatedResponse());
+            row.setStartedAt(state.getStartedAt());
+            row.setCompletedAt(state.getCompletedAt());
+            rows.add(row);
+        }
+        sessionRepository.saveAll(rows);
+        log.debug("[IVRS] Wrote {} sessions ({} new)", rows.size(), rows.size() - existing.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        flush();
+    }
+}
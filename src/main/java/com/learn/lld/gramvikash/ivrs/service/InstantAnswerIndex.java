@@ -0,0 +1,127 @@
+package com.learn.lld.gramvikash.ivrs.service;
+
+import com.learn.lld.gramvikash.ivrs.answers.CropSeason;
+import com.learn.lld.gramvikash.ivrs.answers.QueryNormalizer;
+import com.learn.lld.gramvikash.ivrs.entity.FrequentQueryAnswer;
+import com.learn.lld.gramvikash.ivrs.repository.FrequentQueryAnswerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory lookup of precomputed answers for frequent symptom queries.
+ *
+ * Entries are bucketed by (language, region, season). A query is normalised to a token set and
+ * scored by Jaccard similarity against the entries of its bucket, found through a per-bucket
+ * inverted index, so only entries sharing at least one token are scored. The region bucket is
+ * tried first, then the language-wide one. Anything below {@code min-similarity} is a miss and
+ * goes to the Python pipeline as before.
+ */
+@Component
+@Slf4j
+public class InstantAnswerIndex {
+
+    public record Answer(String translatedQuery, String responseText, String translatedResponse, double similarity) {}
+
+    @Value("${ivrs.instant-answers.min-similarity:0.7}")
+    private double minSimilarity;
+
+    private final FrequentQueryAnswerRepository repository;
+
+    private volatile Map<String, Bucket> buckets = Map.of();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public InstantAnswerIndex(FrequentQueryAnswerRepository repository) {
+        this.repository = repository;
+    }
+
+    public Optional<Answer> match(String speech, String lang, String region) {
+        Map<String, Bucket> snapshot = buckets;
+        if (snapshot.isEmpty()) return Optional.empty();
+
+        String[] query = QueryNormalizer.tokens(speech, lang);
+        if (query.length == 0) return Optional.empty();
+
+        CropSeason season = CropSeason.of(LocalDateTime.now());
+        Answer best = region != null ? best(snapshot.get(key(lang, region, season)), query) : null;
+        if (best == null) best = best(snapshot.get(key(lang, null, season)), query);
+
+        (best != null ? hits : misses).increment();
+        return Optional.ofNullable(best);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        replace(repository.findAll());
+    }
+
+    /** Swaps in a freshly mined answer set. */
+    public void replace(List<FrequentQueryAnswer> answers) {
+        buckets = answers.stream()
+                .collect(Collectors.groupingBy(a -> key(a.getLanguage(), a.getRegion(), a.getSeason())))
+                .entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, e -> new Bucket(e.getValue())));
+        log.info("[InstantAnswers] {} precomputed answers in {} buckets (hits {}, misses {} so far)",
+                answers.size(), buckets.size(), hits.sum(), misses.sum());
+    }
+
+    private Answer best(Bucket bucket, String[] query) {
+        if (bucket == null) return null;
+        int[] overlap = new int[bucket.entries.length];
+        for (String token : query) {
+            int[] posting = bucket.postings.get(token);
+            if (posting == null) continue;
+            for (int i : posting) overlap[i]++;
+        }
+
+        int bestIdx = -1;
+        double bestScore = minSimilarity;
+        for (int i = 0; i < overlap.length; i++) {
+            if (overlap[i] == 0) continue;
+            double score = (double) overlap[i] / (query.length + bucket.entries[i].tokens.length - overlap[i]);
+            if (score >= bestScore) {
+                bestScore = score;
+                bestIdx = i;
+            }
+        }
+        if (bestIdx < 0) return null;
+        FrequentQueryAnswer a = bucket.entries[bestIdx].answer;
+        return new Answer(a.getTranslatedQuery(), a.getResponseText(), a.getTranslatedResponse(), bestScore);
+    }
+
+    static String key(String lang, String region, CropSeason season) {
+        return lang + '|' + (region != null ? region.toLowerCase(Locale.ROOT) : "*") + '|' + season;
+    }
+
+    // ────────────────── Per-bucket index ──────────────────
+
+    private record Entry(String[] tokens, FrequentQueryAnswer answer) {}
+
+    private static final class Bucket {
+        final Entry[] entries;
+        final Map<String, int[]> postings;
+
+        Bucket(List<FrequentQueryAnswer> answers) {
+            entries = answers.stream()
+                    .map(a -> new Entry(a.getQueryTokens().split(" "), a))
+                    .toArray(Entry[]::new);
+
+            Map<String, List<Integer>> lists = new HashMap<>();
+            for (int i = 0; i < entries.length; i++) {
+                for (String token : entries[i].tokens) {
+                    lists.computeIfAbsent(token, t -> new ArrayList<>()).add(i);
+                }
+            }
+            postings = new HashMap<>(lists.size() * 4 / 3 + 1);
+            lists.forEach((token, ids) -> postings.put(token, ids.stream().mapToInt(Integer::intValue).toArray()));
+        }
+    }
+}
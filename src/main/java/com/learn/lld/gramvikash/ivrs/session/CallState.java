@@ -0,0 +1,47 @@
+package com.learn.lld.gramvikash.ivrs.session;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.learn.lld.gramvikash.ivrs.entity.IVRSSession.CallStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Live state of one IVRS call, keyed by Twilio's CallSid.
+ *
+ * Deliberately detached from JPA: everything the webhooks need (language, region) is resolved
+ * once at call start, so later webhooks never touch the database. The matching
+ * {@code ivrs_sessions} row is written behind by IVRSSessionWriter.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class CallState {
+
+    private String callSid;
+    private Long farmerId;
+    private String phoneNumber;
+    private String language;
+    private String region;
+
+    private CallStatus callStatus;
+    private String userSpeechText;
+    private String translatedQuery;
+    private String responseText;
+    private String translatedResponse;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+
+    /** Copy handed to the write-behind queue so later webhooks cannot mutate a pending write. */
+    public CallState snapshot() {
+        return toBuilder().build();
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return callStatus != null && callStatus.isFinal();
+    }
+}
@@ -0,0 +1,26 @@
+package com.learn.lld.gramvikash.ivrs.session;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Where live IVRS call state is kept between Twilio webhooks.
+ *
+ * {@code ivrs.session.store=memory} (default) keeps it in this JVM — fine for a single node.
+ * {@code ivrs.session.store=jdbc} shares it through a small key/value table so any node
+ * behind the load balancer can serve the next webhook of a call.
+ */
+public interface CallStateStore {
+
+    Optional<CallState> get(String callSid);
+
+    void put(CallState state);
+
+    /**
+     * Applies {@code change} to the live state and stores it, atomically with respect to other
+     * writers — unless the call has finished or left the store. Returns the stored state if applied.
+     */
+    Optional<CallState> updateIfActive(String callSid, Consumer<CallState> change);
+
+    void remove(String callSid);
+}
@@ -0,0 +1,76 @@
+package com.learn.lld.gramvikash.ivrs.session;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Bounded LRU of active calls. Calls that never reach a final webhook (caller hung up
+ * mid-menu) are dropped after {@code ttl-minutes}.
+ */
+@Component
+@ConditionalOnProperty(name = "ivrs.session.store", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryCallStateStore implements CallStateStore {
+
+    @Value("${ivrs.session.max-active-calls:10000}")
+    private int maxActiveCalls;
+
+    @Value("${ivrs.session.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    private Map<String, CallState> calls;
+
+    @PostConstruct
+    void init() {
+        calls = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CallState> eldest) {
+                return size() > maxActiveCalls;
+            }
+        });
+    }
+
+    @Override
+    public Optional<CallState> get(String callSid) {
+        return Optional.ofNullable(calls.get(callSid));
+    }
+
+    @Override
+    public void put(CallState state) {
+        calls.put(state.getCallSid(), state);
+    }
+
+    @Override
+    public Optional<CallState> updateIfActive(String callSid, Consumer<CallState> change) {
+        synchronized (calls) {
+            CallState state = calls.get(callSid);
+            if (state == null || state.isFinished()) return Optional.empty();
+            change.accept(state);
+            return Optional.of(state);
+        }
+    }
+
+    @Override
+    public void remove(String callSid) {
+        calls.remove(callSid);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictStale() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(ttlMinutes);
+        synchronized (calls) {
+            calls.values().removeIf(s -> s.getStartedAt() != null && s.getStartedAt().isBefore(cutoff));
+        }
+    }
+}
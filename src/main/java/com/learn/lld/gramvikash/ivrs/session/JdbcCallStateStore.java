@@ -0,0 +1,107 @@
+package com.learn.lld.gramvikash.ivrs.session;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Shared call state for multi-node deployments: one primary-key row per active call,
+ * state serialised as JSON. A single PK lookup / upsert per webhook, no joins.
+ */
+@Component
+@ConditionalOnProperty(name = "ivrs.session.store", havingValue = "jdbc")
+@RequiredArgsConstructor
+@Slf4j
+public class JdbcCallStateStore implements CallStateStore {
+
+    private static final int MAX_CAS_ATTEMPTS = 5;
+
+    @Value("${ivrs.session.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @PostConstruct
+    void createTable() {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS ivrs_call_state (
+                    call_sid   VARCHAR(64) NOT NULL PRIMARY KEY,
+                    state      TEXT        NOT NULL,
+                    updated_at TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                    INDEX idx_call_state_updated (updated_at)
+                )
+                """);
+    }
+
+    @Override
+    public Optional<CallState> get(String callSid) {
+        List<String> rows = jdbcTemplate.queryForList(
+                "SELECT state FROM ivrs_call_state WHERE call_sid = ?", String.class, callSid);
+        if (rows.isEmpty()) return Optional.empty();
+        try {
+            return Optional.of(objectMapper.readValue(rows.get(0), CallState.class));
+        } catch (JsonProcessingException e) {
+            log.error("[IVRS] Corrupt call state for {}: {}", callSid, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(CallState state) {
+        try {
+            jdbcTemplate.update("""
+                    INSERT INTO ivrs_call_state (call_sid, state) VALUES (?, ?)
+                    ON DUPLICATE KEY UPDATE state = VALUES(state)
+                    """, state.getCallSid(), objectMapper.writeValueAsString(state));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialise call state " + state.getCallSid(), e);
+        }
+    }
+
+    /** Compare-and-set on the serialised state; re-reads and retries if another node got there first. */
+    @Override
+    public Optional<CallState> updateIfActive(String callSid, Consumer<CallState> change) {
+        for (int attempt = 1; attempt <= MAX_CAS_ATTEMPTS; attempt++) {
+            List<String> rows = jdbcTemplate.queryForList(
+                    "SELECT state FROM ivrs_call_state WHERE call_sid = ?", String.class, callSid);
+            if (rows.isEmpty()) return Optional.empty();
+            try {
+                CallState state = objectMapper.readValue(rows.get(0), CallState.class);
+                if (state.isFinished()) return Optional.empty();
+                change.accept(state);
+                int updated = jdbcTemplate.update("UPDATE ivrs_call_state SET state = ? WHERE call_sid = ? AND state = ?",
+                        objectMapper.writeValueAsString(state), callSid, rows.get(0));
+                if (updated == 1) return Optional.of(state);
+            } catch (JsonProcessingException e) {
+                log.error("[IVRS] Corrupt call state for {}: {}", callSid, e.getMessage());
+                return Optional.empty();
+            }
+        }
+        log.warn("[IVRS] Call state for {} kept changing, update skipped", callSid);
+        return Optional.empty();
+    }
+
+    @Override
+    public void remove(String callSid) {
+        jdbcTemplate.update("DELETE FROM ivrs_call_state WHERE call_sid = ?", callSid);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictStale() {
+        int removed = jdbcTemplate.update(
+                "DELETE FROM ivrs_call_state WHERE updated_at < NOW() - INTERVAL ? MINUTE", ttlMinutes);
+        if (removed > 0) log.info("[IVRS] Evicted {} abandoned call states", removed);
+    }
+}
@@ -0,0 +1,6 @@
+package com.learn.lld.gramvikash.ivrs.twiml;
+
+/**
+ * A TwiML response waiting to be rendered: a compiled template plus its slot values.
+ */
+public record Twiml(TwimlTemplate template, String[] args) {}
@@ -0,0 +1,101 @@
+package com.learn.lld.gramvikash.ivrs.twiml;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer that TwiML is rendered into. Instances are pooled by {@link TwimlRenderer},
+ * so steady-state rendering allocates nothing but the argument strings themselves.
+ */
+final class TwimlBuffer {
+
+    private byte[] bytes;
+    private int size;
+
+    TwimlBuffer(int initialCapacity) {
+        this.bytes = new byte[initialCapacity];
+    }
+
+    void write(byte[] segment) {
+        ensure(segment.length);
+        System.arraycopy(segment, 0, bytes, size, segment.length);
+        size += segment.length;
+    }
+
+    /**
+     * XML-escapes and UTF-8-encodes {@code text} in a single pass, straight into the buffer.
+     */
+    void writeEscaped(CharSequence text) {
+        if (text == null) return;
+        int len = text.length();
+        ensure(len + 16);                     // pre-size for the common case; each char re-checks below
+        for (int i = 0; i < len; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> ascii("&amp;");
+                case '<' -> ascii("&lt;");
+                case '>' -> ascii("&gt;");
+                case '"' -> ascii("&quot;");
+                case '\'' -> ascii("&apos;");
+                default -> {
+                    ensure(4);
+                    if (c < 0x80) {
+                        if (c < 0x20 && c != '\n' && c != '\r' && c != '\t') continue;   // not legal in XML 1.0
+                        bytes[size++] = (byte) c;
+                    } else if (c < 0x800) {
+                        bytes[size++] = (byte) (0xC0 | (c >> 6));
+                        bytes[size++] = (byte) (0x80 | (c & 0x3F));
+                    } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(text.charAt(i + 1))) {
+                        int cp = Character.toCodePoint(c, text.charAt(++i));
+                        bytes[size++] = (byte) (0xF0 | (cp >> 18));
+                        bytes[size++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                        bytes[size++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                        bytes[size++] = (byte) (0x80 | (cp & 0x3F));
+                    } else if (Character.isSurrogate(c)) {
+                        continue;                     // lone surrogate — drop rather than emit invalid UTF-8
+                    } else {
+                        bytes[size++] = (byte) (0xE0 | (c >> 12));
+                        bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                        bytes[size++] = (byte) (0x80 | (c & 0x3F));
+                    }
+                }
+            }
+        }
+    }
+
+    private void ascii(String entity) {
+        ensure(entity.length());
+        for (int i = 0; i < entity.length(); i++) {
+            bytes[size++] = (byte) entity.charAt(i);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return bytes.length;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, 0, size, StandardCharsets.UTF_8);
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+}
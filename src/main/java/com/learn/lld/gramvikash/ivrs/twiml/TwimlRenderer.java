@@ -0,0 +1,64 @@
+package com.learn.lld.gramvikash.ivrs.twiml;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Renders {@link Twiml} into pooled buffers and writes it straight to the servlet response
+ * with an exact Content-Length — no intermediate String, no per-request char/byte conversion.
+ *
+ * The pool is a bounded queue rather than a ThreadLocal so it also works on virtual threads;
+ * when it is empty (burst) a fresh buffer is used and, if there is room, kept afterwards.
+ */
+@Component
+public class TwimlRenderer {
+
+    private static final String CONTENT_TYPE = "application/xml;charset=UTF-8";
+    private static final int INITIAL_CAPACITY = 4 * 1024;
+    private static final int MAX_POOLED_CAPACITY = 64 * 1024;   // don't keep buffers grown by a huge answer
+
+    private final BlockingQueue<TwimlBuffer> pool;
+
+    public TwimlRenderer(@Value("${ivrs.twiml.buffer-pool-size:64}") int poolSize) {
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    public void write(Twiml twiml, HttpServletResponse response) throws IOException {
+        TwimlBuffer buf = acquire();
+        try {
+            twiml.template().writeTo(buf, twiml.args());
+            response.setContentType(CONTENT_TYPE);
+            response.setContentLength(buf.size());
+            buf.writeTo(response.getOutputStream());
+        } finally {
+            release(buf);
+        }
+    }
+
+    /** String form — for logging and tests, not the webhook path. */
+    public String render(Twiml twiml) {
+        TwimlBuffer buf = acquire();
+        try {
+            twiml.template().writeTo(buf, twiml.args());
+            return buf.toString();
+        } finally {
+            release(buf);
+        }
+    }
+
+    private TwimlBuffer acquire() {
+        TwimlBuffer buf = pool.poll();
+        return buf != null ? buf : new TwimlBuffer(INITIAL_CAPACITY);
+    }
+
+    private void release(TwimlBuffer buf) {
+        if (buf.capacity() > MAX_POOLED_CAPACITY) return;
+        buf.reset();
+        pool.offer(buf);
+    }
+}
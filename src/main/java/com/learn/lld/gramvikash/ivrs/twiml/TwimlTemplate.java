@@ -0,0 +1,68 @@
+package com.learn.lld.gramvikash.ivrs.twiml;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A TwiML document compiled once into UTF-8 byte segments with numbered slots between them.
+ *
+ * Slots are written as {@code {{0}}}, {{1}}, … in the source and may repeat. Everything that is
+ * fixed per language (voice, language code, prompt text) is baked into the segments at
+ * compile time — use {@link #escape} for literal text — so rendering is a sequence of array
+ * copies plus one escaping pass per slot value.
+ */
+public final class TwimlTemplate {
+
+    private static final Pattern SLOT = Pattern.compile("\\{\\{(\\d+)}}");
+
+    private final byte[][] segments;     // segments.length == slots.length + 1
+    private final int[] slots;
+    private final int arity;
+
+    private TwimlTemplate(byte[][] segments, int[] slots) {
+        this.segments = segments;
+        this.slots = slots;
+        int max = -1;
+        for (int s : slots) max = Math.max(max, s);
+        this.arity = max + 1;
+    }
+
+    public static TwimlTemplate compile(String source) {
+        List<byte[]> segments = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        Matcher m = SLOT.matcher(source);
+        int last = 0;
+        while (m.find()) {
+            segments.add(source.substring(last, m.start()).getBytes(StandardCharsets.UTF_8));
+            slots.add(Integer.parseInt(m.group(1)));
+            last = m.end();
+        }
+        segments.add(source.substring(last).getBytes(StandardCharsets.UTF_8));
+        return new TwimlTemplate(segments.toArray(byte[][]::new), slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /** XML-escapes literal text for use in a template source. */
+    public static String escape(String text) {
+        TwimlBuffer buf = new TwimlBuffer(text.length() * 3 + 16);
+        buf.writeEscaped(text);
+        return buf.toString();
+    }
+
+    public Twiml with(String... args) {
+        if (args.length < arity) {
+            throw new IllegalArgumentException("TwiML template needs " + arity + " arguments, got " + args.length);
+        }
+        return new Twiml(this, args);
+    }
+
+    void writeTo(TwimlBuffer buf, String[] args) {
+        for (int i = 0; i < slots.length; i++) {
+            buf.write(segments[i]);
+            buf.writeEscaped(args[slots[i]]);
+        }
+        buf.write(segments[slots.length]);
+    }
+}
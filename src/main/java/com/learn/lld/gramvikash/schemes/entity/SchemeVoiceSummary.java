@@ -0,0 +1,41 @@
+package com.learn.lld.gramvikash.schemes.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Spoken scheme summary for one farmer, precomputed from the eligibility engine so the IVRS
+ * menu can read it out with a single lookup.
+ */
+@Entity
+@Table(name = "scheme_voice_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchemeVoiceSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private Long farmerId;
+
+    @Column(nullable = false)
+    private String language;        // en, hi, te
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String spokenText;      // plain text, escaped when rendered into TwiML
+
+    private int eligibleCount;
+    private int almostEligibleCount;
+
+    @Column(nullable = false)
+    private String catalogVersion;  // catalog the summary was computed against
+
+    private LocalDateTime updatedAt;
+}
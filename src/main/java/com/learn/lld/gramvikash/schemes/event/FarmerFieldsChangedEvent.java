@@ -0,0 +1,6 @@
+package com.learn.lld.gramvikash.schemes.event;
+
+/**
+ * A farmer's known fields (land size, income, …) were saved; only their eligibility may have moved.
+ */
+public record FarmerFieldsChangedEvent(Long farmerId) {}
@@ -0,0 +1,6 @@
+package com.learn.lld.gramvikash.schemes.event;
+
+/**
+ * A scheme was added or changed; every farmer's eligibility may have moved.
+ */
+public record SchemeCatalogChangedEvent(Long schemeId) {}
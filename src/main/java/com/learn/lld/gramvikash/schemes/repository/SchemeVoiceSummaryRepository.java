@@ -0,0 +1,21 @@
+package com.learn.lld.gramvikash.schemes.repository;
+
+import com.learn.lld.gramvikash.schemes.entity.SchemeVoiceSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SchemeVoiceSummaryRepository extends JpaRepository<SchemeVoiceSummary, Long> {
+
+    Optional<SchemeVoiceSummary> findByFarmerId(Long farmerId);
+
+    List<SchemeVoiceSummary> findByFarmerIdIn(List<Long> farmerIds);
+
+    @Query("SELECT s.farmerId FROM SchemeVoiceSummary s WHERE s.catalogVersion = :version")
+    List<Long> findFarmerIdsByCatalogVersion(@Param("version") String version);
+}
@@ -2,6 +2,8 @@ package com.learn.lld.gramvikash.schemes.service;
 
 import com.learn.lld.gramvikash.schemes.dto.*;
 import com.learn.lld.gramvikash.schemes.entity.*;
+import com.learn.lld.gramvikash.schemes.event.FarmerFieldsChangedEvent;
+import com.learn.lld.gramvikash.schemes.event.SchemeCatalogChangedEvent;
 import com.learn.lld.gramvikash.schemes.repository.SchemeFaqRepository;
 import com.learn.lld.gramvikash.schemes.repository.SchemeRepository;
 import com.learn.lld.gramvikash.user.entity.Farmer;
@@ -9,6 +11,7 @@ import com.learn.lld.gramvikash.user.entity.UserKnownField;
 import com.learn.lld.gramvikash.user.repository.FarmerRepository;
 import com.learn.lld.gramvikash.user.repository.UserKnownFieldRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,6 +34,9 @@ public class SchemeService {
     @Autowired
     private UserKnownFieldRepository userKnownFieldRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // ======================== 1. SCHEME CRUD ========================
 
     @Transactional
@@ -86,6 +92,7 @@ public class SchemeService {
         }
 
         Scheme saved = schemeRepository.save(scheme);
+        eventPublisher.publishEvent(new SchemeCatalogChangedEvent(saved.getId()));
         return mapToDetailResponse(saved, null);
     }
 
@@ -149,6 +156,7 @@ public class SchemeService {
             }
         }
 
+        eventPublisher.publishEvent(new FarmerFieldsChangedEvent(farmer.getId()));
         return "Saved " + request.getFields().size() + " known fields for farmer " + farmer.getUserName();
     }
 
@@ -159,11 +167,17 @@ public class SchemeService {
                 .orElseThrow(() -> new RuntimeException("Farmer not found with id: " + request.getFarmerId()));
 
         String mode = request.getMode() != null ? request.getMode().toUpperCase() : "DISCOVER";
+        return checkEligibility(farmer, mode, request.getAdditionalFields(), schemeRepository.findByIsActiveTrue());
+    }
 
+    /**
+     * Evaluates an already-loaded catalog for one farmer. Batch callers (IVRS scheme summaries)
+     * load the active schemes once and reuse them across farmers.
+     */
+    public EligibilityResultResponse checkEligibility(Farmer farmer, String mode, Map<String, String> additionalFields,
+                                                      List<Scheme> activeSchemes) {
         // Build complete field map from: farmer profile + stored known fields + request additional fields
-        Map<String, String> farmerFields = buildFarmerFieldMap(farmer, request.getAdditionalFields());
-
-        List<Scheme> activeSchemes = schemeRepository.findByIsActiveTrue();
+        Map<String, String> farmerFields = buildFarmerFieldMap(farmer, additionalFields);
 
         List<EligibilityResultResponse.MatchedScheme> eligible = new ArrayList<>();
         List<EligibilityResultResponse.MatchedScheme> almostEligible = new ArrayList<>();
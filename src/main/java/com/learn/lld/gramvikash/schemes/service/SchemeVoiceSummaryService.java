@@ -0,0 +1,249 @@
+package com.learn.lld.gramvikash.schemes.service;
+
+import com.learn.lld.gramvikash.schemes.dto.EligibilityResultResponse;
+import com.learn.lld.gramvikash.schemes.dto.EligibilityResultResponse.MatchedScheme;
+import com.learn.lld.gramvikash.schemes.entity.Scheme;
+import com.learn.lld.gramvikash.schemes.entity.SchemeVoiceSummary;
+import com.learn.lld.gramvikash.schemes.event.FarmerFieldsChangedEvent;
+import com.learn.lld.gramvikash.schemes.event.SchemeCatalogChangedEvent;
+import com.learn.lld.gramvikash.schemes.repository.SchemeRepository;
+import com.learn.lld.gramvikash.schemes.repository.SchemeVoiceSummaryRepository;
+import com.learn.lld.gramvikash.user.entity.Farmer;
+import com.learn.lld.gramvikash.user.repository.FarmerRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Precomputed, ready-to-speak scheme summaries for the IVRS "government schemes" menu.
+ *
+ * The eligibility engine evaluates the whole catalog per farmer — far too slow for a Twilio
+ * webhook — so it runs here in the background and the result is stored as plain text:
+ * <ul>
+ *   <li>a farmer's summary is recomputed after their known fields are saved;</li>
+ *   <li>a catalog change recomputes every summary computed against an older catalog;</li>
+ *   <li>at startup, summaries that are missing or stale are filled in.</li>
+ * </ul>
+ * Refreshes run one at a time on a single background thread; repeated catalog changes
+ * while a full refresh is queued collapse into one.
+ */
+@Service
+@Slf4j
+public class SchemeVoiceSummaryService {
+
+    private static final Map<String, String> ELIGIBLE = Map.of(
+            "en", "You are eligible for %d schemes: %s.",
+            "hi", "आप %d योजनाओं के लिए पात्र हैं: %s।",
+            "te", "మీరు %d పథకాలకు అర్హులు: %s."
+    );
+
+    private static final Map<String, String> ALMOST = Map.of(
+            "en", "You may also qualify for: %s.",
+            "hi", "आप इन योजनाओं के लिए भी पात्र हो सकते हैं: %s।",
+            "te", "మీరు ఈ పథకాలకు కూడా అర్హులు కావచ్చు: %s."
+    );
+
+    private static final Map<String, String> NONE_FOUND = Map.of(
+            "en", "We did not find a scheme you are eligible for yet.",
+            "hi", "अभी तक आपके लिए कोई पात्र योजना नहीं मिली।",
+            "te", "ప్రస్తుతం మీకు అర్హత ఉన్న పథకం కనుగొనబడలేదు."
+    );
+
+    private static final Map<String, String> CLOSING = Map.of(
+            "en", "Add your land and income details in the Gram Vikash app to see more. Thank you.",
+            "hi", "अधिक जानकारी के लिए ग्राम विकास ऐप में अपनी ज़मीन और आय का विवरण जोड़ें। धन्यवाद।",
+            "te", "మరిన్ని వివరాల కోసం గ్రామ వికాస్ యాప్‌లో మీ భూమి మరియు ఆదాయ వివరాలు నమోదు చేయండి. ధన్యవాదాలు."
+    );
+
+    @Value("${schemes.voice-summary.max-spoken:3}")
+    private int maxSpoken;
+
+    @Value("${schemes.voice-summary.batch-size:200}")
+    private int batchSize;
+
+    private final SchemeService schemeService;
+    private final SchemeRepository schemeRepository;
+    private final SchemeVoiceSummaryRepository summaryRepository;
+    private final FarmerRepository farmerRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean fullRefreshQueued = new AtomicBoolean();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "scheme-voice-summary");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public SchemeVoiceSummaryService(SchemeService schemeService, SchemeRepository schemeRepository,
+                                     SchemeVoiceSummaryRepository summaryRepository,
+                                     FarmerRepository farmerRepository, TransactionTemplate transactionTemplate) {
+        this.schemeService = schemeService;
+        this.schemeRepository = schemeRepository;
+        this.summaryRepository = summaryRepository;
+        this.farmerRepository = farmerRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * The stored summary text, or empty if none has been computed yet — in which case one is
+     * scheduled so the farmer's next call has it.
+     */
+    public Optional<String> spokenSummary(Long farmerId) {
+        Optional<String> text = summaryRepository.findByFarmerId(farmerId).map(SchemeVoiceSummary::getSpokenText);
+        if (text.isEmpty()) refreshFarmerAsync(farmerId);
+        return text;
+    }
+
+    public void refreshFarmerAsync(Long farmerId) {
+        refresher.execute(() -> {
+            try {
+                refreshBatch(List.of(farmerId), null);
+            } catch (Exception e) {
+                log.error("[SchemeSummary] Refresh failed for farmer {}", farmerId, e);
+            }
+        });
+    }
+
+    public void refreshStaleAsync() {
+        if (!fullRefreshQueued.compareAndSet(false, true)) return;
+        refresher.execute(() -> {
+            fullRefreshQueued.set(false);
+            try {
+                refreshStale();
+            } catch (Exception e) {
+                log.error("[SchemeSummary] Full refresh failed", e);
+            }
+        });
+    }
+
+    // ────────────────── Triggers ──────────────────
+
+    @TransactionalEventListener
+    public void onFarmerFieldsChanged(FarmerFieldsChangedEvent event) {
+        refreshFarmerAsync(event.farmerId());
+    }
+
+    @TransactionalEventListener
+    public void onCatalogChanged(SchemeCatalogChangedEvent event) {
+        refreshStaleAsync();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        refreshStaleAsync();
+    }
+
+    // ────────────────── Refresh ──────────────────
+
+    private void refreshStale() {
+        String version = catalogVersion(schemeRepository.findByIsActiveTrue());
+        Set<Long> current = new HashSet<>(summaryRepository.findFarmerIdsByCatalogVersion(version));
+        List<Long> stale = farmerRepository.findAllContacts().stream()
+                .map(FarmerRepository.FarmerContact::getId)
+                .filter(id -> !current.contains(id))
+                .toList();
+        if (stale.isEmpty()) return;
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < stale.size(); i += batchSize) {
+            refreshBatch(stale.subList(i, Math.min(stale.size(), i + batchSize)), version);
+        }
+        log.info("[SchemeSummary] Recomputed {} summaries against catalog {} in {} ms",
+                stale.size(), version, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * One transaction per batch: load farmers and their existing rows, evaluate the catalog
+     * (loaded once per batch), upsert. A null version means "whatever the catalog is now".
+     */
+    private void refreshBatch(List<Long> farmerIds, String expectedVersion) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Scheme> catalog = schemeRepository.findByIsActiveTrue();
+            String version = catalogVersion(catalog);
+            if (expectedVersion != null && !expectedVersion.equals(version)) {
+                // Catalog moved mid-refresh — the queued full refresh will redo everything
+                refreshStaleAsync();
+            }
+
+            Map<Long, SchemeVoiceSummary> existing = summaryRepository.findByFarmerIdIn(farmerIds).stream()
+                    .collect(Collectors.toMap(SchemeVoiceSummary::getFarmerId, Function.identity()));
+            List<SchemeVoiceSummary> toSave = new ArrayList<>(farmerIds.size());
+            for (Farmer farmer : farmerRepository.findAllById(farmerIds)) {
+                EligibilityResultResponse result = schemeService.checkEligibility(farmer, "DISCOVER", null, catalog);
+                String lang = languageCode(farmer);
+
+                SchemeVoiceSummary summary = existing.getOrDefault(farmer.getId(), new SchemeVoiceSummary());
+                summary.setFarmerId(farmer.getId());
+                summary.setLanguage(lang);
+                summary.setSpokenText(compose(result, lang));
+                summary.setEligibleCount(result.getEligibleSchemes().size());
+                summary.setAlmostEligibleCount(result.getAlmostEligibleSchemes().size());
+                summary.setCatalogVersion(version);
+                summary.setUpdatedAt(LocalDateTime.now());
+                toSave.add(summary);
+            }
+            summaryRepository.saveAll(toSave);
+        });
+    }
+
+    private String compose(EligibilityResultResponse result, String lang) {
+        List<MatchedScheme> eligible = result.getEligibleSchemes();
+        List<MatchedScheme> almost = result.getAlmostEligibleSchemes();
+
+        StringBuilder text = new StringBuilder(256);
+        if (eligible.isEmpty()) {
+            text.append(msg(NONE_FOUND, lang));
+        } else {
+            text.append(String.format(msg(ELIGIBLE, lang), eligible.size(), names(eligible)));
+        }
+        if (!almost.isEmpty()) {
+            text.append(' ').append(String.format(msg(ALMOST, lang), names(almost)));
+        }
+        return text.append(' ').append(msg(CLOSING, lang)).toString();
+    }
+
+    private String names(List<MatchedScheme> schemes) {
+        return schemes.stream().limit(maxSpoken).map(MatchedScheme::getSchemeName).collect(Collectors.joining(", "));
+    }
+
+    /** Changes whenever an active scheme is added, removed, deactivated or edited. */
+    private String catalogVersion(List<Scheme> catalog) {
+        long hash = 17;
+        for (Scheme s : catalog.stream().sorted(Comparator.comparing(Scheme::getId)).toList()) {
+            hash = hash * 31 + s.getId();
+            hash = hash * 31 + Objects.hashCode(s.getUpdatedAt());
+        }
+        return catalog.size() + "-" + Long.toHexString(hash);
+    }
+
+    private String languageCode(Farmer farmer) {
+        if (farmer.getLanguage() == null) return "en";
+        return switch (farmer.getLanguage()) {
+            case HINDI -> "hi";
+            case TELUGU -> "te";
+            default -> "en";
+        };
+    }
+
+    private static String msg(Map<String, String> map, String lang) {
+        return map.getOrDefault(lang, map.get("en"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+}
@@ -1,6 +1,7 @@
 package com.learn.lld.gramvikash.user.repository;
 
 import com.learn.lld.gramvikash.user.entity.Farmer;
+import com.learn.lld.gramvikash.user.enums.Language;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,6 +17,20 @@ public interface FarmerRepository extends JpaRepository<Farmer, Long> {
     boolean existsByUserName(String userName);
     boolean existsByPhoneNumber(String phoneNumber);
 
+    /**
+     * Just the columns IVRS needs to greet a caller — no entity, no eager district/mandal joins.
+     */
+    @Query("SELECT f.id AS id, f.phoneNumber AS phoneNumber, f.language AS language, s.name AS stateName "
+            + "FROM Farmer f JOIN f.state s")
+    List<FarmerContact> findAllContacts();
+
+    interface FarmerContact {
+        Long getId();
+        String getPhoneNumber();
+        Language getLanguage();
+        String getStateName();
+    }
+
     /**
      * Find all active farmers within a given radius using the Haversine formula.
      * Formula is applied directly in the WHERE clause to avoid extra computed
@@ -0,0 +1,80 @@
+package com.learn.lld.gramvikash.user.service;
+
+import com.learn.lld.gramvikash.common.util.PhoneNumbers;
+import com.learn.lld.gramvikash.user.entity.Farmer;
+import com.learn.lld.gramvikash.user.enums.Language;
+import com.learn.lld.gramvikash.user.repository.FarmerRepository;
+import com.learn.lld.gramvikash.user.repository.FarmerRepository.FarmerContact;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory phone → caller lookup for inbound IVRS calls.
+ *
+ * Loaded once at startup from a three-column projection and kept current by {@link FarmerService}
+ * on register. The periodic reload picks up farmers registered through another node.
+ * Until the first load completes, lookups fall through to the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FarmerPhoneDirectory {
+
+    public record Caller(long farmerId, Language language, String stateName) {}
+
+    private final FarmerRepository farmerRepository;
+
+    private volatile Map<Long, Caller> callers = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    /**
+     * @param phoneKey a key from {@link PhoneNumbers#normalise}
+     */
+    public Optional<Caller> lookup(long phoneKey) {
+        if (phoneKey == PhoneNumbers.NONE) return Optional.empty();
+        if (loaded) return Optional.ofNullable(callers.get(phoneKey));
+
+        // Still warming up — answer from the database rather than treat everyone as unknown
+        return farmerRepository.findByPhoneNumber(PhoneNumbers.format(phoneKey)).map(this::toCaller);
+    }
+
+    public void put(Farmer farmer) {
+        long key = PhoneNumbers.normalise(farmer.getPhoneNumber());
+        if (key != PhoneNumbers.NONE) callers.put(key, toCaller(farmer));
+    }
+
+    public int size() {
+        return callers.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${farmer.phone-directory.refresh-ms:600000}",
+               fixedDelayString = "${farmer.phone-directory.refresh-ms:600000}")
+    public void reload() {
+        List<FarmerContact> contacts = farmerRepository.findAllContacts();
+        Map<Long, Caller> fresh = new ConcurrentHashMap<>(contacts.size() * 4 / 3 + 1);
+        for (FarmerContact c : contacts) {
+            long key = PhoneNumbers.normalise(c.getPhoneNumber());
+            if (key != PhoneNumbers.NONE) {
+                fresh.put(key, new Caller(c.getId(), c.getLanguage(), c.getStateName()));
+            }
+        }
+        callers = fresh;
+        loaded = true;
+        log.info("[PhoneDirectory] Loaded {} farmer phone numbers", fresh.size());
+    }
+
+    private Caller toCaller(Farmer farmer) {
+        return new Caller(farmer.getId(), farmer.getLanguage(),
+                farmer.getState() != null ? farmer.getState().getName() : null);
+    }
+}
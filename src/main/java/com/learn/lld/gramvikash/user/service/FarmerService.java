@@ -32,6 +32,9 @@ public class FarmerService {
     @Autowired
     private EntityManager entityManager;
 
+    @Autowired
+    private FarmerPhoneDirectory farmerPhoneDirectory;
+
     public RegisterResponse register(RegisterRequest request) {
         // Check if username already exists
         if (farmerRepository.existsByUserName(request.getUserName())) {
@@ -76,6 +79,7 @@ public class FarmerService {
 
         // Save farmer
         Farmer savedFarmer = farmerRepository.save(farmer);
+        farmerPhoneDirectory.put(savedFarmer);
 
         // Log stored coordinates for debugging
         org.slf4j.LoggerFactory.getLogger(FarmerService.class)
@@ -0,0 +1,83 @@
+package com.learn.lld.gramvikash.emergency.service;
+
+import org.junit.jupiter.api.Test;
+
+import static com.learn.lld.gramvikash.emergency.service.AssignmentSolver.FORBIDDEN;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AssignmentSolverTest {
+
+    @Test
+    void squareMatrixFindsMinimumTotalCost() {
+        // Greedy row-by-row would take 1 then 4 (total 5); the optimum is 2 + 2 = 4
+        double[][] cost = {
+                { 1, 2 },
+                { 2, 4 }
+        };
+
+        assertThat(AssignmentSolver.solve(cost)).containsExactly(1, 0);
+    }
+
+    @Test
+    void classicThreeByThree() {
+        double[][] cost = {
+                { 4, 1, 3 },
+                { 2, 0, 5 },
+                { 3, 2, 2 }
+        };
+
+        int[] result = AssignmentSolver.solve(cost);
+
+        assertThat(result).containsExactly(1, 0, 2);
+        assertThat(total(cost, result)).isEqualTo(5);
+    }
+
+    @Test
+    void moreDriversThanEmergenciesAssignsEveryEmergency() {
+        double[][] cost = {
+                { 9, 3, 7, 1 },
+                { 8, 2, 6, 1 }
+        };
+
+        int[] result = AssignmentSolver.solve(cost);
+
+        assertThat(result).containsExactly(3, 1);
+    }
+
+    @Test
+    void moreEmergenciesThanDriversLeavesTheCostliestUnassigned() {
+        double[][] cost = {
+                { 5 },
+                { 1 },
+                { 3 }
+        };
+
+        assertThat(AssignmentSolver.solve(cost)).containsExactly(-1, 0, -1);
+    }
+
+    @Test
+    void forbiddenPairsAreNeverReturned() {
+        double[][] cost = {
+                { 1, FORBIDDEN },
+                { 2, FORBIDDEN }
+        };
+
+        int[] result = AssignmentSolver.solve(cost);
+
+        assertThat(result).containsExactly(0, -1);
+    }
+
+    @Test
+    void emptyInputs() {
+        assertThat(AssignmentSolver.solve(new double[0][0])).isEmpty();
+        assertThat(AssignmentSolver.solve(new double[2][0])).containsExactly(-1, -1);
+    }
+
+    private static double total(double[][] cost, int[] assignment) {
+        double sum = 0;
+        for (int i = 0; i < assignment.length; i++) {
+            if (assignment[i] >= 0) sum += cost[i][assignment[i]];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,73 @@
+package com.learn.lld.gramvikash.emergency.service;
+
+import com.learn.lld.gramvikash.emergency.enums.EmergencyType;
+import com.learn.lld.gramvikash.emergency.service.EmergencyKeywordClassifier.LocalClassification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmergencyKeywordClassifierTest {
+
+    private EmergencyKeywordClassifier classifier;
+
+    @BeforeEach
+    void setUp() {
+        classifier = new EmergencyKeywordClassifier();
+        ReflectionTestUtils.setField(classifier, "confidenceThreshold", 0.7);
+    }
+
+    @Test
+    void hindiFireDoesNotMatchInsideAhead() {
+        // "the cow won't move forward" — आगे contains आग (fire)
+        LocalClassification result = classifier.classify("गाय आगे नहीं चल रही");
+
+        assertThat(result.emergencyType()).isNull();
+        assertThat(classifier.isConfident(result)).isFalse();
+    }
+
+    @Test
+    void hindiCobraDoesNotMatchInsideCitizenOrNagpur() {
+        assertThat(classifier.classify("मैं नागपुर का नागरिक हूँ").emergencyType()).isNull();
+    }
+
+    @Test
+    void hindiFireAsWholeWordIsConfident() {
+        LocalClassification result = classifier.classify("खेत में आग लगी है");
+
+        assertThat(result.emergencyType()).isEqualTo(EmergencyType.FIRE_ACCIDENT);
+        assertThat(classifier.isConfident(result)).isTrue();
+    }
+
+    @Test
+    void teluguFusedSnakeBiteIsRecognised() {
+        LocalClassification result = classifier.classify("మా నాన్నకు పాముకాటు");
+
+        assertThat(result.emergencyType()).isEqualTo(EmergencyType.SNAKE_BITE);
+        assertThat(classifier.isConfident(result)).isTrue();
+    }
+
+    @Test
+    void teluguSnakeAndBiteAsSeparateWords() {
+        LocalClassification result = classifier.classify("పాము కాటు వేసింది");
+
+        assertThat(result.emergencyType()).isEqualTo(EmergencyType.SNAKE_BITE);
+        assertThat(result.matchedTerms()).contains("పాము", "కాటు");
+    }
+
+    @Test
+    void romanisedTermsStillMatchWholeWordsOnly() {
+        assertThat(classifier.classify("saanp ne kaata").emergencyType()).isEqualTo(EmergencyType.SNAKE_BITE);
+        assertThat(classifier.classify("the fireplace is warm").emergencyType()).isNull();
+    }
+
+    @Test
+    void reasonListsOnlyTheWinningTypesTerms() {
+        LocalClassification result = classifier.classify("saanp ne kaata tractor ke paas");
+
+        assertThat(result.emergencyType()).isEqualTo(EmergencyType.SNAKE_BITE);
+        assertThat(result.matchedTerms()).containsExactlyInAnyOrder("saanp", "kaata");
+        assertThat(result.toResult().reasoning()).doesNotContain("tractor");
+    }
+}